@@ -2,13 +2,15 @@ package com.devops.challenge;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
 @EnableConfigurationProperties
+@ConfigurationPropertiesScan
 public class DevOpsChallengeApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(DevOpsChallengeApplication.class, args);
     }
-} 
\ No newline at end of file
+}
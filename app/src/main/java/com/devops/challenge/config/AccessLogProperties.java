@@ -0,0 +1,115 @@
+package com.devops.challenge.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for the asynchronous access log ("app.access-log").
+ */
+@ConfigurationProperties(prefix = "app.access-log")
+public class AccessLogProperties {
+
+    /**
+     * Where access log lines are written.
+     */
+    public enum Output {
+        /** Standard output, shared with the console logger a whole batch of lines at a time. */
+        STDOUT,
+        /** A size-based rolling file. */
+        FILE
+    }
+
+    private boolean enabled = true;
+
+    private Output output = Output.STDOUT;
+
+    /** Access log file, when output is file. */
+    private String file = "logs/access.log";
+
+    /** Size at which the access log file is rolled over. */
+    private DataSize maxFileSize = DataSize.ofMegabytes(10);
+
+    /** Number of rolled-over files kept (access.log.1 ... access.log.N). */
+    private int maxHistory = 5;
+
+    /**
+     * Number of records buffered between request threads and the writer,
+     * rounded up to a power of two. Records are dropped while it is full.
+     */
+    private int bufferSize = 8192;
+
+    /** Maximum number of records written per batch. */
+    private int batchSize = 256;
+
+    /**
+     * How long the writer sleeps once it has caught up, i.e. the longest a
+     * record waits to be written. The buffer must hold this much traffic.
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Output getOutput() {
+        return output;
+    }
+
+    public void setOutput(Output output) {
+        this.output = output;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public DataSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(DataSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public int getMaxHistory() {
+        return maxHistory;
+    }
+
+    public void setMaxHistory(int maxHistory) {
+        this.maxHistory = maxHistory;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+}
@@ -0,0 +1,342 @@
+package com.devops.challenge.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.devops.challenge.dto.ApiResponse;
+import com.devops.challenge.dto.BinaryFormat;
+import com.devops.challenge.service.PipelineStage;
+import com.devops.challenge.service.StageTimers;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * How ApiResponse bodies are written, by swapping in Jackson converters that
+ * wrap Spring Boot's defaults. Other response bodies are left to the
+ * defaults.
+ *
+ * ApiResponse is written as compact JSON regardless of the global
+ * indent-output setting, or indented when the request asks for it with
+ * ?pretty=true. Its serialization is timed as the SERIALIZE_RESPONSE stage.
+ * The streaming echo mode writes its own response and is not covered.
+ *
+ * Clients that send Accept: application/cbor or application/x-jackson-smile
+ * get the same ApiResponse in that binary format, written by copies of the
+ * application ObjectMapper rather than the plain mappers Spring would use.
+ */
+@Configuration
+public class ApiResponseCodecConfiguration {
+
+    public static final String PRETTY_PARAMETER = "pretty";
+
+    /**
+     * Replaces the MappingJackson2HttpMessageConverter Spring Boot would
+     * otherwise create for Spring MVC.
+     */
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   StageTimers stageTimers) {
+        return new ApiResponseHttpMessageConverter(objectMapper, stageTimers);
+    }
+
+    /**
+     * Replaces Spring MVC's default CBOR converter.
+     */
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(
+            ObjectMapper objectMapper, StageTimers stageTimers) {
+        return new ApiResponseCborHttpMessageConverter(BinaryFormat.CBOR.mapper(objectMapper), stageTimers);
+    }
+
+    /**
+     * Replaces Spring MVC's default Smile converter.
+     */
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(
+            ObjectMapper objectMapper, StageTimers stageTimers) {
+        return new ApiResponseSmileHttpMessageConverter(BinaryFormat.SMILE.mapper(objectMapper), stageTimers);
+    }
+
+    /**
+     * Runs after Spring Boot's own Jackson codec customizer (order 0), so
+     * this encoder replaces the one it registers.
+     *
+     * WebFlux has a default Smile encoder but none for CBOR, which has to be
+     * a custom codec. Custom codecs are consulted before the defaults, so
+     * the JSON encoder is registered ahead of it as well: otherwise requests
+     * without an Accept header would be answered in CBOR.
+     */
+    @Bean
+    @Profile("reactive")
+    @Order(1)
+    public CodecCustomizer apiResponseCodecCustomizer(ObjectMapper objectMapper, StageTimers stageTimers) {
+        return configurer -> {
+            ApiResponseJsonEncoder jsonEncoder = new ApiResponseJsonEncoder(objectMapper, stageTimers);
+            configurer.defaultCodecs().jackson2JsonEncoder(jsonEncoder);
+            configurer.defaultCodecs().jackson2SmileEncoder(
+                    new ApiResponseSmileEncoder(BinaryFormat.SMILE.mapper(objectMapper), stageTimers));
+            configurer.customCodecs().register(jsonEncoder);
+            configurer.customCodecs().register(
+                    new ApiResponseCborEncoder(BinaryFormat.CBOR.mapper(objectMapper), stageTimers));
+        };
+    }
+
+    public static boolean isPretty(String parameter) {
+        return "true".equalsIgnoreCase(parameter);
+    }
+
+    /**
+     * Whether a raw query string contains pretty=true. Servlet requests are
+     * checked through the query string only, since getParameter() would
+     * consume a form-encoded body.
+     */
+    public static boolean isPrettyQuery(String queryString) {
+        if (queryString == null) {
+            return false;
+        }
+        String pretty = PRETTY_PARAMETER + "=true";
+        int from = 0;
+        while (from < queryString.length()) {
+            int end = queryString.indexOf('&', from);
+            if (end < 0) {
+                end = queryString.length();
+            }
+            if (end - from == pretty.length() && queryString.regionMatches(true, from, pretty, 0, pretty.length())) {
+                return true;
+            }
+            from = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Writer for ApiResponse JSON, compact or indented.
+     */
+    public static ObjectWriter writer(ObjectMapper objectMapper, boolean pretty) {
+        return pretty
+                ? objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT)
+                : objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    static final class ApiResponseHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+        private final StageTimers stageTimers;
+        private final ObjectWriter compactWriter;
+        private final ObjectWriter prettyWriter;
+
+        ApiResponseHttpMessageConverter(ObjectMapper objectMapper, StageTimers stageTimers) {
+            super(objectMapper);
+            this.stageTimers = stageTimers;
+            this.compactWriter = writer(objectMapper, false);
+            this.prettyWriter = writer(objectMapper, true);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            if (!(object instanceof ApiResponse)) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+            long start = stageTimers.start();
+            try {
+                ObjectWriter writer = isPrettyRequested() ? prettyWriter : compactWriter;
+                // Closing the generator returns its buffer to Jackson's
+                // recycler and flushes; the body stream is the container's to close
+                try (JsonGenerator generator = writer.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                    writer.writeValue(generator, object);
+                }
+            } finally {
+                stageTimers.stop(PipelineStage.SERIALIZE_RESPONSE, start);
+            }
+        }
+
+        private static boolean isPrettyRequested() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            return attributes instanceof ServletRequestAttributes servletAttributes
+                    && isPrettyQuery(servletAttributes.getRequest().getQueryString());
+        }
+    }
+
+    static final class ApiResponseJsonEncoder extends Jackson2JsonEncoder {
+
+        private static final String PRETTY_HINT = ApiResponseJsonEncoder.class.getName() + ".pretty";
+
+        private final StageTimers stageTimers;
+        private final ObjectWriter compactWriter;
+        private final ObjectWriter prettyWriter;
+
+        ApiResponseJsonEncoder(ObjectMapper objectMapper, StageTimers stageTimers) {
+            super(objectMapper);
+            this.stageTimers = stageTimers;
+            this.compactWriter = writer(objectMapper, false);
+            this.prettyWriter = writer(objectMapper, true);
+        }
+
+        @Override
+        public Map<String, Object> getEncodeHints(ResolvableType actualType, ResolvableType elementType,
+                                                  MediaType mediaType, ServerHttpRequest request,
+                                                  ServerHttpResponse response) {
+            Map<String, Object> hints = super.getEncodeHints(actualType, elementType, mediaType, request, response);
+            if (!isPretty(request.getQueryParams().getFirst(PRETTY_PARAMETER))) {
+                return hints;
+            }
+            Map<String, Object> prettyHints = new HashMap<>(hints);
+            prettyHints.put(PRETTY_HINT, Boolean.TRUE);
+            return prettyHints;
+        }
+
+        @Override
+        public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                      MimeType mimeType, Map<String, Object> hints) {
+            if (!(value instanceof ApiResponse)) {
+                return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+            }
+            long start = stageTimers.start();
+            try {
+                boolean pretty = hints != null && Boolean.TRUE.equals(hints.get(PRETTY_HINT));
+                return bufferFactory.wrap((pretty ? prettyWriter : compactWriter).writeValueAsBytes(value));
+            } catch (IOException e) {
+                throw new EncodingException("JSON encoding error: " + e.getMessage(), e);
+            } finally {
+                stageTimers.stop(PipelineStage.SERIALIZE_RESPONSE, start);
+            }
+        }
+    }
+
+    static final class ApiResponseCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+        private final StageTimers stageTimers;
+
+        ApiResponseCborHttpMessageConverter(ObjectMapper cborMapper, StageTimers stageTimers) {
+            super(cborMapper);
+            this.stageTimers = stageTimers;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            long start = object instanceof ApiResponse ? stageTimers.start() : StageTimers.NOT_SAMPLED;
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                stageTimers.stop(PipelineStage.SERIALIZE_RESPONSE, start);
+            }
+        }
+    }
+
+    static final class ApiResponseSmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+        private final StageTimers stageTimers;
+
+        ApiResponseSmileHttpMessageConverter(ObjectMapper smileMapper, StageTimers stageTimers) {
+            super(smileMapper);
+            this.stageTimers = stageTimers;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            long start = object instanceof ApiResponse ? stageTimers.start() : StageTimers.NOT_SAMPLED;
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                stageTimers.stop(PipelineStage.SERIALIZE_RESPONSE, start);
+            }
+        }
+    }
+
+    static final class ApiResponseCborEncoder extends Jackson2CborEncoder {
+
+        private final StageTimers stageTimers;
+
+        ApiResponseCborEncoder(ObjectMapper cborMapper, StageTimers stageTimers) {
+            // Without explicit MIME types the Jackson codecs default to JSON
+            super(cborMapper, BinaryFormat.CBOR.getMediaType());
+            this.stageTimers = stageTimers;
+        }
+
+        /**
+         * The base encoder rejects every publisher, but a single value is
+         * all /api ever returns.
+         */
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (!(inputStream instanceof Mono<?> mono)) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+
+        @Override
+        public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                      MimeType mimeType, Map<String, Object> hints) {
+            long start = value instanceof ApiResponse ? stageTimers.start() : StageTimers.NOT_SAMPLED;
+            try {
+                return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+            } finally {
+                stageTimers.stop(PipelineStage.SERIALIZE_RESPONSE, start);
+            }
+        }
+    }
+
+    static final class ApiResponseSmileEncoder extends Jackson2SmileEncoder {
+
+        private final StageTimers stageTimers;
+
+        ApiResponseSmileEncoder(ObjectMapper smileMapper, StageTimers stageTimers) {
+            super(smileMapper, BinaryFormat.SMILE.getMediaType());
+            this.stageTimers = stageTimers;
+        }
+
+        @Override
+        public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                      MimeType mimeType, Map<String, Object> hints) {
+            long start = value instanceof ApiResponse ? stageTimers.start() : StageTimers.NOT_SAMPLED;
+            try {
+                return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+            } finally {
+                stageTimers.stop(PipelineStage.SERIALIZE_RESPONSE, start);
+            }
+        }
+    }
+}
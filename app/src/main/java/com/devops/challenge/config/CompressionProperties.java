@@ -0,0 +1,72 @@
+package com.devops.challenge.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for gzip compression of /api responses ("app.compression").
+ */
+@ConfigurationProperties(prefix = "app.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    /** Responses smaller than this are sent uncompressed. */
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    /** Deflate level, from 1 (fastest) to 9 (smallest). */
+    private int level = 6;
+
+    /**
+     * Content types that are compressed. Wildcards such as "text/*" are
+     * allowed; parameters like charset are ignored.
+     */
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "application/json", "application/*+json", "application/x-ndjson", "text/plain"));
+
+    /** Maximum number of idle deflaters kept for reuse. */
+    private int poolSize = 32;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMinResponseSize() {
+        return minResponseSize;
+    }
+
+    public void setMinResponseSize(DataSize minResponseSize) {
+        this.minResponseSize = minResponseSize;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+}
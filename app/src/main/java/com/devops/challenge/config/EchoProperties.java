@@ -0,0 +1,179 @@
+package com.devops.challenge.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for how POST/PUT request bodies are echoed back ("app.echo").
+ */
+@ConfigurationProperties(prefix = "app.echo")
+public class EchoProperties {
+
+    /**
+     * How request bodies are handled.
+     */
+    public enum Mode {
+        /** Read the whole body into memory, parse it and echo the parsed tree. */
+        BUFFERED,
+        /** Copy the body token by token from the request to the response. */
+        STREAMING
+    }
+
+    private Mode mode = Mode.BUFFERED;
+
+    private DataSize maxBodySize = DataSize.ofMegabytes(10);
+
+    private final Headers headers = new Headers();
+
+    private final Buffering buffering = new Buffering();
+
+    private final Batch batch = new Batch();
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isStreaming() {
+        return mode == Mode.STREAMING;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public Headers getHeaders() {
+        return headers;
+    }
+
+    public Buffering getBuffering() {
+        return buffering;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    /**
+     * Which request headers are echoed back. Names are case-insensitive.
+     */
+    public static class Headers {
+
+        /** Headers to echo; empty to echo every header not denied. */
+        private List<String> allow = new ArrayList<>();
+
+        /** Headers never to echo, e.g. Authorization or Cookie. */
+        private List<String> deny = new ArrayList<>();
+
+        public List<String> getAllow() {
+            return allow;
+        }
+
+        public void setAllow(List<String> allow) {
+            this.allow = allow;
+        }
+
+        public List<String> getDeny() {
+            return deny;
+        }
+
+        public void setDeny(List<String> deny) {
+            this.deny = deny;
+        }
+    }
+
+    /**
+     * Memory limits for bodies in buffered mode. Bodies larger than the
+     * spill threshold are not held in memory but written, as the finished
+     * response, to a temporary file that is then sent.
+     */
+    public static class Buffering {
+
+        /**
+         * Heap for bodies across all concurrent requests; a body is counted
+         * at four times its size (see EchoBodyBudget).
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(64);
+
+        /** How long a request waits for budget before getting a 503. */
+        private Duration waitTimeout = Duration.ofSeconds(10);
+
+        /** JSON and text bodies larger than this are spilled to disk. */
+        private DataSize spillThreshold = DataSize.ofMegabytes(1);
+
+        /** Directory of the spill files; java.io.tmpdir when unset. */
+        private String spillDirectory;
+
+        public DataSize getMemoryBudget() {
+            return memoryBudget;
+        }
+
+        public void setMemoryBudget(DataSize memoryBudget) {
+            this.memoryBudget = memoryBudget;
+        }
+
+        public Duration getWaitTimeout() {
+            return waitTimeout;
+        }
+
+        public void setWaitTimeout(Duration waitTimeout) {
+            this.waitTimeout = waitTimeout;
+        }
+
+        public DataSize getSpillThreshold() {
+            return spillThreshold;
+        }
+
+        public void setSpillThreshold(DataSize spillThreshold) {
+            this.spillThreshold = spillThreshold;
+        }
+
+        public String getSpillDirectory() {
+            return spillDirectory;
+        }
+
+        public void setSpillDirectory(String spillDirectory) {
+            this.spillDirectory = spillDirectory;
+        }
+    }
+
+    /**
+     * POST /api/batch, which echoes each item of an NDJSON stream or JSON
+     * array as one line of NDJSON.
+     */
+    public static class Batch {
+
+        /** Threads echoing items across all batches; 1 echoes them on the request thread. */
+        private int parallelism = 1;
+
+        /** Items of one batch echoed ahead of the one being written, with parallelism above 1. */
+        private int maxInFlight = 256;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+}
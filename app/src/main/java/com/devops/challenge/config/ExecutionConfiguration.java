@@ -0,0 +1,69 @@
+package com.devops.challenge.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.catalina.Lifecycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.devops.challenge.service.MetricsService;
+
+/**
+ * Applies the request execution mode ("app.execution.mode") to Tomcat.
+ *
+ * In virtual mode every request is handled on its own virtual thread instead
+ * of a thread from Tomcat's platform pool, so blocking I/O (body reads,
+ * response writes) no longer ties up a scarce OS thread. Code on the request
+ * path must not block while holding a monitor (synchronized), which would pin
+ * the carrier thread; use java.util.concurrent locks instead.
+ *
+ * In both modes the executor records how long dispatched requests wait for a
+ * thread (devops_api_queue_wait). Tomcat does not expose when a connection
+ * was accepted, so this wait, from dispatch to a thread picking the request
+ * up, is the part of the accept-to-handler time that grows under saturation.
+ */
+@Configuration
+public class ExecutionConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConfiguration.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> executionModeCustomizer(ExecutionProperties executionProperties,
+                                                                      ServerProperties serverProperties,
+                                                                      MetricsService metricsService) {
+        return protocolHandler -> {
+            if (executionProperties.isVirtual()) {
+                protocolHandler.setExecutor(QueueWaitRecordingExecutor.wrap(Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("http-vt-", 0).factory()), metricsService));
+                logger.info("Tomcat requests will be handled on virtual threads");
+            } else {
+                ServerProperties.Tomcat.Threads threads = serverProperties.getTomcat().getThreads();
+                protocolHandler.setExecutor(new QueueWaitRecordingExecutor(threads.getMinSpare(), threads.getMax(),
+                        metricsService));
+            }
+        };
+    }
+
+    /**
+     * Tomcat only shuts down executors it created itself, so stop the one
+     * supplied above, in either mode, along with the connector.
+     */
+    @Bean
+    public TomcatConnectorCustomizer executorShutdownCustomizer() {
+        return connector -> connector.addLifecycleListener(event -> {
+            if (Lifecycle.AFTER_STOP_EVENT.equals(event.getType())) {
+                Executor executor = connector.getProtocolHandler().getExecutor();
+                if (executor instanceof ExecutorService executorService) {
+                    executorService.shutdownNow();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.devops.challenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for the threads that run request handling ("app.execution").
+ */
+@ConfigurationProperties(prefix = "app.execution")
+public class ExecutionProperties {
+
+    /**
+     * Which kind of thread the servlet container dispatches requests to.
+     */
+    public enum Mode {
+        /** Tomcat's default bounded pool of platform threads. */
+        PLATFORM,
+        /** A new virtual thread per request. */
+        VIRTUAL
+    }
+
+    private Mode mode = Mode.PLATFORM;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isVirtual() {
+        return mode == Mode.VIRTUAL;
+    }
+}
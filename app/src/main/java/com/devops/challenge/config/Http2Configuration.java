@@ -0,0 +1,38 @@
+package com.devops.challenge.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Applies app.http2 to Tomcat's HTTP/2 protocol, which Spring Boot adds to
+ * the connector when server.http2.enabled is set (h2c without TLS, h2 via
+ * ALPN with it).
+ *
+ * Tomcat handles at most 20 streams of a connection at a time by default,
+ * and queues the rest. A client multiplexing all its requests over one
+ * connection would get far less parallelism than the same client opening
+ * HTTP/1.1 connections, so the execution limit is raised to the stream
+ * limit. Netty handles all streams it accepts; see ReactiveConfiguration.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "server.http2", name = "enabled", havingValue = "true")
+public class Http2Configuration {
+
+    @Bean
+    public TomcatConnectorCustomizer http2StreamLimitCustomizer(Http2Properties http2Properties) {
+        return connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(http2Properties.getMaxConcurrentStreams());
+                    http2.setMaxConcurrentStreamExecution(http2Properties.getMaxConcurrentStreams());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.devops.challenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * HTTP/2 tuning ("app.http2"); HTTP/2 itself is switched on with
+ * server.http2.enabled.
+ */
+@ConfigurationProperties(prefix = "app.http2")
+public class Http2Properties {
+
+    /**
+     * Streams a client may have open at once on one connection, and on
+     * Tomcat also how many of them are handled concurrently.
+     */
+    private int maxConcurrentStreams = 200;
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+}
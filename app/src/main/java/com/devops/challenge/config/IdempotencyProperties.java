@@ -0,0 +1,79 @@
+package com.devops.challenge.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for replaying the stored response of POST, PUT and DELETE
+ * /api requests that repeat an Idempotency-Key ("app.idempotency").
+ */
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /** Total size of the stored responses, keys included. */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /** Larger responses are not stored. */
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+    /** How long a response is replayed after it was stored. */
+    private Duration ttl = Duration.ofHours(1);
+
+    /** How long a duplicate waits for the request it repeats before getting a 409. */
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    /** Store response bodies in direct buffers, outside the Java heap. */
+    private boolean offHeap = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+}
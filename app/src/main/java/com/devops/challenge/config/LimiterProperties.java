@@ -0,0 +1,106 @@
+package com.devops.challenge.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for the adaptive concurrency limit in front of /api ("app.limiter").
+ */
+@ConfigurationProperties(prefix = "app.limiter")
+public class LimiterProperties {
+
+    private boolean enabled = false;
+
+    /** Concurrency limit to start from before any latency has been measured. */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    /**
+     * Kept below the worker threads (server.tomcat.threads.max, 200 by
+     * default), so the limit sheds load while threads are still free to
+     * answer with a 503, rather than requests queueing for a thread out of
+     * its reach.
+     */
+    private int maxLimit = 150;
+
+    /**
+     * How much slower than the long-term average latency requests may get
+     * before the limit is reduced (1.5 = 50% slower).
+     */
+    private double rttTolerance = 1.5;
+
+    /** Weight of each new limit estimate, between 0 and 1. */
+    private double smoothing = 0.2;
+
+    /** How often the limit is re-evaluated from the measured latency. */
+    private Duration sampleWindow = Duration.ofMillis(100);
+
+    /** Value of the Retry-After header on rejected requests. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public Duration getSampleWindow() {
+        return sampleWindow;
+    }
+
+    public void setSampleWindow(Duration sampleWindow) {
+        this.sampleWindow = sampleWindow;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,189 @@
+package com.devops.challenge.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for the application's own metrics ("app.metrics").
+ */
+@ConfigurationProperties(prefix = "app.metrics")
+public class MetricsProperties {
+
+    private final CustomMeters customMeters = new CustomMeters();
+
+    private final StageTiming stageTiming = new StageTiming();
+
+    private final Batching batching = new Batching();
+
+    private final RuntimeStats runtimeStats = new RuntimeStats();
+
+    public CustomMeters getCustomMeters() {
+        return customMeters;
+    }
+
+    public StageTiming getStageTiming() {
+        return stageTiming;
+    }
+
+    public Batching getBatching() {
+        return batching;
+    }
+
+    public RuntimeStats getRuntimeStats() {
+        return runtimeStats;
+    }
+
+    /**
+     * Limits for the meters created through MetricsService.createCustomCounter
+     * and createCustomTimer, whose tags are chosen by the caller.
+     */
+    public static class CustomMeters {
+
+        /**
+         * What happens to a new series once max-series is reached.
+         */
+        public enum OverflowPolicy {
+            /** Hand out a no-op meter; the new series is never exported. */
+            DENY,
+            /**
+             * Remove the oldest custom series from the registry to make room.
+             * A caller still holding an evicted meter records to nothing.
+             */
+            EVICT
+        }
+
+        private int maxSeries = 1000;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DENY;
+
+        public int getMaxSeries() {
+            return maxSeries;
+        }
+
+        public void setMaxSeries(int maxSeries) {
+            this.maxSeries = maxSeries;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+    }
+
+    /**
+     * Sampled timing of the individual stages of an /api request.
+     */
+    public static class StageTiming {
+
+        /** Fraction of stage executions that are timed, from 0 (off) to 1 (all). */
+        private double sampleRate = 0.01;
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    /**
+     * Batched recording of the per-request API call counters and response
+     * time timers.
+     */
+    public static class Batching {
+
+        private boolean enabled = true;
+
+        /** Number of calls buffered per stripe before they are written to the meters. */
+        private int batchSize = 64;
+
+        /**
+         * Longest a buffered call waits while its stripe keeps receiving
+         * calls. Idle stripes are written out before each scrape.
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+    }
+
+    /**
+     * Background sampling of JVM runtime statistics (devops_runtime_*).
+     */
+    public static class RuntimeStats {
+
+        private boolean enabled = true;
+
+        /** How often the statistics are collected; gauges report the latest sample. */
+        private Duration interval = Duration.ofSeconds(5);
+
+        /**
+         * Stream GC pauses and safepoints from an in-process JFR recording.
+         */
+        private boolean jfr = true;
+
+        /**
+         * Also stream virtual thread starts/ends (with jfr) for the live
+         * virtual thread gauge; two events per request in virtual mode.
+         */
+        private boolean virtualThreads = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public boolean isJfr() {
+            return jfr;
+        }
+
+        public void setJfr(boolean jfr) {
+            this.jfr = jfr;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.devops.challenge.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for on-demand JFR profiling through /actuator/profiling
+ * ("app.profiling").
+ */
+@ConfigurationProperties(prefix = "app.profiling")
+public class ProfilingProperties {
+
+    private boolean enabled = false;
+
+    /** Used when a recording is started without a duration. */
+    private Duration defaultDuration = Duration.ofSeconds(60);
+
+    /** Longest a recording may run; longer requests are cut to this. */
+    private Duration maxDuration = Duration.ofMinutes(10);
+
+    /** Disk space the recording's data may use before the oldest is discarded. */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /** Where the recording is written when it stops, for opening in JDK Mission Control. */
+    private String dumpDirectory = System.getProperty("java.io.tmpdir");
+
+    /** Number of entries in each ranking of the summary. */
+    private int topEntries = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDefaultDuration() {
+        return defaultDuration;
+    }
+
+    public void setDefaultDuration(Duration defaultDuration) {
+        this.defaultDuration = defaultDuration;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public String getDumpDirectory() {
+        return dumpDirectory;
+    }
+
+    public void setDumpDirectory(String dumpDirectory) {
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    public int getTopEntries() {
+        return topEntries;
+    }
+
+    public void setTopEntries(int topEntries) {
+        this.topEntries = topEntries;
+    }
+}
@@ -0,0 +1,52 @@
+package com.devops.challenge.config;
+
+import java.util.Set;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.ConditionalOnEnabledMetricsExport;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.TextOutputFormat;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+
+import com.devops.challenge.service.MetricsService;
+
+import io.prometheus.client.CollectorRegistry;
+
+/**
+ * Replaces Spring Boot's /actuator/prometheus endpoint with one that first
+ * writes out the API calls MetricsService is still batching, so every
+ * scrape sees the request counters and response timers up to date and in
+ * agreement with each other.
+ */
+@Configuration
+public class PrometheusScrapeConfiguration {
+
+    @Bean
+    @ConditionalOnEnabledMetricsExport("prometheus")
+    @ConditionalOnAvailableEndpoint(endpoint = PrometheusScrapeEndpoint.class)
+    public PrometheusScrapeEndpoint prometheusEndpoint(CollectorRegistry collectorRegistry,
+                                                       MetricsService metricsService) {
+        return new FlushingPrometheusScrapeEndpoint(collectorRegistry, metricsService);
+    }
+
+    static class FlushingPrometheusScrapeEndpoint extends PrometheusScrapeEndpoint {
+
+        private final MetricsService metricsService;
+
+        FlushingPrometheusScrapeEndpoint(CollectorRegistry collectorRegistry, MetricsService metricsService) {
+            super(collectorRegistry);
+            this.metricsService = metricsService;
+        }
+
+        @Override
+        @ReadOperation(producesFrom = TextOutputFormat.class)
+        public WebEndpointResponse<String> scrape(TextOutputFormat format, @Nullable Set<String> includedNames) {
+            metricsService.flushApiCalls();
+            return super.scrape(format, includedNames);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.devops.challenge.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+import com.devops.challenge.service.MetricsService;
+
+/**
+ * Tomcat's worker pool, built the way Tomcat builds its own, that records how
+ * long each dispatched socket waits in the queue before a worker thread picks
+ * it up. Subclassing Tomcat's executor keeps the tomcat.threads.* metrics
+ * working.
+ */
+class QueueWaitRecordingExecutor extends ThreadPoolExecutor {
+
+    private final MetricsService metricsService;
+
+    QueueWaitRecordingExecutor(int minSpareThreads, int maxThreads, MetricsService metricsService) {
+        super(minSpareThreads, maxThreads, 60, TimeUnit.SECONDS, new TaskQueue(),
+                new TaskThreadFactory("http-exec-", true, Thread.NORM_PRIORITY));
+        ((TaskQueue) getQueue()).setParent(this);
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new QueueWaitRecordingTask(command, metricsService));
+    }
+
+    /**
+     * Wrap any executor service so it records queue wait in the same way.
+     * The wrapper is an ExecutorService itself, passing shutdown on, so it
+     * can be stopped along with the connector like the pool above.
+     */
+    static ExecutorService wrap(ExecutorService executor, MetricsService metricsService) {
+        return new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                executor.execute(new QueueWaitRecordingTask(command, metricsService));
+            }
+
+            @Override
+            public void shutdown() {
+                executor.shutdown();
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return executor.shutdownNow();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return executor.isShutdown();
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return executor.isTerminated();
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+                return executor.awaitTermination(timeout, unit);
+            }
+        };
+    }
+
+    private static final class QueueWaitRecordingTask implements Runnable {
+
+        private final Runnable task;
+        private final MetricsService metricsService;
+        private final long submittedNanos;
+
+        QueueWaitRecordingTask(Runnable task, MetricsService metricsService) {
+            this.task = task;
+            this.metricsService = metricsService;
+            this.submittedNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            metricsService.recordQueueWait(System.nanoTime() - submittedNanos);
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.devops.challenge.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Server setup for the "reactive" profile.
+ *
+ * Both Tomcat and Reactor Netty are on the classpath and Spring Boot would
+ * pick Tomcat for a reactive application too, so the Netty server factory is
+ * declared explicitly. Being declared here it does not get Spring Boot's
+ * NettyServerCustomizer beans, so the HTTP/2 stream limit (app.http2) is
+ * applied on it directly.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(Http2Properties http2Properties) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        factory.addServerCustomizers(server -> server.http2Settings(settings ->
+                settings.maxConcurrentStreams(http2Properties.getMaxConcurrentStreams())));
+        return factory;
+    }
+}
@@ -0,0 +1,69 @@
+package com.devops.challenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for recording /api traffic to segment files for later
+ * replay ("app.recorder").
+ */
+@ConfigurationProperties(prefix = "app.recorder")
+public class RecorderProperties {
+
+    private boolean enabled = false;
+
+    /** Directory the segment files are written to. */
+    private String directory = "recordings";
+
+    /** Size of each memory-mapped segment file; at most 2GB. */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /** Segment files kept; the oldest is deleted when a new one is started. */
+    private int maxSegments = 16;
+
+    /**
+     * Request bodies are recorded up to this size and marked truncated
+     * beyond it, as are bodies the handler did not read in full.
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(64);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+}
@@ -0,0 +1,36 @@
+package com.devops.challenge.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import com.devops.challenge.service.WarmupRunner;
+
+import io.micrometer.observation.ObservationPredicate;
+
+/**
+ * Keeps the warm-up's loopback requests out of Spring's server request
+ * observations, and so out of http.server.requests, as the /api controllers
+ * keep them out of the devops_api_* metrics.
+ */
+@Configuration
+public class WarmupObservationConfiguration {
+
+    @Bean
+    public ObservationPredicate warmupObservationPredicate(ObjectProvider<WarmupRunner> warmupRunner) {
+        WarmupRunner runner = warmupRunner.getIfAvailable();
+        if (runner == null) {
+            return (name, context) -> true;
+        }
+        return (name, context) -> {
+            if (context instanceof ServerRequestObservationContext servlet) {
+                return !runner.isWarmupRequest(servlet.getCarrier().getHeader(WarmupRunner.HEADER));
+            }
+            if (context instanceof org.springframework.http.server.reactive.observation.ServerRequestObservationContext reactive) {
+                return !runner.isWarmupRequest(reactive.getCarrier().getHeaders().getFirst(WarmupRunner.HEADER));
+            }
+            return true;
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.devops.challenge.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for the startup warm-up that runs before the application
+ * reports ready ("app.warmup").
+ */
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    /** Longest the warm-up may run, whether or not latency has settled. */
+    private Duration timeBudget = Duration.ofSeconds(30);
+
+    /** Requests sent per round; latency is compared round to round. */
+    private int requestsPerRound = 200;
+
+    /** Requests in flight at once. */
+    private int concurrency = 4;
+
+    /** Largest change in median latency between rounds that counts as stable. */
+    private double tolerance = 0.1;
+
+    /** Consecutive stable rounds after which the warm-up ends. */
+    private int stableRounds = 3;
+
+    /** Sizes of the POST and PUT bodies sent, each as JSON and as plain text. */
+    private List<DataSize> bodySizes = new ArrayList<>(List.of(
+            DataSize.ofBytes(64), DataSize.ofKilobytes(1), DataSize.ofKilobytes(16)));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+
+    public void setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    public int getRequestsPerRound() {
+        return requestsPerRound;
+    }
+
+    public void setRequestsPerRound(int requestsPerRound) {
+        this.requestsPerRound = requestsPerRound;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getStableRounds() {
+        return stableRounds;
+    }
+
+    public void setStableRounds(int stableRounds) {
+        this.stableRounds = stableRounds;
+    }
+
+    public List<DataSize> getBodySizes() {
+        return bodySizes;
+    }
+
+    public void setBodySizes(List<DataSize> bodySizes) {
+        this.bodySizes = bodySizes;
+    }
+}
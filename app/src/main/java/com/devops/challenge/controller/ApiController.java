@@ -1,209 +1,226 @@
 package com.devops.challenge.controller;
 
+import com.devops.challenge.config.EchoProperties;
 import com.devops.challenge.dto.ApiResponse;
+import com.devops.challenge.dto.BinaryFormat;
+import com.devops.challenge.dto.HeaderFilter;
+import com.devops.challenge.dto.HeaderView;
+import com.devops.challenge.service.ApiMethod;
+import com.devops.challenge.service.EchoBodyBudget;
 import com.devops.challenge.service.MetricsService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.micrometer.core.annotation.Timed;
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.MeterRegistry;
+import com.devops.challenge.service.PipelineStage;
+import com.devops.challenge.service.StageTimers;
+import com.devops.challenge.service.WarmupRunner;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 
 @RestController
 @RequestMapping("/api")
+@Profile("!reactive")
 public class ApiController {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiController.class);
     
     private final MetricsService metricsService;
-    private final ObjectMapper objectMapper;
-    private final Counter apiCallCounter;
-    private final Counter getRequestCounter;
-    private final Counter postRequestCounter;
-    private final Counter putRequestCounter;
-    private final Counter deleteRequestCounter;
+    private final ApiResponseFactory apiResponseFactory;
+    private final EchoProperties echoProperties;
+    private final RequestBodyReader requestBodyReader;
+    private final StreamingEchoWriter streamingEchoWriter;
+    private final EchoBodyBudget echoBodyBudget;
+    private final BatchEchoWriter batchEchoWriter;
+    private final HeaderFilter headerFilter;
+    private final StageTimers stageTimers;
+    private final WarmupRunner warmupRunner;
 
     @Autowired
     public ApiController(MetricsService metricsService, 
-                        ObjectMapper objectMapper,
-                        MeterRegistry meterRegistry) {
+                        ApiResponseFactory apiResponseFactory,
+                        EchoProperties echoProperties,
+                        RequestBodyReader requestBodyReader,
+                        StreamingEchoWriter streamingEchoWriter,
+                        EchoBodyBudget echoBodyBudget,
+                        BatchEchoWriter batchEchoWriter,
+                        StageTimers stageTimers,
+                        ObjectProvider<WarmupRunner> warmupRunner) {
         this.metricsService = metricsService;
-        this.objectMapper = objectMapper;
-        
-        // Initialize custom metrics
-        this.apiCallCounter = Counter.builder("api_calls_total")
-                .description("Total number of API calls")
-                .register(meterRegistry);
-                
-        this.getRequestCounter = Counter.builder("api_get_requests_total")
-                .description("Total number of GET requests")
-                .register(meterRegistry);
-                
-        this.postRequestCounter = Counter.builder("api_post_requests_total")
-                .description("Total number of POST requests")
-                .register(meterRegistry);
-                
-        this.putRequestCounter = Counter.builder("api_put_requests_total")
-                .description("Total number of PUT requests")
-                .register(meterRegistry);
-                
-        this.deleteRequestCounter = Counter.builder("api_delete_requests_total")
-                .description("Total number of DELETE requests")
-                .register(meterRegistry);
+        this.stageTimers = stageTimers;
+        this.apiResponseFactory = apiResponseFactory;
+        this.echoProperties = echoProperties;
+        this.requestBodyReader = requestBodyReader;
+        this.streamingEchoWriter = streamingEchoWriter;
+        this.echoBodyBudget = echoBodyBudget;
+        this.batchEchoWriter = batchEchoWriter;
+        this.headerFilter = HeaderFilter.of(echoProperties.getHeaders().getAllow(),
+                echoProperties.getHeaders().getDeny());
+        this.warmupRunner = warmupRunner.getIfAvailable();
     }
 
     @GetMapping
-    @Timed(value = "api_get_requests", description = "Time taken to process GET requests")
     public ResponseEntity<ApiResponse> handleGetRequest(HttpServletRequest request) {
-        logger.info("Received GET request to /api");
-        
-        // Increment counters
-        apiCallCounter.increment();
-        getRequestCounter.increment();
-        metricsService.incrementApiCalls();
+        long start = System.nanoTime();
+        logger.debug("Received GET request to /api");
         
-        ApiResponse response = buildApiResponse(request, "GET", null);
-        return ResponseEntity.ok(response);
+        try {
+            ApiResponse response = buildApiResponse(request, "GET", null);
+            return ResponseEntity.ok(response);
+        } finally {
+            recordApiCall(request, ApiMethod.GET, start);
+        }
     }
 
     @PostMapping
-    @Timed(value = "api_post_requests", description = "Time taken to process POST requests")
-    public ResponseEntity<ApiResponse> handlePostRequest(HttpServletRequest request, 
-                                                        @RequestBody(required = false) String body) {
-        logger.info("Received POST request to /api");
-        
-        // Increment counters
-        apiCallCounter.increment();
-        postRequestCounter.increment();
-        metricsService.incrementApiCalls();
+    public ResponseEntity<ApiResponse> handlePostRequest(HttpServletRequest request,
+                                                         HttpServletResponse httpResponse) throws IOException {
+        long start = System.nanoTime();
+        logger.debug("Received POST request to /api");
         
-        ApiResponse response = buildApiResponse(request, "POST", body);
-        return ResponseEntity.ok(response);
+        try {
+            return echoBody(request, httpResponse, "POST");
+        } finally {
+            recordApiCall(request, ApiMethod.POST, start);
+        }
     }
 
     @PutMapping
-    @Timed(value = "api_put_requests", description = "Time taken to process PUT requests")
-    public ResponseEntity<ApiResponse> handlePutRequest(HttpServletRequest request, 
-                                                       @RequestBody(required = false) String body) {
-        logger.info("Received PUT request to /api");
-        
-        // Increment counters
-        apiCallCounter.increment();
-        putRequestCounter.increment();
-        metricsService.incrementApiCalls();
+    public ResponseEntity<ApiResponse> handlePutRequest(HttpServletRequest request,
+                                                        HttpServletResponse httpResponse) throws IOException {
+        long start = System.nanoTime();
+        logger.debug("Received PUT request to /api");
         
-        ApiResponse response = buildApiResponse(request, "PUT", body);
-        return ResponseEntity.ok(response);
+        try {
+            return echoBody(request, httpResponse, "PUT");
+        } finally {
+            recordApiCall(request, ApiMethod.PUT, start);
+        }
+    }
+
+    @PostMapping("/batch")
+    public void handleBatchRequest(HttpServletRequest request, HttpServletResponse httpResponse) throws IOException {
+        long start = System.nanoTime();
+        logger.debug("Received POST request to /api/batch");
+
+        try {
+            batchEchoWriter.write(request, httpResponse, extractHeaders(request));
+        } finally {
+            recordApiCall(request, ApiMethod.BATCH, start);
+        }
     }
 
     @DeleteMapping
-    @Timed(value = "api_delete_requests", description = "Time taken to process DELETE requests")
     public ResponseEntity<ApiResponse> handleDeleteRequest(HttpServletRequest request) {
-        logger.info("Received DELETE request to /api");
-        
-        // Increment counters
-        apiCallCounter.increment();
-        deleteRequestCounter.increment();
-        metricsService.incrementApiCalls();
+        long start = System.nanoTime();
+        logger.debug("Received DELETE request to /api");
         
-        ApiResponse response = buildApiResponse(request, "DELETE", null);
-        return ResponseEntity.ok(response);
+        try {
+            ApiResponse response = buildApiResponse(request, "DELETE", null);
+            return ResponseEntity.ok(response);
+        } finally {
+            recordApiCall(request, ApiMethod.DELETE, start);
+        }
     }
 
-    @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> healthCheck() {
-        Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
-        health.put("timestamp", LocalDateTime.now());
-        health.put("service", "DevOps Challenge API");
-        health.put("version", "1.0.0");
-        
-        return ResponseEntity.ok(health);
+    // Warm-up requests are left out, so they do not skew the request
+    // metrics or the latency the concurrency limiter adapts to
+    private void recordApiCall(HttpServletRequest request, ApiMethod method, long start) {
+        if (warmupRunner == null || !warmupRunner.isWarmupRequest(request.getHeader(WarmupRunner.HEADER))) {
+            metricsService.recordApiCall(method, System.nanoTime() - start);
+        }
     }
 
-    @GetMapping("/info")
-    public ResponseEntity<Map<String, Object>> getInfo() {
-        Map<String, Object> info = new HashMap<>();
-        info.put("application", "DevOps Challenge API");
-        info.put("version", "1.0.0");
-        info.put("description", "A simple cloud-native API service");
-        info.put("build-time", LocalDateTime.now());
-        info.put("endpoints", Map.of(
-            "api", "/api (GET, POST, PUT, DELETE)",
-            "health", "/api/health",
-            "info", "/api/info",
-            "actuator", "/actuator/*"
-        ));
-        
-        return ResponseEntity.ok(info);
+    private ResponseEntity<ApiResponse> echoBody(HttpServletRequest request, HttpServletResponse httpResponse,
+                                                 String method) throws IOException {
+        BinaryFormat format = BinaryFormat.forContentType(request.getContentType());
+        // The streaming writer only speaks JSON, so binary exchanges are buffered
+        if (echoProperties.isStreaming() && format == null
+                && !BinaryFormat.isAcceptable(request.getHeader(HttpHeaders.ACCEPT))) {
+            streamingEchoWriter.write(request, httpResponse, method, extractHeaders(request));
+            return null;
+        }
+
+        if (format != null) {
+            byte[] body = requestBodyReader.readAsBytes(request);
+            return ResponseEntity.ok(buildApiResponse(request, method, body, format));
+        }
+        if (!EchoBodyBudget.isSpillable(request.getContentType(), request.getHeader(HttpHeaders.ACCEPT))) {
+            String body = requestBodyReader.readAsString(request);
+            return ResponseEntity.ok(buildApiResponse(request, method, body));
+        }
+
+        // Bodies over the spill threshold are echoed from a temporary file
+        // (see EchoBodyBudget); a chunked one is read up to the threshold first
+        long contentLength = request.getContentLengthLong();
+        if (echoBodyBudget.shouldSpill(contentLength)) {
+            streamingEchoWriter.writeSpilled(request, httpResponse, method, extractHeaders(request),
+                    requestBodyReader.openStream(request));
+            return null;
+        }
+        if (contentLength >= 0) {
+            String body = requestBodyReader.readAsString(request);
+            return ResponseEntity.ok(buildApiResponse(request, method, body));
+        }
+        InputStream stream = requestBodyReader.openStream(request);
+        int headLimit = (int) Math.min(echoBodyBudget.getSpillThreshold() + 1, Integer.MAX_VALUE - 8);
+        byte[] head = stream.readNBytes(headLimit);
+        if (echoBodyBudget.shouldSpill(head.length)) {
+            streamingEchoWriter.writeSpilled(request, httpResponse, method, extractHeaders(request),
+                    new SequenceInputStream(new ByteArrayInputStream(head), stream));
+            return null;
+        }
+        String body = head.length > 0 ? new String(head, requestBodyReader.charsetOf(request)) : null;
+        return ResponseEntity.ok(buildApiResponse(request, method, body));
     }
 
-    private ApiResponse buildApiResponse(HttpServletRequest request, String method, String body) {
+    // The request pipeline stages below are package-private so the JMH
+    // benchmarks in /benchmarks can drive each of them in isolation.
+    ApiResponse buildApiResponse(HttpServletRequest request, String method, String body) {
         try {
-            Map<String, String> headers = extractHeaders(request);
-            Object parsedBody = parseBody(body);
-            
-            return ApiResponse.builder()
-                    .method(method)
-                    .headers(headers)
-                    .body(parsedBody)
-                    .timestamp(LocalDateTime.now())
-                    .requestUri(request.getRequestURI())
-                    .queryString(request.getQueryString())
-                    .remoteAddr(request.getRemoteAddr())
-                    .userAgent(request.getHeader("User-Agent"))
-                    .contentType(request.getContentType())
-                    .build();
+            return apiResponseFactory.build(method, extractHeaders(request), body,
+                    request.getRequestURI(),
+                    request.getQueryString(),
+                    request.getRemoteAddr(),
+                    request.getHeader("User-Agent"),
+                    request.getContentType());
                     
         } catch (Exception e) {
             logger.error("Error building API response", e);
-            return ApiResponse.builder()
-                    .method(method)
-                    .headers(Collections.emptyMap())
-                    .body("Error parsing request")
-                    .timestamp(LocalDateTime.now())
-                    .error("Failed to parse request: " + e.getMessage())
-                    .build();
+            return apiResponseFactory.error(method, e);
         }
     }
 
-    private Map<String, String> extractHeaders(HttpServletRequest request) {
-        Map<String, String> headers = new HashMap<>();
-        Enumeration<String> headerNames = request.getHeaderNames();
-        
-        while (headerNames.hasMoreElements()) {
-            String headerName = headerNames.nextElement();
-            String headerValue = request.getHeader(headerName);
-            headers.put(headerName, headerValue);
+    ApiResponse buildApiResponse(HttpServletRequest request, String method, byte[] body, BinaryFormat format) {
+        try {
+            return apiResponseFactory.build(method, extractHeaders(request), body, format,
+                    request.getRequestURI(),
+                    request.getQueryString(),
+                    request.getRemoteAddr(),
+                    request.getHeader("User-Agent"),
+                    request.getContentType());
+
+        } catch (Exception e) {
+            logger.error("Error building API response", e);
+            return apiResponseFactory.error(method, e);
         }
-        
-        return headers;
     }
 
-    private Object parseBody(String body) {
-        if (body == null || body.trim().isEmpty()) {
-            return null;
-        }
-        
+    HeaderView extractHeaders(HttpServletRequest request) {
+        long start = stageTimers.start();
         try {
-            // Try to parse as JSON
-            return objectMapper.readValue(body, Object.class);
-        } catch (JsonProcessingException e) {
-            // If not valid JSON, return as string
-            return body;
+            return HeaderView.of(request, headerFilter);
+        } finally {
+            stageTimers.stop(PipelineStage.EXTRACT_HEADERS, start);
         }
     }
-} 
\ No newline at end of file
+}
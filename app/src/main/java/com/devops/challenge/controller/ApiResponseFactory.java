@@ -0,0 +1,147 @@
+package com.devops.challenge.controller;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.devops.challenge.dto.ApiResponse;
+import com.devops.challenge.dto.BinaryFormat;
+import com.devops.challenge.dto.HeaderView;
+import com.devops.challenge.service.PipelineStage;
+import com.devops.challenge.service.StageTimers;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Builds the ApiResponse echoed by the /api endpoints.
+ *
+ * Shared by the servlet and reactive controllers so both stacks produce the
+ * same response for the same request. Bodies are JSON or text, or one of
+ * the binary formats (CBOR, Smile) when the request declares it.
+ */
+@Component
+public class ApiResponseFactory {
+
+    private final ObjectMapper objectMapper;
+    private final Map<BinaryFormat, ObjectMapper> binaryMappers = new EnumMap<>(BinaryFormat.class);
+    private final StageTimers stageTimers;
+
+    @Autowired
+    public ApiResponseFactory(ObjectMapper objectMapper, StageTimers stageTimers) {
+        this.objectMapper = objectMapper;
+        this.stageTimers = stageTimers;
+        for (BinaryFormat format : BinaryFormat.values()) {
+            binaryMappers.put(format, format.mapper(objectMapper));
+        }
+    }
+
+    public ApiResponse build(String method, HeaderView headers, String body,
+                             String requestUri, String queryString, String remoteAddr,
+                             String userAgent, String contentType) {
+        long start = stageTimers.start();
+        try {
+            return newResponse(method, headers, parseBody(body),
+                    requestUri, queryString, remoteAddr, userAgent, contentType);
+        } finally {
+            stageTimers.stop(PipelineStage.BUILD_RESPONSE, start);
+        }
+    }
+
+    /**
+     * Build the response for a body in one of the binary formats. The body
+     * is echoed as the value it decodes to, exactly as for a JSON body.
+     */
+    public ApiResponse build(String method, HeaderView headers, byte[] body, BinaryFormat format,
+                             String requestUri, String queryString, String remoteAddr,
+                             String userAgent, String contentType) {
+        long start = stageTimers.start();
+        try {
+            return newResponse(method, headers, parseBody(body, format),
+                    requestUri, queryString, remoteAddr, userAgent, contentType);
+        } finally {
+            stageTimers.stop(PipelineStage.BUILD_RESPONSE, start);
+        }
+    }
+
+    /**
+     * Build the response for a body that has already been parsed, such as
+     * an item of a batch.
+     */
+    public ApiResponse buildParsed(String method, HeaderView headers, Object body,
+                                   String requestUri, String queryString, String remoteAddr,
+                                   String userAgent, String contentType) {
+        long start = stageTimers.start();
+        try {
+            return newResponse(method, headers, body,
+                    requestUri, queryString, remoteAddr, userAgent, contentType);
+        } finally {
+            stageTimers.stop(PipelineStage.BUILD_RESPONSE, start);
+        }
+    }
+
+    public ApiResponse error(String method, Exception e) {
+        return ApiResponse.builder()
+                .method(method)
+                .headers(HeaderView.empty())
+                .body("Error parsing request")
+                .timestamp(LocalDateTime.now())
+                .error("Failed to parse request: " + e.getMessage())
+                .build();
+    }
+
+    public Object parseBody(String body) {
+        if (body == null || body.trim().isEmpty()) {
+            return null;
+        }
+        
+        long start = stageTimers.start();
+        try {
+            // Try to parse as JSON
+            return objectMapper.readValue(body, Object.class);
+        } catch (JsonProcessingException e) {
+            // If not valid JSON, return as string
+            return body;
+        } finally {
+            stageTimers.stop(PipelineStage.PARSE_BODY, start);
+        }
+    }
+
+    /**
+     * Decode a binary body. Unlike text, there is no sensible fallback for
+     * a malformed body, so it is rejected.
+     */
+    public Object parseBody(byte[] body, BinaryFormat format) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+
+        long start = stageTimers.start();
+        try {
+            return binaryMappers.get(format).readValue(body, Object.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed " + format + " body", e);
+        } finally {
+            stageTimers.stop(PipelineStage.PARSE_BODY, start);
+        }
+    }
+
+    private static ApiResponse newResponse(String method, HeaderView headers, Object body,
+                                           String requestUri, String queryString, String remoteAddr,
+                                           String userAgent, String contentType) {
+        return ApiResponse.builder()
+                .method(method)
+                .headers(headers)
+                .body(body)
+                .timestamp(LocalDateTime.now())
+                .requestUri(requestUri)
+                .queryString(queryString)
+                .remoteAddr(remoteAddr)
+                .userAgent(userAgent)
+                .contentType(contentType)
+                .build();
+    }
+}
@@ -0,0 +1,357 @@
+package com.devops.challenge.controller;
+
+import java.io.FilterInputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.devops.challenge.config.ApiResponseCodecConfiguration;
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.ApiResponse;
+import com.devops.challenge.dto.HeaderView;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes the response of POST /api/batch: each item of the request body,
+ * given as newline-delimited JSON values or as one JSON array, echoed as the
+ * ApiResponse a POST /api of that item would return, one per line
+ * (application/x-ndjson).
+ *
+ * Items are parsed from the request stream one at a time and their lines
+ * are written as they are produced. Whatever has been written is flushed
+ * whenever reading the next item would wait for the client, so a client
+ * that sends items gradually gets their results back gradually. With
+ * "app.echo.batch.parallelism" above 1, items are echoed on a shared pool
+ * of that many threads, up to max-in-flight items ahead of the one being
+ * written, and written in request order.
+ *
+ * A body that stops being valid JSON ends the batch with an error line.
+ */
+@Component
+@Profile("!reactive")
+public class BatchEchoWriter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchEchoWriter.class);
+
+    private static final String METHOD = "POST";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+    private final ApiResponseFactory apiResponseFactory;
+    private final RequestBodyReader requestBodyReader;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+
+    private final DistributionSummary items;
+    private final DistributionSummary bytes;
+    private final Timer duration;
+    private final Timer itemDuration;
+
+    @Autowired
+    public BatchEchoWriter(ObjectMapper objectMapper, ApiResponseFactory apiResponseFactory,
+                           RequestBodyReader requestBodyReader, EchoProperties echoProperties,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        // Lines are ended explicitly and flushed only when the input stalls
+        this.lineWriter = ApiResponseCodecConfiguration.writer(objectMapper, false)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        this.apiResponseFactory = apiResponseFactory;
+        this.requestBodyReader = requestBodyReader;
+        int parallelism = echoProperties.getBatch().getParallelism();
+        this.executor = parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism,
+                        Thread.ofPlatform().name("batch-echo-", 0).daemon().factory())
+                : null;
+        this.maxInFlight = Math.max(1, echoProperties.getBatch().getMaxInFlight());
+
+        this.items = DistributionSummary.builder("devops_api_batch_items")
+                .description("Items per /api/batch request")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        this.bytes = DistributionSummary.builder("devops_api_batch_bytes")
+                .description("Request body bytes per /api/batch request")
+                .baseUnit("bytes")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        this.duration = Timer.builder("devops_api_batch_duration")
+                .description("Time to handle each /api/batch request")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        this.itemDuration = Timer.builder("devops_api_batch_item_duration")
+                .description("Time per item of each /api/batch request")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response, HeaderView headers)
+            throws IOException {
+        long start = System.nanoTime();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        // Pool threads must not read the request, which is not thread-safe
+        // and may be recycled while a cancelled item is still running
+        Envelope envelope = new Envelope(executor != null ? headers.detach() : headers, request.getRequestURI(),
+                request.getQueryString(), request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT),
+                request.getContentType());
+        Batch batch = executor != null
+                ? new ParallelBatch(envelope, out)
+                : new SequentialBatch(envelope, lineWriter.createGenerator(out));
+        InputStream body = new FlushingInputStream(requestBodyReader.openStream(request), batch);
+        int count = 0;
+        long offset = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            try {
+                JsonToken token = parser.nextToken();
+                boolean array = token == JsonToken.START_ARRAY;
+                if (array) {
+                    token = parser.nextToken();
+                }
+                while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                    batch.add(objectMapper.readValue(parser, Object.class));
+                    count++;
+                    token = parser.nextToken();
+                }
+                batch.finish();
+            } catch (JsonProcessingException e) {
+                logger.warn("Batch echo failed to parse item {}: {}", count + 1, e.getOriginalMessage());
+                batch.finish();
+                batch.writeError(apiResponseFactory.error(METHOD, e));
+            } finally {
+                batch.close();
+                offset = parser.currentLocation().getByteOffset();
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            items.record(count);
+            bytes.record(Math.max(0, offset));
+            duration.record(elapsed, TimeUnit.NANOSECONDS);
+            if (count > 0) {
+                itemDuration.record(elapsed / count, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ApiResponse echo(Envelope envelope, Object item) {
+        try {
+            return apiResponseFactory.buildParsed(METHOD, envelope.headers(), item,
+                    envelope.requestUri(),
+                    envelope.queryString(),
+                    envelope.remoteAddr(),
+                    envelope.userAgent(),
+                    envelope.contentType());
+
+        } catch (Exception e) {
+            logger.error("Error building API response", e);
+            return apiResponseFactory.error(METHOD, e);
+        }
+    }
+
+    /**
+     * The request fields echoed with every item, read once per batch on the
+     * request thread; in parallel batches the headers are a detached copy,
+     * so items echoed on the executor do not touch the request.
+     */
+    private record Envelope(HeaderView headers, String requestUri, String queryString, String remoteAddr,
+                            String userAgent, String contentType) {
+    }
+
+    /**
+     * The lines of one batch, written in the order items were added.
+     */
+    private abstract static class Batch implements Flushable {
+
+        abstract void add(Object item) throws IOException;
+
+        /** Write every line still pending. */
+        abstract void finish() throws IOException;
+
+        abstract void writeError(ApiResponse error) throws IOException;
+
+        /** Release the batch's resources, whether or not it finished. */
+        abstract void close() throws IOException;
+    }
+
+    /**
+     * Echoes each item on the request thread, straight into the response.
+     */
+    private final class SequentialBatch extends Batch {
+
+        private final Envelope envelope;
+        private final JsonGenerator generator;
+
+        SequentialBatch(Envelope envelope, JsonGenerator generator) {
+            this.envelope = envelope;
+            this.generator = generator;
+        }
+
+        @Override
+        void add(Object item) throws IOException {
+            writeLine(echo(envelope, item));
+        }
+
+        @Override
+        void finish() {
+        }
+
+        @Override
+        void writeError(ApiResponse error) throws IOException {
+            writeLine(error);
+        }
+
+        private void writeLine(ApiResponse response) throws IOException {
+            lineWriter.writeValue(generator, response);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * Echoes items on the shared executor, each into its own line, and
+     * writes the lines in order as they complete.
+     */
+    private final class ParallelBatch extends Batch {
+
+        private final Envelope envelope;
+        private final OutputStream out;
+        private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+
+        ParallelBatch(Envelope envelope, OutputStream out) {
+            this.envelope = envelope;
+            this.out = out;
+        }
+
+        @Override
+        void add(Object item) throws IOException {
+            pending.add(executor.submit(() -> lineWriter.writeValueAsBytes(echo(envelope, item))));
+            // Write what is already done without waiting, and wait for the
+            // oldest item only once max-in-flight are pending
+            while (!pending.isEmpty() && (pending.size() >= maxInFlight || pending.peek().isDone())) {
+                writeNext();
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+        }
+
+        @Override
+        void writeError(ApiResponse error) throws IOException {
+            writeLine(lineWriter.writeValueAsBytes(error));
+        }
+
+        private void writeNext() throws IOException {
+            try {
+                writeLine(pending.poll().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for a batch item", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to write a batch item", e.getCause());
+            }
+        }
+
+        private void writeLine(byte[] line) throws IOException {
+            out.write(line);
+            out.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        void close() {
+            // Only left over when the batch failed
+            pending.forEach(future -> future.cancel(false));
+            pending.clear();
+        }
+    }
+
+    /**
+     * Flushes the response before a read of the request would block, so
+     * results are not held back while the client is still sending.
+     */
+    private static final class FlushingInputStream extends FilterInputStream {
+
+        private final Flushable output;
+
+        FlushingInputStream(InputStream in, Flushable output) {
+            super(in);
+            this.output = output;
+        }
+
+        @Override
+        public int read() throws IOException {
+            flushIfBlocking();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            flushIfBlocking();
+            return super.read(b, off, len);
+        }
+
+        private void flushIfBlocking() throws IOException {
+            if (in.available() == 0) {
+                output.flush();
+            }
+        }
+    }
+}
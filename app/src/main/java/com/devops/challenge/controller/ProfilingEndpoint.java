@@ -0,0 +1,65 @@
+package com.devops.challenge.controller;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.devops.challenge.service.JfrProfiler;
+import com.devops.challenge.service.JfrProfiler.ProfileSummary;
+
+/**
+ * On-demand JFR profiling at /actuator/profiling.
+ *
+ * POST starts a recording (optional "durationSeconds", capped at
+ * app.profiling.max-duration), GET returns the summary of the running or
+ * last recording, DELETE stops it early and writes the recording file.
+ *
+ * The endpoint is unauthenticated and makes the application write recording
+ * files, so it only exists with app.profiling.enabled and is only reachable
+ * once "profiling" is added to management.endpoints.web.exposure.include.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.profiling", name = "enabled", havingValue = "true")
+@Endpoint(id = "profiling")
+public class ProfilingEndpoint {
+
+    private final JfrProfiler profiler;
+
+    @Autowired
+    public ProfilingEndpoint(JfrProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<ProfileSummary> summary() {
+        ProfileSummary summary = profiler.summary();
+        return summary != null ? new WebEndpointResponse<>(summary)
+                : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<ProfileSummary> start(@Nullable Long durationSeconds) {
+        try {
+            Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : null;
+            return new WebEndpointResponse<>(profiler.start(duration));
+        } catch (IllegalStateException e) {
+            // Already recording
+            return new WebEndpointResponse<>(profiler.summary(), 409);
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<ProfileSummary> stop() {
+        ProfileSummary summary = profiler.stop();
+        return summary != null ? new WebEndpointResponse<>(summary)
+                : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
@@ -0,0 +1,223 @@
+package com.devops.challenge.controller;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.ApiResponse;
+import com.devops.challenge.dto.BinaryFormat;
+import com.devops.challenge.dto.HeaderFilter;
+import com.devops.challenge.dto.HeaderView;
+import com.devops.challenge.service.ApiMethod;
+import com.devops.challenge.service.MetricsService;
+import com.devops.challenge.service.PipelineStage;
+import com.devops.challenge.service.StageTimers;
+import com.devops.challenge.service.WarmupRunner;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive (WebFlux on Netty) implementation of the /api contract, active
+ * with the "reactive" Spring profile.
+ *
+ * Bodies are aggregated from the non-blocking request stream and the
+ * response is built by the same ApiResponseFactory as the servlet
+ * ApiController, so both stacks return the same JSON (or CBOR/Smile).
+ */
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+public class ReactiveApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveApiController.class);
+
+    private final MetricsService metricsService;
+    private final ApiResponseFactory apiResponseFactory;
+    private final EchoProperties echoProperties;
+    private final HeaderFilter headerFilter;
+    private final StageTimers stageTimers;
+    private final WarmupRunner warmupRunner;
+
+    @Autowired
+    public ReactiveApiController(MetricsService metricsService,
+                                 ApiResponseFactory apiResponseFactory,
+                                 EchoProperties echoProperties,
+                                 StageTimers stageTimers,
+                                 ObjectProvider<WarmupRunner> warmupRunner) {
+        this.metricsService = metricsService;
+        this.stageTimers = stageTimers;
+        this.apiResponseFactory = apiResponseFactory;
+        this.echoProperties = echoProperties;
+        this.headerFilter = HeaderFilter.of(echoProperties.getHeaders().getAllow(),
+                echoProperties.getHeaders().getDeny());
+        this.warmupRunner = warmupRunner.getIfAvailable();
+    }
+
+    @GetMapping
+    public Mono<ApiResponse> handleGetRequest(ServerHttpRequest request) {
+        long start = System.nanoTime();
+        logger.debug("Received GET request to /api");
+
+        return timed(request, ApiMethod.GET, start, Mono.fromSupplier(() -> buildApiResponse(request, "GET", null)));
+    }
+
+    @PostMapping
+    public Mono<ApiResponse> handlePostRequest(ServerHttpRequest request) {
+        long start = System.nanoTime();
+        logger.debug("Received POST request to /api");
+
+        return timed(request, ApiMethod.POST, start, echoBody(request, "POST"));
+    }
+
+    @PutMapping
+    public Mono<ApiResponse> handlePutRequest(ServerHttpRequest request) {
+        long start = System.nanoTime();
+        logger.debug("Received PUT request to /api");
+
+        return timed(request, ApiMethod.PUT, start, echoBody(request, "PUT"));
+    }
+
+    @DeleteMapping
+    public Mono<ApiResponse> handleDeleteRequest(ServerHttpRequest request) {
+        long start = System.nanoTime();
+        logger.debug("Received DELETE request to /api");
+
+        return timed(request, ApiMethod.DELETE, start, Mono.fromSupplier(() -> buildApiResponse(request, "DELETE", null)));
+    }
+
+    private Mono<ApiResponse> timed(ServerHttpRequest request, ApiMethod method, long start,
+                                    Mono<ApiResponse> response) {
+        // Warm-up requests are left out, as in ApiController
+        if (warmupRunner != null && warmupRunner.isWarmupRequest(request.getHeaders().getFirst(WarmupRunner.HEADER))) {
+            return response;
+        }
+        // Record before the result is passed on, so the call is counted by
+        // the time the response is written (doFinally would run after it)
+        return response
+                .doOnSuccess(result -> metricsService.recordApiCall(method, System.nanoTime() - start))
+                .doOnError(e -> metricsService.recordApiCall(method, System.nanoTime() - start));
+    }
+
+    private Mono<ApiResponse> echoBody(ServerHttpRequest request, String method) {
+        BinaryFormat format = BinaryFormat.forContentType(request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        if (format != null) {
+            return readBody(request, ReactiveApiController::toBytes)
+                    .map(body -> buildApiResponse(request, method, body.orElse(null), format));
+        }
+
+        Charset charset = Optional.ofNullable(request.getHeaders().getContentType())
+                .map(MediaType::getCharset)
+                .orElse(StandardCharsets.UTF_8);
+        return readBody(request, buffer -> buffer.toString(charset))
+                .map(body -> buildApiResponse(request, method, body.orElse(null)));
+    }
+
+    private ApiResponse buildApiResponse(ServerHttpRequest request, String method, String body) {
+        try {
+            HttpHeaders headers = request.getHeaders();
+            return apiResponseFactory.build(method, extractHeaders(headers), body,
+                    request.getPath().value(),
+                    request.getURI().getRawQuery(),
+                    remoteAddr(request),
+                    headers.getFirst(HttpHeaders.USER_AGENT),
+                    headers.getFirst(HttpHeaders.CONTENT_TYPE));
+
+        } catch (Exception e) {
+            logger.error("Error building API response", e);
+            return apiResponseFactory.error(method, e);
+        }
+    }
+
+    private ApiResponse buildApiResponse(ServerHttpRequest request, String method, byte[] body,
+                                         BinaryFormat format) {
+        try {
+            HttpHeaders headers = request.getHeaders();
+            return apiResponseFactory.build(method, extractHeaders(headers), body, format,
+                    request.getPath().value(),
+                    request.getURI().getRawQuery(),
+                    remoteAddr(request),
+                    headers.getFirst(HttpHeaders.USER_AGENT),
+                    headers.getFirst(HttpHeaders.CONTENT_TYPE));
+
+        } catch (Exception e) {
+            logger.error("Error building API response", e);
+            return apiResponseFactory.error(method, e);
+        }
+    }
+
+    private HeaderView extractHeaders(HttpHeaders headers) {
+        long start = stageTimers.start();
+        try {
+            return HeaderView.of(headers, headerFilter);
+        } finally {
+            stageTimers.stop(PipelineStage.EXTRACT_HEADERS, start);
+        }
+    }
+
+    /**
+     * Aggregate the request body, enforcing the same maximum body size as the
+     * servlet stack, and convert it before the buffer is released. Emits an
+     * empty Optional when there is no body.
+     */
+    private <T> Mono<Optional<T>> readBody(ServerHttpRequest request, Function<DataBuffer, T> converter) {
+        long maxBodySize = echoProperties.getMaxBodySize().toBytes();
+        if (request.getHeaders().getContentLength() > maxBodySize) {
+            return Mono.error(payloadTooLarge(maxBodySize));
+        }
+
+        return DataBufferUtils.join(request.getBody(), (int) Math.min(maxBodySize, Integer.MAX_VALUE))
+                .map(buffer -> {
+                    try {
+                        return buffer.readableByteCount() == 0
+                                ? Optional.<T>empty()
+                                : Optional.of(converter.apply(buffer));
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .defaultIfEmpty(Optional.empty())
+                .onErrorMap(DataBufferLimitException.class, e -> payloadTooLarge(maxBodySize));
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        return bytes;
+    }
+
+    private static String remoteAddr(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return null;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
+    private static ResponseStatusException payloadTooLarge(long maxBodySize) {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body exceeds the maximum of " + maxBodySize + " bytes");
+    }
+}
@@ -0,0 +1,133 @@
+package com.devops.challenge.controller;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.devops.challenge.config.EchoProperties;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Reads request bodies for the echo endpoints, enforcing the configured
+ * maximum body size ("app.echo.max-body-size").
+ */
+@Component
+public class RequestBodyReader {
+
+    private final EchoProperties echoProperties;
+
+    @Autowired
+    public RequestBodyReader(EchoProperties echoProperties) {
+        this.echoProperties = echoProperties;
+    }
+
+    /**
+     * Read the whole body as a String, or return null when there is no body.
+     */
+    public String readAsString(HttpServletRequest request) throws IOException {
+        byte[] bytes = readAsBytes(request);
+        return bytes != null ? new String(bytes, charsetOf(request)) : null;
+    }
+
+    /**
+     * Read the whole body as raw bytes, or return null when there is no body.
+     */
+    public byte[] readAsBytes(HttpServletRequest request) throws IOException {
+        long maxBodySize = echoProperties.getMaxBodySize().toBytes();
+        checkContentLength(request, maxBodySize);
+
+        byte[] bytes = request.getInputStream().readNBytes(toIntLimit(maxBodySize));
+        if (bytes.length > maxBodySize) {
+            throw payloadTooLarge(maxBodySize);
+        }
+        return bytes.length > 0 ? bytes : null;
+    }
+
+    /**
+     * Open the body as a stream that fails once more than the maximum body
+     * size has been read.
+     */
+    public InputStream openStream(HttpServletRequest request) throws IOException {
+        long maxBodySize = echoProperties.getMaxBodySize().toBytes();
+        checkContentLength(request, maxBodySize);
+        return new LimitedInputStream(request.getInputStream(), maxBodySize);
+    }
+
+    /**
+     * Charset of the request body, defaulting to UTF-8.
+     */
+    public Charset charsetOf(HttpServletRequest request) {
+        String encoding = request.getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+
+    private void checkContentLength(HttpServletRequest request, long maxBodySize) {
+        if (request.getContentLengthLong() > maxBodySize) {
+            throw payloadTooLarge(maxBodySize);
+        }
+    }
+
+    private static int toIntLimit(long maxBodySize) {
+        // Read one byte past the limit so oversized chunked bodies are detected
+        return (int) Math.min(maxBodySize + 1, Integer.MAX_VALUE - 8);
+    }
+
+    private static ResponseStatusException payloadTooLarge(long maxBodySize) {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body exceeds the maximum of " + maxBodySize + " bytes");
+    }
+
+    /**
+     * Input stream that throws once more than a fixed number of bytes is read.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            advance(skipped);
+            return skipped;
+        }
+
+        private void advance(long n) {
+            count += n;
+            if (count > limit) {
+                throw payloadTooLarge(limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.devops.challenge.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.devops.challenge.service.PipelineStage;
+import com.devops.challenge.service.StageTimers;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Current per-stage latency breakdown of /api requests, at /actuator/stages.
+ *
+ * Percentiles and max cover the timers' sliding window (the last couple of
+ * minutes); the sample count is cumulative. Times are in microseconds.
+ */
+@Component
+@Endpoint(id = "stages")
+public class StageLatencyEndpoint {
+
+    private final StageTimers stageTimers;
+
+    @Autowired
+    public StageLatencyEndpoint(StageTimers stageTimers) {
+        this.stageTimers = stageTimers;
+    }
+
+    @ReadOperation
+    public Map<String, StageLatency> stages() {
+        Map<String, StageLatency> stages = new LinkedHashMap<>();
+        for (PipelineStage stage : PipelineStage.values()) {
+            stages.put(stage.tagValue(), StageLatency.of(stageTimers.getTimer(stage).takeSnapshot()));
+        }
+        return stages;
+    }
+
+    public record StageLatency(long samples, double mean, double max, Map<String, Double> percentiles) {
+
+        static StageLatency of(HistogramSnapshot snapshot) {
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                percentiles.put("p" + formatPercentile(value.percentile()), value.value(TimeUnit.MICROSECONDS));
+            }
+            return new StageLatency(snapshot.count(), snapshot.mean(TimeUnit.MICROSECONDS),
+                    snapshot.max(TimeUnit.MICROSECONDS), percentiles);
+        }
+
+        // 0.5 -> 50, 0.999 -> 99.9
+        private static String formatPercentile(double percentile) {
+            String value = Double.toString(Math.round(percentile * 1000) / 10.0);
+            return value.endsWith(".0") ? value.substring(0, value.length() - 2) : value;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.devops.challenge.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devops.challenge.service.GzipCompressor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Health and info endpoints under /api. These have no dependency on the
+ * servlet API, so the same controller serves both the servlet and the
+ * reactive stack.
+ *
+ * Probes and scrapers hit these endpoints every few seconds, so both bodies
+ * are serialized once at startup and served as bytes with an ETag. The
+ * health timestamp is spliced into the pre-serialized body once per second;
+ * its ETag is weak and ignores the timestamp, so a client revalidating with
+ * If-None-Match gets a 304 for as long as the status is unchanged. (Both
+ * Spring MVC and WebFlux answer If-None-Match from the ResponseEntity's ETag.)
+ *
+ * With compression enabled, a gzip variant of each body is compressed
+ * alongside it (the health body once per second) and served, under its own
+ * ETag, to clients that accept gzip whenever it is the smaller of the two.
+ */
+@RestController
+@RequestMapping("/api")
+public class StatusController {
+
+    private static final String TIMESTAMP_PLACEHOLDER = "@@timestamp@@";
+
+    private final byte[] healthPrefix;
+    private final byte[] healthSuffix;
+    private final String healthETag;
+    private volatile HealthTick healthTick = new HealthTick(Long.MIN_VALUE, null, null);
+
+    private final byte[] info;
+    private final byte[] infoGzip;
+    private final String infoETag;
+
+    private final GzipCompressor compressor;
+
+    @Autowired
+    public StatusController(ObjectMapper objectMapper, ObjectProvider<BuildProperties> buildProperties,
+                            ObjectProvider<GzipCompressor> compressor) throws JsonProcessingException {
+        this.compressor = compressor.getIfAvailable();
+
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "UP");
+        health.put("timestamp", TIMESTAMP_PLACEHOLDER);
+        health.put("service", "DevOps Challenge API");
+        health.put("version", "1.0.0");
+
+        String healthJson = objectMapper.writeValueAsString(health);
+        int placeholder = healthJson.indexOf(TIMESTAMP_PLACEHOLDER);
+        this.healthPrefix = healthJson.substring(0, placeholder).getBytes(StandardCharsets.UTF_8);
+        this.healthSuffix = healthJson.substring(placeholder + TIMESTAMP_PLACEHOLDER.length())
+                .getBytes(StandardCharsets.UTF_8);
+        this.healthETag = "W/" + eTag(healthPrefix, healthSuffix);
+
+        // Without build info (e.g. when run from an IDE) fall back to the
+        // time the application started
+        BuildProperties build = buildProperties.getIfAvailable();
+        Instant buildTime = build != null && build.getTime() != null ? build.getTime() : Instant.now();
+
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("application", "DevOps Challenge API");
+        info.put("version", "1.0.0");
+        info.put("description", "A simple cloud-native API service");
+        info.put("build-time", LocalDateTime.ofInstant(buildTime, ZoneId.systemDefault()));
+        // Insertion-ordered, so the body and its ETag are the same on every
+        // instance and across restarts
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        endpoints.put("api", "/api (GET, POST, PUT, DELETE)");
+        endpoints.put("health", "/api/health");
+        endpoints.put("info", "/api/info");
+        endpoints.put("actuator", "/actuator/*");
+        info.put("endpoints", endpoints);
+        this.info = objectMapper.writeValueAsBytes(info);
+        this.infoGzip = gzip(this.info);
+        this.infoETag = eTag(this.info);
+    }
+
+    @GetMapping("/health")
+    public ResponseEntity<byte[]> healthCheck(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        HealthTick tick = healthTick();
+        return json(tick.body, tick.gzip, healthETag, acceptEncoding);
+    }
+
+    @GetMapping("/info")
+    public ResponseEntity<byte[]> getInfo(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return json(info, infoGzip, infoETag, acceptEncoding);
+    }
+
+    private HealthTick healthTick() {
+        long second = System.currentTimeMillis() / 1000;
+        HealthTick tick = healthTick;
+        if (tick.second != second) {
+            String timestamp = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(
+                    LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault()));
+            byte[] timestampBytes = timestamp.getBytes(StandardCharsets.US_ASCII);
+
+            byte[] body = new byte[healthPrefix.length + timestampBytes.length + healthSuffix.length];
+            System.arraycopy(healthPrefix, 0, body, 0, healthPrefix.length);
+            System.arraycopy(timestampBytes, 0, body, healthPrefix.length, timestampBytes.length);
+            System.arraycopy(healthSuffix, 0, body, healthPrefix.length + timestampBytes.length, healthSuffix.length);
+
+            tick = new HealthTick(second, body, gzip(body));
+            healthTick = tick;
+        }
+        return tick;
+    }
+
+    /**
+     * Gzip variant of a body, or null when compression is disabled or would
+     * not make it smaller.
+     */
+    private byte[] gzip(byte[] body) {
+        if (compressor == null) {
+            return null;
+        }
+        byte[] compressed = compressor.compress(body);
+        return compressed.length < body.length ? compressed : null;
+    }
+
+    private static ResponseEntity<byte[]> json(byte[] body, byte[] gzip, String eTag, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache());
+        if (gzip != null && GzipCompressor.acceptsGzip(acceptEncoding)) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, GzipCompressor.GZIP)
+                    .eTag(eTag.substring(0, eTag.length() - 1) + "-gzip\"")
+                    .body(gzip);
+        }
+        return response.eTag(eTag).body(body);
+    }
+
+    private static String eTag(byte[]... parts) {
+        CRC32 crc = new CRC32();
+        for (byte[] part : parts) {
+            crc.update(part);
+        }
+        return "\"" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    private record HealthTick(long second, byte[] body, byte[] gzip) {
+    }
+}
@@ -0,0 +1,240 @@
+package com.devops.challenge.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.devops.challenge.config.ApiResponseCodecConfiguration;
+import com.devops.challenge.dto.HeaderView;
+import com.devops.challenge.dto.TimestampFormat;
+import com.devops.challenge.service.EchoBodyBudget;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes the ApiResponse JSON for POST/PUT directly to the servlet response,
+ * copying the request body from the input stream without materializing it.
+ *
+ * JSON bodies are copied token by token from a JsonParser to the response
+ * JsonGenerator. Any other content type is streamed as an escaped JSON string.
+ * The envelope has the same fields as the buffered ApiResponse serialization,
+ * but the body is decided by the Content-Type alone, so unlike buffered mode:
+ * a JSON body sent with a non-JSON Content-Type is echoed as a string, a
+ * whitespace-only text body is echoed rather than omitted, and invalid JSON
+ * is answered with an error instead of being echoed as raw text.
+ *
+ * In buffered mode, bodies over the spill threshold are echoed the same way
+ * into a temporary file first, so the response can still carry a
+ * Content-Length and a parse error can still be reported as such.
+ */
+@Component
+public class StreamingEchoWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingEchoWriter.class);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter compactWriter;
+    private final ObjectWriter prettyWriter;
+    private final RequestBodyReader requestBodyReader;
+    private final EchoBodyBudget budget;
+
+    @Autowired
+    public StreamingEchoWriter(ObjectMapper objectMapper, RequestBodyReader requestBodyReader,
+                               EchoBodyBudget budget) {
+        this.objectMapper = objectMapper;
+        this.compactWriter = ApiResponseCodecConfiguration.writer(objectMapper, false);
+        this.prettyWriter = ApiResponseCodecConfiguration.writer(objectMapper, true);
+        this.requestBodyReader = requestBodyReader;
+        this.budget = budget;
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response,
+                      String method, HeaderView headers) throws IOException {
+        InputStream body = requestBodyReader.openStream(request);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        // The generator buffers its output, so nothing reaches the client until
+        // it flushes; a parse error in a small body can still be reported cleanly.
+        ObjectWriter writer = ApiResponseCodecConfiguration.isPrettyQuery(request.getQueryString())
+                ? prettyWriter : compactWriter;
+        JsonGenerator generator = writer.createGenerator(response.getOutputStream());
+        try {
+            writeEnvelope(generator, request, method, headers, body);
+            generator.close();
+        } catch (JsonProcessingException e) {
+            if (response.isCommitted()) {
+                // Part of the body has already been sent; all we can do is abort
+                throw e;
+            }
+            logger.warn("Streaming echo failed to parse request body: {}", e.getOriginalMessage());
+            response.resetBuffer();
+            writeError(response, writer, method, "Failed to parse request: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Echo the body, read from the given stream, into a temporary file in
+     * the spill directory and send the file with FileChannel.transferTo, so
+     * that neither the body nor the response is held in memory.
+     */
+    public void writeSpilled(HttpServletRequest request, HttpServletResponse response,
+                             String method, HeaderView headers, InputStream body) throws IOException {
+        ObjectWriter writer = ApiResponseCodecConfiguration.isPrettyQuery(request.getQueryString())
+                ? prettyWriter : compactWriter;
+        // Closing the generator must leave the file open to be sent
+        ObjectWriter fileWriter = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Path file = Files.createTempFile(budget.getSpillDirectory(), "echo-", ".json");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            try (JsonGenerator generator = fileWriter.createGenerator(Channels.newOutputStream(channel))) {
+                writeEnvelope(generator, request, method, headers, body);
+            } catch (JsonProcessingException e) {
+                // Nothing has been sent yet
+                logger.warn("Spilled echo failed to parse request body: {}", e.getOriginalMessage());
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                writeError(response, writer, method, "Failed to parse request: " + e.getOriginalMessage());
+                return;
+            }
+
+            long size = channel.size();
+            budget.recordSpill(size);
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLengthLong(size);
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = 0; position < size; ) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        } finally {
+            // Only left behind if opening the channel failed
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void writeEnvelope(JsonGenerator generator, HttpServletRequest request, String method,
+                               HeaderView headers, InputStream body) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("method", method);
+        generator.writeFieldName("headers");
+        headers.writeTo(generator);
+        writeBody(generator, request, body);
+        writeRequestFields(generator, request);
+        generator.writeEndObject();
+    }
+
+    private void writeBody(JsonGenerator generator, HttpServletRequest request, InputStream body) throws IOException {
+        if (isJson(request.getContentType())) {
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                // An empty body is omitted, the same as a null body when buffered
+                if (parser.nextToken() == null) {
+                    return;
+                }
+                generator.writeFieldName("body");
+                copyStructure(parser, generator);
+            }
+            return;
+        }
+
+        PushbackInputStream pushback = new PushbackInputStream(body, 1);
+        int first = pushback.read();
+        if (first < 0) {
+            return;
+        }
+        pushback.unread(first);
+        generator.writeFieldName("body");
+        generator.writeString(new InputStreamReader(pushback, requestBodyReader.charsetOf(request)), -1);
+    }
+
+    /**
+     * Copy the structure starting at the parser's current token. Like
+     * JsonGenerator#copyCurrentStructure, except numbers are copied as their
+     * original text instead of being decoded (and boxed) and encoded again.
+     */
+    private static void copyStructure(JsonParser parser, JsonGenerator generator) throws IOException {
+        int depth = 0;
+        JsonToken token = parser.currentToken();
+        do {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    depth++;
+                    generator.copyCurrentEvent(parser);
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    depth--;
+                    generator.copyCurrentEvent(parser);
+                }
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT ->
+                        generator.writeNumber(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                default -> generator.copyCurrentEvent(parser);
+            }
+        } while (depth > 0 && (token = parser.nextToken()) != null);
+    }
+
+    private void writeRequestFields(JsonGenerator generator, HttpServletRequest request) throws IOException {
+        generator.writeStringField("timestamp", TimestampFormat.format(LocalDateTime.now()));
+        writeOptionalField(generator, "requestUri", request.getRequestURI());
+        writeOptionalField(generator, "queryString", request.getQueryString());
+        writeOptionalField(generator, "remoteAddr", request.getRemoteAddr());
+        writeOptionalField(generator, "userAgent", request.getHeader("User-Agent"));
+        writeOptionalField(generator, "contentType", request.getContentType());
+    }
+
+    private void writeError(HttpServletResponse response, ObjectWriter writer, String method, String error)
+            throws IOException {
+        try (JsonGenerator generator = writer.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("method", method);
+            generator.writeObjectFieldStart("headers");
+            generator.writeEndObject();
+            generator.writeStringField("body", "Error parsing request");
+            generator.writeStringField("timestamp", TimestampFormat.format(LocalDateTime.now()));
+            generator.writeStringField("error", error);
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeOptionalField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)
+                    || mediaType.getSubtype().endsWith("+json");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.devops.challenge.dto;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Map;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonInclude;
-
-@JsonInclude(JsonInclude.Include.NON_NULL)
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Response of the /api echo endpoints.
+ *
+ * Serialized by the hand-written {@link Serializer} rather than through bean
+ * introspection: fields in declaration order, null fields omitted, and the
+ * timestamp as "yyyy-MM-dd HH:mm:ss".
+ */
+@JsonSerialize(using = ApiResponse.Serializer.class)
 public class ApiResponse {
     
     private String method;
-    private Map<String, String> headers;
+    private HeaderView headers;
     private Object body;
-    
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime timestamp;
     
     private String requestUri;
@@ -47,7 +54,7 @@ public class ApiResponse {
 
     public static class Builder {
         private String method;
-        private Map<String, String> headers;
+        private HeaderView headers;
         private Object body;
         private LocalDateTime timestamp;
         private String requestUri;
@@ -62,7 +69,7 @@ public class ApiResponse {
             return this;
         }
 
-        public Builder headers(Map<String, String> headers) {
+        public Builder headers(HeaderView headers) {
             this.headers = headers;
             return this;
         }
@@ -121,11 +128,11 @@ public class ApiResponse {
         this.method = method;
     }
 
-    public Map<String, String> getHeaders() {
+    public HeaderView getHeaders() {
         return headers;
     }
 
-    public void setHeaders(Map<String, String> headers) {
+    public void setHeaders(HeaderView headers) {
         this.headers = headers;
     }
 
@@ -192,4 +199,46 @@ public class ApiResponse {
     public void setError(String error) {
         this.error = error;
     }
-} 
\ No newline at end of file
+
+    public static final class Serializer extends StdSerializer<ApiResponse> {
+
+        public Serializer() {
+            super(ApiResponse.class);
+        }
+
+        @Override
+        public void serialize(ApiResponse value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(value);
+            writeOptionalField(generator, "method", value.method);
+            if (value.headers != null) {
+                generator.writeFieldName("headers");
+                value.headers.writeTo(generator);
+            }
+            if (value.body instanceof String text) {
+                generator.writeStringField("body", text);
+            } else if (value.body != null) {
+                // A tree of maps, lists and scalars parsed from a JSON body
+                generator.writeFieldName("body");
+                provider.defaultSerializeValue(value.body, generator);
+            }
+            if (value.timestamp != null) {
+                generator.writeStringField("timestamp", TimestampFormat.format(value.timestamp));
+            }
+            writeOptionalField(generator, "requestUri", value.requestUri);
+            writeOptionalField(generator, "queryString", value.queryString);
+            writeOptionalField(generator, "remoteAddr", value.remoteAddr);
+            writeOptionalField(generator, "userAgent", value.userAgent);
+            writeOptionalField(generator, "contentType", value.contentType);
+            writeOptionalField(generator, "error", value.error);
+            generator.writeEndObject();
+        }
+
+        private static void writeOptionalField(JsonGenerator generator, String name, String value)
+                throws IOException {
+            if (value != null) {
+                generator.writeStringField(name, value);
+            }
+        }
+    }
+}
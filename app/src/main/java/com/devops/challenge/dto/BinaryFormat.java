@@ -0,0 +1,108 @@
+package com.devops.challenge.dto;
+
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Binary encodings accepted and produced by /api besides JSON.
+ *
+ * Both encode the JSON data model, so an ApiResponse written in either has
+ * exactly the fields and values of its JSON form; only the bytes differ.
+ */
+public enum BinaryFormat {
+
+    CBOR(MediaType.APPLICATION_CBOR) {
+        @Override
+        JsonFactory newFactory() {
+            return new CBORFactory();
+        }
+    },
+
+    SMILE(new MediaType("application", "x-jackson-smile")) {
+        @Override
+        JsonFactory newFactory() {
+            return new SmileFactory();
+        }
+    };
+
+    private final MediaType mediaType;
+    private final String value;
+
+    BinaryFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+        this.value = mediaType.toString();
+    }
+
+    abstract JsonFactory newFactory();
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Copy of the given mapper, with all its modules and settings, that
+     * reads and writes this format.
+     */
+    public ObjectMapper mapper(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(newFactory());
+    }
+
+    /**
+     * Format of a Content-Type header value, ignoring parameters, or null
+     * when it is not one of the binary formats.
+     */
+    public static BinaryFormat forContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (BinaryFormat format : values()) {
+            if (format.matches(contentType.trim())) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether an Accept header value names any of the binary formats with
+     * a non-zero quality; q=0 means the client does not accept it.
+     */
+    public static boolean isAcceptable(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> ranges;
+        try {
+            ranges = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        for (MediaType range : ranges) {
+            if (range.getQualityValue() > 0) {
+                for (BinaryFormat format : values()) {
+                    if (format.mediaType.equalsTypeAndSubtype(range)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(String contentType) {
+        int length = value.length();
+        if (!contentType.regionMatches(true, 0, value, 0, length)) {
+            return false;
+        }
+        return contentType.length() == length
+                || contentType.charAt(length) == ';'
+                || contentType.charAt(length) == ' ';
+    }
+}
@@ -0,0 +1,48 @@
+package com.devops.challenge.dto;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Decides which request headers are echoed back in the ApiResponse. Names
+ * are matched case-insensitively, without allocating.
+ *
+ * An empty allow list admits every header that is not on the deny list.
+ */
+public final class HeaderFilter {
+
+    private static final HeaderFilter ALL = new HeaderFilter(Set.of(), Set.of());
+
+    private final Set<String> allow;
+    private final Set<String> deny;
+
+    private HeaderFilter(Set<String> allow, Set<String> deny) {
+        this.allow = allow;
+        this.deny = deny;
+    }
+
+    public static HeaderFilter all() {
+        return ALL;
+    }
+
+    public static HeaderFilter of(Collection<String> allow, Collection<String> deny) {
+        if (allow.isEmpty() && deny.isEmpty()) {
+            return ALL;
+        }
+        return new HeaderFilter(caseInsensitive(allow), caseInsensitive(deny));
+    }
+
+    public boolean isEchoed(String name) {
+        return (allow.isEmpty() || allow.contains(name)) && !deny.contains(name);
+    }
+
+    private static Set<String> caseInsensitive(Collection<String> names) {
+        if (names.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(names);
+        return set;
+    }
+}
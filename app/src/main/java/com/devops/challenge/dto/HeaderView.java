@@ -0,0 +1,168 @@
+package com.devops.challenge.dto;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Read-only view of the request headers echoed in an ApiResponse.
+ *
+ * Nothing is copied when the view is created: the headers are read from the
+ * underlying request while the response is serialized, so the view must not
+ * outlive the request. Each header becomes a JSON string, or an array of
+ * strings when the request repeated it.
+ */
+@JsonSerialize(using = HeaderView.Serializer.class)
+public abstract class HeaderView {
+
+    private static final HeaderView EMPTY = new HeaderView() {
+        @Override
+        void writeHeaders(JsonGenerator generator) {
+        }
+    };
+
+    public static HeaderView empty() {
+        return EMPTY;
+    }
+
+    public static HeaderView of(HttpServletRequest request, HeaderFilter filter) {
+        return new ServletHeaderView(request, filter);
+    }
+
+    /**
+     * Header names are reported in lower case, as Tomcat does, so both stacks
+     * echo the same names.
+     */
+    public static HeaderView of(HttpHeaders headers, HeaderFilter filter) {
+        return new HttpHeadersView(headers, filter);
+    }
+
+    /**
+     * A view that no longer reads the request, for serializing on another
+     * thread: the echoed headers of a servlet request are copied, with
+     * names in lower case as Tomcat reports them.
+     */
+    public HeaderView detach() {
+        return this;
+    }
+
+    /**
+     * Write the headers as a JSON object.
+     */
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeHeaders(generator);
+        generator.writeEndObject();
+    }
+
+    abstract void writeHeaders(JsonGenerator generator) throws IOException;
+
+    private static final class ServletHeaderView extends HeaderView {
+
+        private final HttpServletRequest request;
+        private final HeaderFilter filter;
+
+        ServletHeaderView(HttpServletRequest request, HeaderFilter filter) {
+            this.request = request;
+            this.filter = filter;
+        }
+
+        @Override
+        public HeaderView detach() {
+            HttpHeaders copy = new HttpHeaders();
+            for (Enumeration<String> names = request.getHeaderNames(); names.hasMoreElements(); ) {
+                String name = names.nextElement();
+                if (filter.isEchoed(name)) {
+                    for (Enumeration<String> values = request.getHeaders(name); values.hasMoreElements(); ) {
+                        copy.add(name, values.nextElement());
+                    }
+                }
+            }
+            return new HttpHeadersView(copy, HeaderFilter.all());
+        }
+
+        @Override
+        void writeHeaders(JsonGenerator generator) throws IOException {
+            Enumeration<String> names = request.getHeaderNames();
+            while (names.hasMoreElements()) {
+                String name = names.nextElement();
+                if (!filter.isEchoed(name)) {
+                    continue;
+                }
+                Enumeration<String> values = request.getHeaders(name);
+                if (!values.hasMoreElements()) {
+                    continue;
+                }
+                generator.writeFieldName(name);
+                String first = values.nextElement();
+                if (!values.hasMoreElements()) {
+                    generator.writeString(first);
+                    continue;
+                }
+                generator.writeStartArray();
+                generator.writeString(first);
+                while (values.hasMoreElements()) {
+                    generator.writeString(values.nextElement());
+                }
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private static final class HttpHeadersView extends HeaderView {
+
+        private final HttpHeaders headers;
+        private final HeaderFilter filter;
+
+        HttpHeadersView(HttpHeaders headers, HeaderFilter filter) {
+            this.headers = headers;
+            this.filter = filter;
+        }
+
+        @Override
+        void writeHeaders(JsonGenerator generator) throws IOException {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                String name = header.getKey();
+                List<String> values = header.getValue();
+                if (values.isEmpty() || !filter.isEchoed(name)) {
+                    continue;
+                }
+                // toLowerCase returns the same instance for names already in lower case
+                generator.writeFieldName(name.toLowerCase(Locale.ROOT));
+                if (values.size() == 1) {
+                    generator.writeString(values.get(0));
+                    continue;
+                }
+                generator.writeStartArray();
+                for (int i = 0; i < values.size(); i++) {
+                    generator.writeString(values.get(i));
+                }
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    public static final class Serializer extends StdSerializer<HeaderView> {
+
+        public Serializer() {
+            super(HeaderView.class);
+        }
+
+        @Override
+        public void serialize(HeaderView value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            value.writeTo(generator);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.devops.challenge.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats response timestamps as "yyyy-MM-dd HH:mm:ss".
+ *
+ * Timestamps have second resolution and nearly every request falls in the
+ * same second as the one before it, so the last formatted second is cached
+ * and formatting usually returns that string as is.
+ */
+public final class TimestampFormat {
+
+    public static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+
+    private static volatile FormattedSecond last = new FormattedSecond(Long.MIN_VALUE, null);
+
+    private TimestampFormat() {
+    }
+
+    public static String format(LocalDateTime timestamp) {
+        long second = timestamp.toLocalDate().toEpochDay() * 86_400 + timestamp.toLocalTime().toSecondOfDay();
+        FormattedSecond formatted = last;
+        if (formatted.second != second) {
+            formatted = new FormattedSecond(second, FORMATTER.format(timestamp));
+            last = formatted;
+        }
+        return formatted.text;
+    }
+
+    private record FormattedSecond(long second, String text) {
+    }
+}
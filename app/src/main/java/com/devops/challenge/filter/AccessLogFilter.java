@@ -0,0 +1,128 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devops.challenge.service.AccessLog;
+import com.devops.challenge.service.WarmupRunner;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Hands every servlet request to the access log once it has completed.
+ * Runs ahead of the concurrency limit so shed requests are logged too.
+ * Requests sent by the startup warm-up are not logged.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.access-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLog accessLog;
+    private final WarmupRunner warmupRunner;
+
+    @Autowired
+    public AccessLogFilter(AccessLog accessLog, ObjectProvider<WarmupRunner> warmupRunner) {
+        this(accessLog, warmupRunner.getIfAvailable());
+    }
+
+    public AccessLogFilter(AccessLog accessLog) {
+        this(accessLog, (WarmupRunner) null);
+    }
+
+    private AccessLogFilter(AccessLog accessLog, WarmupRunner warmupRunner) {
+        this.accessLog = accessLog;
+        this.warmupRunner = warmupRunner;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return warmupRunner != null && warmupRunner.isWarmupRequest(request.getHeader(WarmupRunner.HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        ByteCountingResponse countingResponse = new ByteCountingResponse(response);
+        int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        try {
+            filterChain.doFilter(request, countingResponse);
+            status = response.getStatus();
+        } finally {
+            accessLog.record(request.getMethod(), request.getRequestURI(), status,
+                    System.nanoTime() - start, countingResponse.bytesWritten);
+        }
+    }
+
+    /**
+     * Counts the bytes written to the response body. Bodies written through
+     * getWriter() are not counted; the handlers here all use the output stream.
+     */
+    private static final class ByteCountingResponse extends HttpServletResponseWrapper {
+
+        long bytesWritten;
+        private ServletOutputStream outputStream;
+
+        ByteCountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytesWritten++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytesWritten += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+    }
+}
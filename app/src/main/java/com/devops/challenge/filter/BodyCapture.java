@@ -0,0 +1,75 @@
+package com.devops.challenge.filter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Copy of the first bytes of a request body, up to a limit, taken as the
+ * handler reads it. Used by the traffic recorder filters.
+ */
+final class BodyCapture {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int limit;
+    private byte[] bytes = EMPTY;
+    private int length;
+    private boolean truncated;
+
+    BodyCapture(int limit) {
+        this.limit = limit;
+    }
+
+    void append(int b) {
+        if (reserve(1) == 1) {
+            bytes[length++] = (byte) b;
+        }
+    }
+
+    void append(byte[] source, int offset, int count) {
+        int copied = reserve(count);
+        System.arraycopy(source, offset, bytes, length, copied);
+        length += copied;
+    }
+
+    void append(ByteBuffer source) {
+        int copied = reserve(source.remaining());
+        source.get(source.position(), bytes, length, copied);
+        length += copied;
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Whether the body has more bytes than were captured.
+     */
+    boolean truncated() {
+        return truncated;
+    }
+
+    /**
+     * Note that the handler did not read the whole body, so some of it was
+     * never captured.
+     */
+    void markUnread() {
+        truncated = true;
+    }
+
+    // Make room for up to count more bytes and return how many fit
+    private int reserve(int count) {
+        int copied = Math.min(count, limit - length);
+        if (copied < count) {
+            truncated = true;
+        }
+        if (length + copied > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.min(limit, Math.max(length + copied, bytes.length * 2)));
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,347 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devops.challenge.service.GzipCompressor;
+import com.devops.challenge.service.PooledGzipOutputStream;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Gzips /api responses for clients that accept it ("app.compression").
+ *
+ * The first min-response-size bytes of the body are held back. Once the
+ * body grows past them, and its Content-Type is compressible, the rest is
+ * compressed as it is written; shorter bodies, and bodies the handler has
+ * already encoded (the precompressed status bodies), go out unchanged.
+ * Streamed bodies (NDJSON, server-sent events) are not held back past a
+ * flush, so each flushed line reaches the client, compressed or not, as
+ * soon as the handler flushes it. Runs inside the access log, which
+ * therefore counts bytes on the wire.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class CompressionFilter extends OncePerRequestFilter {
+
+    // Content types whose flushes are honoured while the body is held back
+    private static final MediaType[] STREAMED_TYPES = {MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM};
+
+    private final GzipCompressor compressor;
+
+    @Autowired
+    public CompressionFilter(GzipCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.equals("/api") && !path.startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!GzipCompressor.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressingResponse = new CompressingResponse(response, compressor);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, compressingResponse);
+            completed = true;
+        } finally {
+            if (completed) {
+                compressingResponse.finish();
+            } else {
+                compressingResponse.discard();
+            }
+        }
+    }
+
+    private enum State {
+        /** Holding back the start of the body until it is known to be large enough. */
+        BUFFERING,
+        /** Passing the body through unchanged. */
+        PLAIN,
+        /** Compressing the body. */
+        GZIP
+    }
+
+    /**
+     * Response whose body is compressed once it exceeds the minimum size.
+     * Content-Length set by the handler is withheld until the body turns out
+     * not to be compressed.
+     */
+    private static final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final GzipCompressor compressor;
+        private final int minResponseSize;
+
+        private State state = State.BUFFERING;
+        private byte[] pending;
+        private int pendingCount;
+        private long declaredLength = -1;
+        private PooledGzipOutputStream gzip;
+
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, GzipCompressor compressor) {
+            super(response);
+            this.compressor = compressor;
+            this.minResponseSize = (int) Math.min(compressor.getMinResponseSize(), Integer.MAX_VALUE - 8);
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (state == State.BUFFERING) {
+                declaredLength = len;
+            } else if (state == State.PLAIN) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(value != null ? Long.parseLong(value) : -1);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        writeBody(delegate, b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        // Only a stream is committed by a flush while buffering; any
+                        // other body would be fixed as uncompressed however large
+                        if (state == State.BUFFERING && isStreamed()) {
+                            startStreamed(delegate);
+                        }
+                        if (state == State.GZIP) {
+                            gzip.flush();
+                        } else if (state == State.PLAIN) {
+                            delegate.flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (state == State.BUFFERING && isStreamed()) {
+                getOutputStream().flush();
+            }
+            if (state != State.BUFFERING) {
+                if (outputStream != null) {
+                    outputStream.flush();
+                }
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            restart();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            restart();
+            declaredLength = -1;
+        }
+
+        /**
+         * Write out whatever is still held back and complete the body.
+         */
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (state == State.BUFFERING) {
+                if (pendingCount > 0 || declaredLength >= 0) {
+                    declaredLength = pendingCount;
+                    startPlain(super.getOutputStream());
+                }
+            } else if (state == State.GZIP) {
+                gzip.finish();
+            }
+        }
+
+        void discard() {
+            if (gzip != null) {
+                gzip.discard();
+            }
+        }
+
+        private void restart() {
+            discard();
+            gzip = null;
+            state = State.BUFFERING;
+            pendingCount = 0;
+        }
+
+        private void writeBody(ServletOutputStream delegate, byte[] b, int off, int len) throws IOException {
+            if (state == State.BUFFERING) {
+                if (declaredLength >= 0 && declaredLength < minResponseSize) {
+                    startPlain(delegate);
+                } else if (pendingCount + len < minResponseSize) {
+                    if (pending == null) {
+                        pending = new byte[minResponseSize];
+                    }
+                    System.arraycopy(b, off, pending, pendingCount, len);
+                    pendingCount += len;
+                    return;
+                } else if (isCompressible()) {
+                    startGzip(delegate);
+                } else {
+                    startPlain(delegate);
+                }
+            }
+
+            if (state == State.GZIP) {
+                gzip.write(b, off, len);
+            } else {
+                delegate.write(b, off, len);
+            }
+        }
+
+        private boolean isStreamed() {
+            String contentType = getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            try {
+                MediaType mediaType = MediaType.parseMediaType(contentType);
+                for (MediaType streamed : STREAMED_TYPES) {
+                    if (streamed.includes(mediaType)) {
+                        return true;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Not a stream then
+            }
+            return false;
+        }
+
+        private boolean isCompressible() {
+            int status = getStatus();
+            return status != SC_NO_CONTENT && status != SC_PARTIAL_CONTENT && status != SC_NOT_MODIFIED
+                    && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && compressor.isCompressible(getContentType());
+        }
+
+        /**
+         * Commit a streamed body on its first flush, however little of it
+         * has been written.
+         */
+        private void startStreamed(ServletOutputStream delegate) throws IOException {
+            if (declaredLength < 0 && isCompressible()) {
+                startGzip(delegate);
+            } else {
+                startPlain(delegate);
+            }
+        }
+
+        private void startPlain(ServletOutputStream delegate) throws IOException {
+            state = State.PLAIN;
+            if (declaredLength >= 0) {
+                super.setContentLengthLong(declaredLength);
+            }
+            writePending(delegate);
+        }
+
+        private void startGzip(ServletOutputStream delegate) throws IOException {
+            state = State.GZIP;
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, GzipCompressor.GZIP);
+            gzip = compressor.gzip(delegate);
+            writePending(gzip);
+        }
+
+        private void writePending(OutputStream target) throws IOException {
+            if (pendingCount > 0) {
+                target.write(pending, 0, pendingCount);
+                pendingCount = 0;
+            }
+            pending = null;
+        }
+    }
+}
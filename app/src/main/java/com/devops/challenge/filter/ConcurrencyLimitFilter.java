@@ -0,0 +1,66 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devops.challenge.service.AdaptiveConcurrencyLimiter;
+import com.devops.challenge.service.WarmupRunner;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Applies the adaptive concurrency limit to /api requests, answering
+ * requests over the limit with an empty 503 and a Retry-After header.
+ * Warm-up requests bypass the limit, as they do not feed its latency
+ * sample.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.limiter", name = "enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final WarmupRunner warmupRunner;
+
+    @Autowired
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ObjectProvider<WarmupRunner> warmupRunner) {
+        this.limiter = limiter;
+        this.warmupRunner = warmupRunner.getIfAvailable();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !AdaptiveConcurrencyLimiter.isLimited(request.getRequestURI())
+                || warmupRunner != null && warmupRunner.isWarmupRequest(request.getHeader(WarmupRunner.HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devops.challenge.service.EchoBodyBudget;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Reserves memory budget for the body of POST and PUT /api requests before
+ * they are handled (see EchoBodyBudget), answering requests that do not get
+ * it within wait-timeout with an empty 503 and a Retry-After header.
+ *
+ * While a request waits its body is left unread, so the client is held back
+ * by TCP flow control. The reservation is held until the response has been
+ * written, since the echoed body is in memory until then. Runs innermost, so
+ * replayed Idempotency-Key responses do not take budget.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 7)
+public class EchoBodyBudgetFilter extends OncePerRequestFilter {
+
+    private final EchoBodyBudget budget;
+
+    @Autowired
+    public EchoBodyBudgetFilter(EchoBodyBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Batches are read an item at a time and do not need a reservation
+        String method = request.getMethod();
+        return !request.getRequestURI().equals("/api") || !"POST".equals(method) && !"PUT".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int bytes = budget.reservationFor(request.getContentLengthLong(), EchoBodyBudget.isSpillable(
+                request.getContentType(), request.getHeader(HttpHeaders.ACCEPT)));
+        try {
+            if (!budget.acquire(bytes)) {
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted waiting for memory budget for the request body", e);
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            budget.release(bytes);
+        }
+    }
+}
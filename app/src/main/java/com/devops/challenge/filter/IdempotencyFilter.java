@@ -0,0 +1,339 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devops.challenge.service.ApiMethod;
+import com.devops.challenge.service.IdempotencyCache;
+import com.devops.challenge.service.IdempotencyCache.BodyDigest;
+import com.devops.challenge.service.IdempotencyCache.RequestFingerprint;
+import com.devops.challenge.service.IdempotencyCache.StoredResponse;
+import com.devops.challenge.service.MetricsService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Replays the stored response of POST, PUT and DELETE /api requests that
+ * repeat an Idempotency-Key (see IdempotencyCache).
+ *
+ * The first request with a key is handled normally while its response body
+ * is copied as it is written and the body its handler reads is hashed; once
+ * it completes without a server error the copy is stored. A duplicate
+ * arriving meanwhile waits for it, up to wait-timeout, and gets an empty 409
+ * with Retry-After beyond that. A duplicate whose body differs gets an empty
+ * 422 rather than a response to a request it did not make.
+ * Replayed responses carry Idempotent-Replayed: true and are counted in the
+ * request metrics like handled ones. Runs innermost, inside compression, so
+ * the stored bytes are uncompressed and are compressed per client on replay.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private final IdempotencyCache cache;
+    private final MetricsService metricsService;
+
+    @Autowired
+    public IdempotencyFilter(IdempotencyCache cache, MetricsService metricsService) {
+        this.cache = cache;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Not /api/batch: its streamed response is neither stored nor worth
+        // replaying, and holding the key for the whole stream blocks retries
+        return !request.getRequestURI().equals("/api")
+                || !IdempotencyCache.isIdempotentMethod(request.getMethod())
+                || !IdempotencyCache.isValidKey(request.getHeader(IdempotencyCache.HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String key = IdempotencyCache.key(request.getMethod(), request.getRequestURI(), request.getQueryString(),
+                IdempotencyCache.client(request.getHeader(HttpHeaders.AUTHORIZATION), request.getRemoteAddr()),
+                request.getHeader(IdempotencyCache.HEADER));
+
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing;
+        while ((existing = cache.claim(key, pending)) != null) {
+            StoredResponse stored;
+            try {
+                stored = existing.get(cache.getWaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                response.setStatus(HttpStatus.CONFLICT.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                return;
+            } catch (ExecutionException e) {
+                stored = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted waiting for the request with the same Idempotency-Key", e);
+            }
+            if (stored != null) {
+                if (!cache.matches(stored, fingerprint(request, stored.request().bytesRead()))) {
+                    response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+                    return;
+                }
+                replay(stored, response);
+                metricsService.recordApiCall(ApiMethod.valueOf(request.getMethod()), System.nanoTime() - start);
+                return;
+            }
+        }
+
+        DigestingRequest digesting = new DigestingRequest(request);
+        CapturingResponse capturing = new CapturingResponse(response, cache.getMaxEntrySize());
+        boolean stored = false;
+        try {
+            filterChain.doFilter(digesting, capturing);
+            if (capturing.isStorable()) {
+                cache.store(key, pending, digesting.digest.finish(request.getContentLengthLong()),
+                        capturing.getStatus(), capturing.getContentType(), capturing.bytes, capturing.count);
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                cache.release(key, pending);
+            }
+        }
+    }
+
+    /**
+     * Fingerprint of a duplicate, hashing as many bytes of its body as the
+     * first request's handler read.
+     */
+    private static RequestFingerprint fingerprint(HttpServletRequest request, long bytes) throws IOException {
+        BodyDigest digest = new BodyDigest();
+        if (bytes > 0) {
+            digest.update(request.getInputStream(), bytes);
+        }
+        return digest.finish(request.getContentLengthLong());
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(IdempotencyCache.REPLAYED_HEADER, "true");
+        response.setContentLength(stored.size());
+        stored.writeTo(response.getOutputStream());
+    }
+
+    /**
+     * Request whose body is hashed as the handler reads it.
+     */
+    private static final class DigestingRequest extends HttpServletRequestWrapper {
+
+        final BodyDigest digest = new BodyDigest();
+        private ServletInputStream inputStream;
+
+        DigestingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                ServletInputStream delegate = super.getInputStream();
+                inputStream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        int b = delegate.read();
+                        if (b >= 0) {
+                            digest.update(new byte[] {(byte) b}, 0, 1);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int read = delegate.read(b, off, len);
+                        if (read > 0) {
+                            digest.update(b, off, read);
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return delegate.isFinished();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener readListener) {
+                        delegate.setReadListener(readListener);
+                    }
+                };
+            }
+            return inputStream;
+        }
+    }
+
+    /**
+     * Response that keeps a copy of its body, up to a limit, as it is
+     * written.
+     */
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final int limit;
+
+        byte[] bytes = new byte[256];
+        int count;
+        private boolean overflowed;
+        private boolean errorSent;
+
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response, int limit) {
+            super(response);
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        capture(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        capture(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            errorSent = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            errorSent = true;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            restart();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            restart();
+        }
+
+        /**
+         * Whether the response is complete in the copy and worth replaying:
+         * no server error, and no error page rendered outside this filter.
+         */
+        boolean isStorable() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return !overflowed && !errorSent && getStatus() < 500;
+        }
+
+        private void restart() {
+            if (bytes == null) {
+                bytes = new byte[256];
+            }
+            count = 0;
+            overflowed = false;
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (overflowed) {
+                return;
+            }
+            if (count + len > limit) {
+                overflowed = true;
+                bytes = null;
+                return;
+            }
+            if (count + len > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(limit, Math.max(count + len, bytes.length * 2)));
+            }
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts each servlet request as in flight for as long as it is in the
+ * filter chain. Runs first so the count covers every other filter.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    private final InFlightRequests inFlightRequests;
+
+    @Autowired
+    public InFlightRequestFilter(InFlightRequests inFlightRequests) {
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LongAdder inFlight = inFlightRequests.begin(request.getRequestURI(), request.getMethod());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlightRequests.end(inFlight);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.devops.challenge.filter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.devops.challenge.service.MetricsService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tracks requests that are currently being handled, per endpoint and HTTP
+ * method, and feeds the service-wide active connections count.
+ *
+ * Endpoints and methods are mapped onto small fixed sets, so the counters
+ * and their gauges are all created up front and a request only touches a
+ * pre-resolved LongAdder.
+ */
+@Component
+public class InFlightRequests {
+
+    private static final String[] ENDPOINTS = {"/api", "/api/batch", "/api/health", "/api/info", "/actuator",
+            "other"};
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "OTHER"};
+
+    // Endpoints before ACTUATOR_ENDPOINT are matched exactly, actuator by prefix
+    private static final int ACTUATOR_ENDPOINT = 4;
+    private static final int OTHER_ENDPOINT = ENDPOINTS.length - 1;
+    private static final int OTHER_METHOD = METHODS.length - 1;
+
+    private final MetricsService metricsService;
+    private final LongAdder[] inFlight = new LongAdder[ENDPOINTS.length * METHODS.length];
+
+    @Autowired
+    public InFlightRequests(MetricsService metricsService, MeterRegistry meterRegistry) {
+        this.metricsService = metricsService;
+
+        for (int endpoint = 0; endpoint < ENDPOINTS.length; endpoint++) {
+            for (int method = 0; method < METHODS.length; method++) {
+                LongAdder requests = new LongAdder();
+                inFlight[endpoint * METHODS.length + method] = requests;
+
+                Gauge.builder("devops_api_in_flight_requests", requests, LongAdder::sum)
+                        .description("Number of requests currently being handled")
+                        .tag("service", "devops-challenge")
+                        .tag("endpoint", ENDPOINTS[endpoint])
+                        .tag("method", METHODS[method])
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Mark a request as started. The returned counter must be passed to
+     * {@link #end(LongAdder)} once the request has completed.
+     */
+    public LongAdder begin(String path, String method) {
+        LongAdder requests = inFlight[endpointIndex(path) * METHODS.length + methodIndex(method)];
+        requests.increment();
+        metricsService.incrementActiveConnections();
+        return requests;
+    }
+
+    public void end(LongAdder requests) {
+        requests.decrement();
+        metricsService.decrementActiveConnections();
+    }
+
+    private static int endpointIndex(String path) {
+        if (path.startsWith(ENDPOINTS[ACTUATOR_ENDPOINT])) {
+            return ACTUATOR_ENDPOINT;
+        }
+        for (int i = 0; i < ACTUATOR_ENDPOINT; i++) {
+            if (ENDPOINTS[i].equals(path)) {
+                return i;
+            }
+        }
+        return OTHER_ENDPOINT;
+    }
+
+    private static int methodIndex(String method) {
+        for (int i = 0; i < OTHER_METHOD; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return OTHER_METHOD;
+    }
+}
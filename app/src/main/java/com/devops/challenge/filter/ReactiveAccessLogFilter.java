@@ -0,0 +1,98 @@
+package com.devops.challenge.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.devops.challenge.service.AccessLog;
+import com.devops.challenge.service.WarmupRunner;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Reactive counterpart of AccessLogFilter: the request is logged once its
+ * exchange completes, errors or is cancelled. Requests sent by the startup
+ * warm-up are not logged.
+ */
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(prefix = "app.access-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ReactiveAccessLogFilter implements WebFilter {
+
+    private final AccessLog accessLog;
+    private final WarmupRunner warmupRunner;
+
+    @Autowired
+    public ReactiveAccessLogFilter(AccessLog accessLog, ObjectProvider<WarmupRunner> warmupRunner) {
+        this.accessLog = accessLog;
+        this.warmupRunner = warmupRunner.getIfAvailable();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (warmupRunner != null
+                && warmupRunner.isWarmupRequest(exchange.getRequest().getHeaders().getFirst(WarmupRunner.HEADER))) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        ByteCountingResponse response = new ByteCountingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> {
+                    ServerHttpRequest request = exchange.getRequest();
+                    accessLog.record(request.getMethod().name(), request.getPath().value(),
+                            status(response, signal), System.nanoTime() - start, response.bytesWritten);
+                });
+    }
+
+    private static int status(ServerHttpResponse response, SignalType signal) {
+        HttpStatusCode status = response.getStatusCode();
+        if (status != null) {
+            return status.value();
+        }
+        // No status set: 200 unless the handler failed before writing one
+        return signal == SignalType.ON_ERROR ? 500 : 200;
+    }
+
+    /**
+     * Counts the bytes of the response body as they are written.
+     */
+    private static final class ByteCountingResponse extends ServerHttpResponseDecorator {
+
+        volatile long bytesWritten;
+
+        ByteCountingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            // Buffers of one response are written in sequence, never concurrently
+            bytesWritten += buffer.readableByteCount();
+        }
+    }
+}
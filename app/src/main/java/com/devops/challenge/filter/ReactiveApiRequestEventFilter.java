@@ -0,0 +1,52 @@
+package com.devops.challenge.filter;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.devops.challenge.service.ApiRequestEvent;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Reactive counterpart of ApiRequestEventFilter. The event ends when the
+ * exchange completes, errors or is cancelled.
+ */
+@Component
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class ReactiveApiRequestEventFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!path.equals("/api") && !path.startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        ApiRequestEvent event = new ApiRequestEvent();
+        if (!event.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        event.begin();
+        return chain.filter(exchange).doFinally(signal -> {
+            event.end();
+            if (event.shouldCommit()) {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                event.method = request.getMethod().name();
+                event.uri = path;
+                event.status = status != null ? status.value() : signal == SignalType.ON_ERROR ? 500 : 200;
+                event.requestBytes = request.getHeaders().getContentLength();
+                event.commit();
+            }
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.devops.challenge.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.devops.challenge.service.GzipCompressor;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of CompressionFilter. Single-value bodies, which is
+ * every /api response, are aggregated and compressed in one go once they
+ * reach the minimum size; streamed bodies are passed through.
+ */
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(prefix = "app.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class ReactiveCompressionFilter implements WebFilter {
+
+    private final GzipCompressor compressor;
+
+    @Autowired
+    public ReactiveCompressionFilter(GzipCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!path.equals("/api") && !path.startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+
+        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!GzipCompressor.acceptsGzip(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING))) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new CompressingResponse(exchange.getResponse())).build());
+    }
+
+    private final class CompressingResponse extends ServerHttpResponseDecorator {
+
+        CompressingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!(body instanceof Mono<?>) || !isCompressible()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(buffer -> {
+                int length = buffer.readableByteCount();
+                if (length < compressor.getMinResponseSize()) {
+                    return super.writeWith(Mono.just(buffer));
+                }
+                byte[] compressed;
+                try {
+                    byte[] bytes = new byte[length];
+                    buffer.read(bytes);
+                    compressed = compressor.compress(bytes);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+                HttpHeaders headers = getHeaders();
+                headers.set(HttpHeaders.CONTENT_ENCODING, GzipCompressor.GZIP);
+                headers.setContentLength(compressed.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+            });
+        }
+
+        private boolean isCompressible() {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            MediaType contentType = headers.getContentType();
+            return (status == null || status.value() != HttpStatus.NO_CONTENT.value()
+                    && status.value() != HttpStatus.PARTIAL_CONTENT.value()
+                    && status.value() != HttpStatus.NOT_MODIFIED.value())
+                    && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                    && contentType != null && compressor.isCompressible(contentType);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.devops.challenge.filter;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.devops.challenge.service.AdaptiveConcurrencyLimiter;
+import com.devops.challenge.service.WarmupRunner;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of ConcurrencyLimitFilter.
+ */
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(prefix = "app.limiter", name = "enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ReactiveConcurrencyLimitFilter implements WebFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final WarmupRunner warmupRunner;
+
+    @Autowired
+    public ReactiveConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                          ObjectProvider<WarmupRunner> warmupRunner) {
+        this.limiter = limiter;
+        this.warmupRunner = warmupRunner.getIfAvailable();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!AdaptiveConcurrencyLimiter.isLimited(request.getPath().value())
+                || warmupRunner != null && warmupRunner.isWarmupRequest(request.getHeaders().getFirst(WarmupRunner.HEADER))) {
+            return chain.filter(exchange);
+        }
+
+        if (!limiter.tryAcquire()) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds());
+            return response.setComplete();
+        }
+        return chain.filter(exchange).doFinally(signal -> limiter.release());
+    }
+}
@@ -0,0 +1,215 @@
+package com.devops.challenge.filter;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.devops.challenge.service.ApiMethod;
+import com.devops.challenge.service.IdempotencyCache;
+import com.devops.challenge.service.IdempotencyCache.BodyDigest;
+import com.devops.challenge.service.IdempotencyCache.RequestFingerprint;
+import com.devops.challenge.service.IdempotencyCache.StoredResponse;
+import com.devops.challenge.service.MetricsService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Reactive counterpart of IdempotencyFilter. Single-value bodies, which is
+ * every /api response, are copied as they are written; a streamed body
+ * releases the key. Duplicates wait for the request in progress without
+ * holding a thread, and a stored body held off-heap is written out without
+ * being copied. A duplicate whose body differs gets an empty 422.
+ */
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+public class ReactiveIdempotencyFilter implements WebFilter {
+
+    private final IdempotencyCache cache;
+    private final MetricsService metricsService;
+
+    @Autowired
+    public ReactiveIdempotencyFilter(IdempotencyCache cache, MetricsService metricsService) {
+        this.cache = cache;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        String method = request.getMethod().name();
+        String idempotencyKey = request.getHeaders().getFirst(IdempotencyCache.HEADER);
+        if (!path.equals("/api")
+                || !IdempotencyCache.isIdempotentMethod(method)
+                || !IdempotencyCache.isValidKey(idempotencyKey)) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String client = IdempotencyCache.client(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION),
+                remoteAddress != null ? remoteAddress.getHostString() : null);
+        String key = IdempotencyCache.key(method, path, request.getURI().getRawQuery(), client, idempotencyKey);
+        return Mono.defer(() -> handle(exchange, chain, key, ApiMethod.valueOf(method), start));
+    }
+
+    private Mono<Void> handle(ServerWebExchange exchange, WebFilterChain chain, String key, ApiMethod method,
+                              long start) {
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = cache.claim(key, pending);
+        if (existing != null) {
+            // Completes empty when the owner released the key: claim it again
+            return Mono.fromFuture(existing, true)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .timeout(cache.getWaitTimeout())
+                    .flatMap(stored -> stored.isPresent()
+                            ? replayIfMatching(exchange, stored.get(), method, start)
+                            : handle(exchange, chain, key, method, start))
+                    .onErrorResume(TimeoutException.class, e -> conflict(exchange.getResponse()));
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        BodyDigest digest = new BodyDigest();
+        ServerHttpRequest digesting = new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnNext(buffer -> update(digest, buffer));
+            }
+        };
+        CapturingResponse capturing = new CapturingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().request(digesting).response(capturing).build())
+                .doFinally(signal -> {
+                    if (signal == SignalType.ON_COMPLETE && capturing.body != null) {
+                        cache.store(key, pending, digest.finish(request.getHeaders().getContentLength()),
+                                capturing.status(), capturing.contentType(), capturing.body, capturing.body.length);
+                    } else {
+                        cache.release(key, pending);
+                    }
+                });
+    }
+
+    private Mono<Void> replayIfMatching(ServerWebExchange exchange, StoredResponse stored, ApiMethod method,
+                                       long start) {
+        return fingerprint(exchange.getRequest(), stored.request().bytesRead())
+                .flatMap(request -> cache.matches(stored, request)
+                        ? replay(exchange.getResponse(), stored, method, start)
+                        : unprocessable(exchange.getResponse()));
+    }
+
+    /**
+     * Fingerprint of a duplicate, hashing as many bytes of its body as the
+     * first request's handler read.
+     */
+    private static Mono<RequestFingerprint> fingerprint(ServerHttpRequest request, long bytes) {
+        BodyDigest digest = new BodyDigest();
+        Mono<RequestFingerprint> finish = Mono.fromSupplier(
+                () -> digest.finish(request.getHeaders().getContentLength()));
+        if (bytes == 0) {
+            return finish;
+        }
+        return DataBufferUtils.takeUntilByteCount(request.getBody(), bytes)
+                .doOnNext(buffer -> {
+                    update(digest, buffer);
+                    DataBufferUtils.release(buffer);
+                })
+                .then(finish);
+    }
+
+    private static void update(BodyDigest digest, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                digest.update(buffers.next());
+            }
+        }
+    }
+
+    private Mono<Void> replay(ServerHttpResponse response, StoredResponse stored, ApiMethod method, long start) {
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        HttpHeaders headers = response.getHeaders();
+        if (stored.contentType() != null) {
+            headers.setContentType(MediaType.parseMediaType(stored.contentType()));
+        }
+        headers.set(IdempotencyCache.REPLAYED_HEADER, "true");
+        headers.setContentLength(stored.size());
+        metricsService.recordApiCall(method, System.nanoTime() - start);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(stored.body())));
+    }
+
+    private static Mono<Void> unprocessable(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.UNPROCESSABLE_ENTITY);
+        return response.setComplete();
+    }
+
+    private static Mono<Void> conflict(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.CONFLICT);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+
+    /**
+     * Response that keeps a copy of a single-value body of at most
+     * max-entry-size bytes and no server error status.
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        byte[] body;
+
+        CapturingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        int status() {
+            HttpStatusCode status = getStatusCode();
+            return status != null ? status.value() : HttpStatus.OK.value();
+        }
+
+        String contentType() {
+            MediaType contentType = getHeaders().getContentType();
+            return contentType != null ? contentType.toString() : null;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!(body instanceof Mono<?>) || status() >= 500) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(buffer -> {
+                int length = buffer.readableByteCount();
+                if (length <= cache.getMaxEntrySize()) {
+                    byte[] copy = new byte[length];
+                    buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(copy), 0, length);
+                    this.body = copy;
+                }
+                return super.writeWith(Mono.just(buffer));
+            });
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.devops.challenge.filter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of InFlightRequestFilter: a request is in flight
+ * until its exchange completes, errors or is cancelled.
+ */
+@Component
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveInFlightRequestFilter implements WebFilter {
+
+    private final InFlightRequests inFlightRequests;
+
+    @Autowired
+    public ReactiveInFlightRequestFilter(InFlightRequests inFlightRequests) {
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        LongAdder inFlight = inFlightRequests.begin(request.getPath().value(), request.getMethod().name());
+        return chain.filter(exchange).doFinally(signal -> inFlightRequests.end(inFlight));
+    }
+}
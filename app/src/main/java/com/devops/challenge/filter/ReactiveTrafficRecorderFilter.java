@@ -0,0 +1,97 @@
+package com.devops.challenge.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.HeaderFilter;
+import com.devops.challenge.service.TrafficRecorder;
+import com.devops.challenge.service.WarmupRunner;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of TrafficRecorderFilter: the request is recorded
+ * once its exchange completes, errors or is cancelled, with the same
+ * headers left out and a body the handler did not read in full marked
+ * truncated.
+ */
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(prefix = "app.recorder", name = "enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class ReactiveTrafficRecorderFilter implements WebFilter {
+
+    private final TrafficRecorder recorder;
+    private final HeaderFilter headerFilter;
+    private final WarmupRunner warmupRunner;
+
+    @Autowired
+    public ReactiveTrafficRecorderFilter(TrafficRecorder recorder, EchoProperties echoProperties,
+                                         ObjectProvider<WarmupRunner> warmupRunner) {
+        this.recorder = recorder;
+        this.headerFilter = RecordedHeaders.filter(echoProperties);
+        this.warmupRunner = warmupRunner.getIfAvailable();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!path.equals("/api") && !path.startsWith("/api/")
+                || warmupRunner != null && warmupRunner.isWarmupRequest(request.getHeaders().getFirst(WarmupRunner.HEADER))) {
+            return chain.filter(exchange);
+        }
+
+        long arrival = TrafficRecorder.currentTimeMicros();
+        BodyCapture body = new BodyCapture(recorder.getMaxBodySize());
+        AtomicBoolean bodyComplete = new AtomicBoolean();
+        ServerHttpRequest capturing = new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnNext(buffer -> {
+                    try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+                        while (buffers.hasNext()) {
+                            body.append(buffers.next());
+                        }
+                    }
+                }).doOnComplete(() -> bodyComplete.set(true));
+            }
+        };
+        return chain.filter(exchange.mutate().request(capturing).build()).doFinally(signal -> {
+            long contentLength = request.getHeaders().getContentLength();
+            if (contentLength >= 0 ? body.length() < contentLength
+                    : !bodyComplete.get() && request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+                body.markUnread();
+            }
+            List<String> headers = new ArrayList<>();
+            request.getHeaders().forEach((name, values) -> {
+                if (headerFilter.isEchoed(name)) {
+                    values.forEach(value -> {
+                        headers.add(name);
+                        headers.add(value);
+                    });
+                }
+            });
+            recorder.record(arrival, request.getMethod().name(), path, request.getURI().getRawQuery(),
+                    headers, body.bytes(), body.length(), body.truncated());
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.devops.challenge.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.HeaderFilter;
+
+/**
+ * Decides which request headers the traffic recorder filters write to disk:
+ * those "app.echo.headers" echoes, never including credentials.
+ */
+final class RecordedHeaders {
+
+    /** Never recorded, whatever "app.echo.headers" allows. */
+    static final List<String> CREDENTIALS = List.of(
+            "Authorization", "Proxy-Authorization", "Cookie", "X-Api-Key", "X-Auth-Token");
+
+    private RecordedHeaders() {
+    }
+
+    static HeaderFilter filter(EchoProperties echoProperties) {
+        List<String> deny = new ArrayList<>(echoProperties.getHeaders().getDeny());
+        deny.addAll(CREDENTIALS);
+        return HeaderFilter.of(echoProperties.getHeaders().getAllow(), deny);
+    }
+}
@@ -0,0 +1,160 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.HeaderFilter;
+import com.devops.challenge.service.TrafficRecorder;
+import com.devops.challenge.service.WarmupRunner;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records each /api request with the TrafficRecorder once it has been
+ * handled. The body is copied as the handler reads it, so only what the
+ * handler read is recorded, and a body it did not read in full is marked
+ * truncated. Runs inside the concurrency limit, so requests it sheds are
+ * not recorded, but outside IdempotencyFilter and EchoBodyBudgetFilter, so
+ * replayed responses and requests rejected for memory budget are (the
+ * latter with their unread body marked truncated). Warm-up requests are
+ * skipped.
+ *
+ * Only the headers "app.echo.headers" echoes are recorded, and credential
+ * headers such as Authorization and Cookie never are.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.recorder", name = "enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class TrafficRecorderFilter extends OncePerRequestFilter {
+
+    private final TrafficRecorder recorder;
+    private final HeaderFilter headerFilter;
+    private final WarmupRunner warmupRunner;
+
+    @Autowired
+    public TrafficRecorderFilter(TrafficRecorder recorder, EchoProperties echoProperties,
+                                 ObjectProvider<WarmupRunner> warmupRunner) {
+        this.recorder = recorder;
+        this.headerFilter = RecordedHeaders.filter(echoProperties);
+        this.warmupRunner = warmupRunner.getIfAvailable();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.equals("/api") && !path.startsWith("/api/")
+                || warmupRunner != null && warmupRunner.isWarmupRequest(request.getHeader(WarmupRunner.HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long arrival = TrafficRecorder.currentTimeMicros();
+        CapturingRequest capturing = new CapturingRequest(request, new BodyCapture(recorder.getMaxBodySize()));
+        try {
+            filterChain.doFilter(capturing, response);
+        } finally {
+            List<String> headers = new ArrayList<>();
+            for (Enumeration<String> names = request.getHeaderNames(); names.hasMoreElements(); ) {
+                String name = names.nextElement();
+                if (!headerFilter.isEchoed(name)) {
+                    continue;
+                }
+                for (Enumeration<String> values = request.getHeaders(name); values.hasMoreElements(); ) {
+                    headers.add(name);
+                    headers.add(values.nextElement());
+                }
+            }
+            BodyCapture body = capturing.body;
+            if (capturing.isBodyUnread()) {
+                body.markUnread();
+            }
+            recorder.record(arrival, request.getMethod(), request.getRequestURI(), request.getQueryString(),
+                    headers, body.bytes(), body.length(), body.truncated());
+        }
+    }
+
+    private static final class CapturingRequest extends HttpServletRequestWrapper {
+
+        final BodyCapture body;
+        private ServletInputStream inputStream;
+
+        CapturingRequest(HttpServletRequest request, BodyCapture body) {
+            super(request);
+            this.body = body;
+        }
+
+        // Whether the handler left some of the body unread, as when a
+        // request is rejected before its body is read
+        boolean isBodyUnread() {
+            long contentLength = getContentLengthLong();
+            if (contentLength >= 0) {
+                return body.length() < contentLength;
+            }
+            return inputStream != null ? !inputStream.isFinished()
+                    : getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                ServletInputStream delegate = super.getInputStream();
+                inputStream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        int b = delegate.read();
+                        if (b >= 0) {
+                            body.append(b);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int read = delegate.read(b, off, len);
+                        if (read > 0) {
+                            body.append(b, off, read);
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return delegate.isFinished();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener readListener) {
+                        delegate.setReadListener(readListener);
+                    }
+                };
+            }
+            return inputStream;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.devops.challenge.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.AccessLogProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Access log written off the request thread ("app.access-log").
+ *
+ * Request threads only copy a fixed set of fields into a pre-allocated ring
+ * buffer. A single background thread drains it in batches and writes one
+ * JSON object per line to stdout or a rolling file:
+ *
+ * {"timestamp":"2024-01-01T00:00:00.123Z","method":"GET","uri":"/api","status":200,"durationMicros":412,"bytes":345}
+ *
+ * When the writer falls behind and the buffer fills up, records are dropped
+ * rather than slowing requests down, and counted in
+ * devops_access_log_dropped_total.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.access-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLog implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLog.class);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final AccessLogBuffer buffer;
+    private final OutputStream output;
+    private final boolean closeOutput;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    // Only used by the writer thread
+    private final StringBuilder line = new StringBuilder(256);
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(64 * 1024);
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AccessLog(AccessLogProperties accessLogProperties, MeterRegistry meterRegistry) throws IOException {
+        this(accessLogProperties, meterRegistry, openOutput(accessLogProperties),
+                accessLogProperties.getOutput() == AccessLogProperties.Output.FILE);
+    }
+
+    /**
+     * Access log writing to the given stream, e.g. for benchmarks. The
+     * stream is flushed but not closed on shutdown.
+     */
+    public AccessLog(AccessLogProperties accessLogProperties, MeterRegistry meterRegistry, OutputStream output) {
+        this(accessLogProperties, meterRegistry, output, false);
+    }
+
+    private AccessLog(AccessLogProperties accessLogProperties, MeterRegistry meterRegistry,
+                      OutputStream output, boolean closeOutput) {
+        this.buffer = new AccessLogBuffer(accessLogProperties.getBufferSize());
+        this.output = output;
+        this.closeOutput = closeOutput;
+        this.batchSize = Math.max(1, accessLogProperties.getBatchSize());
+        this.flushIntervalNanos = accessLogProperties.getFlushInterval().toNanos();
+
+        FunctionCounter.builder("devops_access_log_dropped_total", dropped, LongAdder::doubleValue)
+                .description("Access log records dropped because the buffer was full")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("devops_access_log_written_total", written, LongAdder::doubleValue)
+                .description("Access log records written")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        Gauge.builder("devops_access_log_buffered", buffer, AccessLogBuffer::size)
+                .description("Access log records waiting to be written")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        this.writer = Thread.ofPlatform().name("access-log-writer").daemon().unstarted(this::writeLoop);
+        writer.start();
+        logger.info("Access log enabled with a {} record buffer", buffer.capacity());
+    }
+
+    /**
+     * Record a completed request. Never blocks: if the buffer is full the
+     * record is dropped and counted.
+     */
+    public void record(String method, String uri, int status, long durationNanos, long bytes) {
+        if (!buffer.offer(System.currentTimeMillis(), method, uri, status, durationNanos, bytes)) {
+            dropped.increment();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * Stop the writer once everything buffered so far has been written.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void writeLoop() {
+        try {
+            while (running) {
+                int drained = writeBatch();
+                if (drained < batchSize) {
+                    // Caught up: push out what is buffered in the stream and
+                    // let records accumulate rather than polling for each one
+                    if (drained > 0) {
+                        flush();
+                    }
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+            }
+            while (writeBatch() > 0) {
+                // Drain what was recorded before shutdown
+            }
+            flush();
+        } finally {
+            if (closeOutput) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close access log", e);
+                }
+            }
+        }
+    }
+
+    private int writeBatch() {
+        int drained = buffer.drain(this::append, batchSize);
+        if (drained > 0) {
+            try {
+                batch.writeTo(output);
+                written.add(drained);
+            } catch (IOException e) {
+                dropped.add(drained);
+                logger.warn("Failed to write access log", e);
+            } finally {
+                batch.reset();
+            }
+        }
+        return drained;
+    }
+
+    private void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to flush access log", e);
+        }
+    }
+
+    private void append(long timestampMillis, String method, String uri, int status, long durationNanos, long bytes) {
+        line.setLength(0);
+        line.append("{\"timestamp\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(timestampMillis), line);
+        line.append("\",\"method\":\"");
+        appendEscaped(method);
+        line.append("\",\"uri\":\"");
+        appendEscaped(uri);
+        line.append("\",\"status\":").append(status)
+                .append(",\"durationMicros\":").append(TimeUnit.NANOSECONDS.toMicros(durationNanos))
+                .append(",\"bytes\":").append(bytes)
+                .append("}\n");
+        batch.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    private static OutputStream openOutput(AccessLogProperties accessLogProperties) throws IOException {
+        if (accessLogProperties.getOutput() == AccessLogProperties.Output.FILE) {
+            return new RollingFileOutputStream(Path.of(accessLogProperties.getFile()),
+                    accessLogProperties.getMaxFileSize().toBytes(), accessLogProperties.getMaxHistory());
+        }
+        // Through System.out, which the console logger shares: each batch of
+        // whole lines goes out in one write under its lock, so log lines can
+        // only land between access log lines, never inside one
+        return System.out;
+    }
+}
@@ -0,0 +1,113 @@
+package com.devops.challenge.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, lock-free ring buffer of access log records with many producers
+ * (request threads) and a single consumer (the access log writer).
+ *
+ * Every slot is allocated up front and reused, so offering a record only
+ * claims a slot with a CAS and copies the fields into it. Each slot carries
+ * a sequence number telling producers and the consumer whose turn it is; a
+ * producer that finds its slot still unconsumed reports the buffer as full
+ * instead of waiting.
+ */
+final class AccessLogBuffer {
+
+    /**
+     * Receives the fields of each drained record.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void accept(long timestampMillis, String method, String uri, int status, long durationNanos, long bytes);
+    }
+
+    private static final class Slot {
+        // Equal to the producer position when free, that position + 1 once filled
+        volatile long sequence;
+
+        long timestampMillis;
+        String method;
+        String uri;
+        int status;
+        long durationNanos;
+        long bytes;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong producerPosition = new AtomicLong();
+
+    // Only read and written by the consumer
+    private long consumerPosition;
+
+    AccessLogBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Add a record, returning false without blocking when the buffer is full.
+     */
+    boolean offer(long timestampMillis, String method, String uri, int status, long durationNanos, long bytes) {
+        while (true) {
+            long position = producerPosition.get();
+            Slot slot = slots[(int) position & mask];
+            long sequence = slot.sequence;
+            if (sequence == position) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    slot.timestampMillis = timestampMillis;
+                    slot.method = method;
+                    slot.uri = uri;
+                    slot.status = status;
+                    slot.durationNanos = durationNanos;
+                    slot.bytes = bytes;
+                    slot.sequence = position + 1;
+                    return true;
+                }
+            } else if (sequence < position) {
+                // Still holds the record from one lap ago
+                return false;
+            }
+            // Otherwise another producer claimed the slot first; retry
+        }
+    }
+
+    /**
+     * Hand up to max records, oldest first, to the handler. Must only be
+     * called from the single consumer thread.
+     */
+    int drain(RecordHandler handler, int max) {
+        int drained = 0;
+        while (drained < max) {
+            long position = consumerPosition;
+            Slot slot = slots[(int) position & mask];
+            if (slot.sequence != position + 1) {
+                break;
+            }
+            handler.accept(slot.timestampMillis, slot.method, slot.uri, slot.status, slot.durationNanos, slot.bytes);
+            slot.method = null;
+            slot.uri = null;
+            slot.sequence = position + slots.length;
+            consumerPosition = position + 1;
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of records waiting to be drained.
+     */
+    int size() {
+        return (int) Math.max(0, Math.min(slots.length, producerPosition.get() - consumerPosition));
+    }
+}
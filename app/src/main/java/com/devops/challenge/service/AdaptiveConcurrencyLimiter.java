@@ -0,0 +1,214 @@
+package com.devops.challenge.service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.LimiterProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Adaptive limit on the number of /api requests handled concurrently
+ * ("app.limiter"), in the style of a gradient concurrency limiter.
+ *
+ * Every sample window the mean /api response time of that window (from the
+ * devops_api_response_time timers, leaving out /api/batch), plus the mean
+ * time requests waited for a thread before reaching the limit
+ * (devops_api_queue_wait), is compared with a slow-moving long-term
+ * average. While latency stays within the configured tolerance of the
+ * average the limit grows by roughly its square root; once latency rises
+ * past it the limit shrinks in proportion. Requests over the limit are
+ * rejected straight away instead of queueing.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.limiter", name = "enabled", havingValue = "true")
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    // Batches take as long as their item count makes them, so they would
+    // read as latency rising and falling with the mix of batch sizes
+    private static final ApiMethod[] SAMPLED_METHODS = Arrays.stream(ApiMethod.values())
+            .filter(ApiMethod::isEcho)
+            .toArray(ApiMethod[]::new);
+
+    // Windows with fewer samples than this are merged into the next one
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    // Weight of each window in the long-term latency average (~600 windows)
+    private static final double LONG_RTT_WEIGHT = 2.0 / 601;
+
+    private final MetricsService metricsService;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final long sampleWindowNanos;
+    private final String retryAfterSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+    private volatile long nextUpdateNanos;
+
+    // Guarded by updateLock
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private long lastSampleCount;
+    private double lastSampleTotalNanos;
+    private long lastWaitCount;
+    private double lastWaitTotalNanos;
+    private double longRttNanos;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(MetricsService metricsService, MeterRegistry meterRegistry,
+                                      LimiterProperties limiterProperties) {
+        this.metricsService = metricsService;
+        this.minLimit = limiterProperties.getMinLimit();
+        this.maxLimit = limiterProperties.getMaxLimit();
+        this.rttTolerance = limiterProperties.getRttTolerance();
+        this.smoothing = limiterProperties.getSmoothing();
+        this.sampleWindowNanos = limiterProperties.getSampleWindow().toNanos();
+        this.retryAfterSeconds = String.valueOf(Math.max(1, limiterProperties.getRetryAfter().toSeconds()));
+        this.limit = limiterProperties.getInitialLimit();
+        this.nextUpdateNanos = System.nanoTime() + sampleWindowNanos;
+
+        Gauge.builder("devops_api_concurrency_limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent /api requests")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("devops_api_requests_rejected_total", rejected, LongAdder::doubleValue)
+                .description("Requests rejected because the concurrency limit was reached")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        logger.info("Adaptive concurrency limit enabled, starting at {}", getLimit());
+    }
+
+    /**
+     * Whether requests to the given path are subject to the limit. Health
+     * checks are always admitted so an overloaded pod is not restarted.
+     */
+    public static boolean isLimited(String path) {
+        return path.equals("/api") || (path.startsWith("/api/") && !path.equals("/api/health"));
+    }
+
+    /**
+     * Try to admit a request. Every admitted request must be followed by
+     * exactly one call to {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (now - nextUpdateNanos >= 0 && updateLock.tryLock()) {
+            try {
+                if (now - nextUpdateNanos >= 0) {
+                    nextUpdateNanos = now + sampleWindowNanos;
+                    updateLimit();
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        }
+
+        int current = inFlight.incrementAndGet();
+        if (current > limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        if (current > windowMaxInFlight.get()) {
+            windowMaxInFlight.accumulateAndGet(current, Math::max);
+        }
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Retry-After header value for rejected requests, in seconds
+     */
+    public String getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Re-evaluate the limit from the response times recorded since the last
+     * update. Not thread-safe: tryAcquire only calls it under updateLock.
+     */
+    void updateLimit() {
+        metricsService.flushApiCalls();
+        long count = 0;
+        double totalNanos = 0;
+        for (ApiMethod method : SAMPLED_METHODS) {
+            Timer timer = metricsService.getResponseTimer(method);
+            count += timer.count();
+            totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+        }
+
+        long samples = count - lastSampleCount;
+        if (samples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        double shortRttNanos = (totalNanos - lastSampleTotalNanos) / samples;
+        lastSampleCount = count;
+        lastSampleTotalNanos = totalNanos;
+
+        // Once every thread is busy requests queue in front of the limit,
+        // where only the wait for a thread shows how long they are delayed
+        Timer queueWait = metricsService.getQueueWaitTimer();
+        long waitCount = queueWait.count();
+        double waitTotalNanos = queueWait.totalTime(TimeUnit.NANOSECONDS);
+        if (waitCount > lastWaitCount) {
+            shortRttNanos += (waitTotalNanos - lastWaitTotalNanos) / (waitCount - lastWaitCount);
+        }
+        lastWaitCount = waitCount;
+        lastWaitTotalNanos = waitTotalNanos;
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos += (shortRttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+        }
+        // After a period of overload the long-term average is inflated; let
+        // it catch up quickly once latency has recovered
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double currentLimit = limit;
+        // Don't grow the limit on the strength of a window that never used it
+        if (maxInFlight < currentLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+        newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,128 @@
+package com.devops.challenge.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Buffers API call recordings (method and response time) and writes them
+ * into MetricsService's per-method counters and timers a batch at a time
+ * ("app.metrics.batching").
+ *
+ * Recording into a timer updates its count, total and max, words shared by
+ * every request thread, so under load their cache lines move between cores
+ * on every request. Here a request only appends to one of a set of striped
+ * buffers; a buffer is drained into the meters once it holds batch-size
+ * calls, or on the next call after its oldest one is max-delay old, so the
+ * shared lines move once per batch. flush() drains every buffer; it runs
+ * before each Prometheus scrape so exported totals include every call, and
+ * every max-delay on MetricsService's background thread so calls in a
+ * buffer no thread records into any more are published too.
+ *
+ * Buffers are picked by thread id rather than held in thread locals, so
+ * virtual threads, which only live for one request, share them as well. A
+ * thread that finds its buffer being used records directly instead of
+ * waiting.
+ */
+final class ApiCallBatcher {
+
+    private static final class Stripe extends ReentrantLock {
+        final byte[] methods;
+        final long[] durations;
+        final int[] counts;
+        int size;
+        long oldestNanos;
+
+        Stripe(int batchSize, int methodCount) {
+            this.methods = new byte[batchSize];
+            this.durations = new long[batchSize];
+            this.counts = new int[methodCount];
+        }
+    }
+
+    private final LongAdder[] calls;
+    private final Timer[] timers;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    ApiCallBatcher(LongAdder[] calls, Timer[] timers, int batchSize, long maxDelayNanos) {
+        this.calls = calls;
+        this.timers = timers;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayNanos = maxDelayNanos;
+
+        int size = Integer.highestOneBit(Math.max(1, 4 * Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.stripes = new Stripe[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(this.batchSize, calls.length);
+        }
+    }
+
+    void record(int method, long durationNanos) {
+        Stripe stripe = stripes[index(Thread.currentThread().threadId())];
+        if (!stripe.tryLock()) {
+            calls[method].increment();
+            timers[method].record(durationNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            int size = stripe.size;
+            if (size == 0) {
+                stripe.oldestNanos = now;
+            }
+            stripe.methods[size] = (byte) method;
+            stripe.durations[size] = durationNanos;
+            stripe.size = size + 1;
+            if (stripe.size == batchSize || now - stripe.oldestNanos >= maxDelayNanos) {
+                drain(stripe);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Write every buffered call into the meters.
+     */
+    void flush() {
+        for (Stripe stripe : stripes) {
+            stripe.lock();
+            try {
+                drain(stripe);
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    private void drain(Stripe stripe) {
+        int size = stripe.size;
+        if (size == 0) {
+            return;
+        }
+        int[] counts = stripe.counts;
+        for (int i = 0; i < size; i++) {
+            int method = stripe.methods[i];
+            timers[method].record(stripe.durations[i], TimeUnit.NANOSECONDS);
+            counts[method]++;
+        }
+        for (int method = 0; method < counts.length; method++) {
+            if (counts[method] > 0) {
+                calls[method].add(counts[method]);
+                counts[method] = 0;
+            }
+        }
+        stripe.size = 0;
+    }
+
+    private int index(long threadId) {
+        // Platform thread ids are sequential; spread them over the stripes
+        return (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+}
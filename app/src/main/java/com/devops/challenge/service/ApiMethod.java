@@ -0,0 +1,32 @@
+package com.devops.challenge.service;
+
+import java.util.Locale;
+
+/**
+ * HTTP methods served by the /api echo endpoint, and BATCH for POST
+ * /api/batch. The ordinal indexes the per-method meters held by
+ * MetricsService.
+ */
+public enum ApiMethod {
+    GET,
+    POST,
+    PUT,
+    DELETE,
+    /** POST /api/batch, timed per batch, however many items it streams. */
+    BATCH;
+
+    /**
+     * Whether this is a method of the /api echo endpoint, i.e. not BATCH.
+     */
+    public boolean isEcho() {
+        return this != BATCH;
+    }
+
+    /**
+     * Name of the per-method counter exported before the meters were tagged,
+     * e.g. api_get_requests_total; echo methods only.
+     */
+    String legacyCounterName() {
+        return "api_" + name().toLowerCase(Locale.ROOT) + "_requests_total";
+    }
+}
@@ -0,0 +1,36 @@
+package com.devops.challenge.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one /api request, from entering the filter chain to
+ * the response being written. Only recorded while a recording enables it,
+ * e.g. the one started through the profiling endpoint.
+ */
+@Name("com.devops.challenge.ApiRequest")
+@Label("API Request")
+@Category({"DevOps Challenge", "API"})
+@Description("An /api request, from entering the filter chain to the response being written")
+@StackTrace(false)
+public class ApiRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Request Body Size")
+    @Description("Declared Content-Length of the request body, -1 if unknown")
+    @DataAmount
+    public long requestBytes;
+}
@@ -0,0 +1,28 @@
+package com.devops.challenge.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one execution of an /api pipeline stage (see
+ * PipelineStage), committed by StageTimers once the stage has completed.
+ */
+@Name("com.devops.challenge.ApiStage")
+@Label("API Pipeline Stage")
+@Category({"DevOps Challenge", "API"})
+@Description("One execution of a stage of an /api request")
+@StackTrace(false)
+public class ApiStageEvent extends Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Stage Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long stageDuration;
+}
@@ -0,0 +1,177 @@
+package com.devops.challenge.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.BinaryFormat;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Heap taken by POST/PUT /api bodies across all concurrent requests in
+ * buffered mode ("app.echo.buffering").
+ *
+ * Before its body is read, a request reserves what it may buffer: its
+ * Content-Length, or for chunked bodies the most it will read before
+ * deciding to spill, times HEAP_BYTES_PER_BODY_BYTE. While it is echoed a
+ * body is held as its bytes, as the String decoded from them (one byte per
+ * character when Latin-1, two otherwise), as the parsed value and as the
+ * serialized response, each about the size of the body, so it takes some
+ * four times its length of heap. JSON and text bodies over the spill
+ * threshold reserve nothing, since they are echoed from a temporary file.
+ * Binary bodies have to be decoded whole and cannot spill. A request that
+ * does not get its reservation waits, without reading its body, until
+ * others release theirs, so a burst of large uploads is throttled instead
+ * of exhausting the heap.
+ *
+ * Exported through MetricsService as devops_echo_*.
+ */
+@Service
+public class EchoBodyBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoBodyBudget.class);
+
+    /** Heap reserved per byte of buffered body. */
+    public static final int HEAP_BYTES_PER_BODY_BYTE = 4;
+
+    private final Semaphore permits;
+    private final int capacity;
+    private final long spillThreshold;
+    private final long maxBodySize;
+    private final Duration waitTimeout;
+    private final Path spillDirectory;
+    private final boolean streaming;
+
+    private final Counter waits;
+    private final Counter rejected;
+    private final Counter spilledRequests;
+    private final Counter spilledBytes;
+
+    @Autowired
+    public EchoBodyBudget(EchoProperties echoProperties, MetricsService metricsService) {
+        EchoProperties.Buffering buffering = echoProperties.getBuffering();
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, buffering.getMemoryBudget().toBytes());
+        // Fair, so a large reservation is not starved by a stream of small ones
+        this.permits = new Semaphore(capacity, true);
+        this.spillThreshold = buffering.getSpillThreshold().toBytes();
+        this.maxBodySize = echoProperties.getMaxBodySize().toBytes();
+        this.waitTimeout = buffering.getWaitTimeout();
+        this.spillDirectory = Path.of(buffering.getSpillDirectory() != null
+                ? buffering.getSpillDirectory() : System.getProperty("java.io.tmpdir"));
+        this.streaming = echoProperties.isStreaming();
+
+        this.waits = metricsService.registerCustomCounter("devops_echo_memory_budget_waits_total",
+                "Requests that waited for memory budget before reading their body",
+                "service", "devops-challenge");
+        this.rejected = metricsService.registerCustomCounter("devops_echo_memory_budget_rejected_total",
+                "Requests answered with 503 after waiting wait-timeout for memory budget",
+                "service", "devops-challenge");
+        this.spilledRequests = metricsService.registerCustomCounter("devops_echo_spilled_requests_total",
+                "Request bodies echoed from a temporary file instead of memory", "service", "devops-challenge");
+        this.spilledBytes = metricsService.registerCustomCounter("devops_echo_spilled_bytes_total",
+                "Bytes of responses written to temporary files", "service", "devops-challenge");
+
+        metricsService.registerCustomGauge("devops_echo_memory_budget_bytes", "Memory budget for request bodies",
+                this, EchoBodyBudget::getCapacity, "service", "devops-challenge");
+        metricsService.registerCustomGauge("devops_echo_memory_budget_used_bytes",
+                "Memory budget reserved by requests in progress",
+                this, EchoBodyBudget::getUsed, "service", "devops-challenge");
+        metricsService.registerCustomGauge("devops_echo_memory_budget_utilization",
+                "Fraction of the memory budget reserved by requests in progress",
+                this, EchoBodyBudget::getUtilization, "service", "devops-challenge");
+        logger.info("Echo bodies buffered up to {} in total, spilling bodies over {} to {}",
+                buffering.getMemoryBudget(), buffering.getSpillThreshold(), spillDirectory);
+    }
+
+    /**
+     * Whether a body of this content type, answered in this format, can be
+     * echoed from a temporary file: only the JSON response can.
+     */
+    public static boolean isSpillable(String contentType, String accept) {
+        return BinaryFormat.forContentType(contentType) == null && !BinaryFormat.isAcceptable(accept);
+    }
+
+    /**
+     * Bytes a request must reserve before its body is read, capped at the
+     * whole budget; contentLength is -1 when unknown.
+     */
+    public int reservationFor(long contentLength, boolean spillable) {
+        long bytes;
+        if (spillable && (streaming || contentLength > spillThreshold)) {
+            return 0;
+        } else if (contentLength >= 0) {
+            bytes = contentLength;
+        } else {
+            // A chunked JSON or text body is read one byte past the threshold
+            // before it spills; a binary one is read up to the size limit
+            bytes = spillable ? spillThreshold + 1 : maxBodySize + 1;
+        }
+        return bytes > capacity / HEAP_BYTES_PER_BODY_BYTE ? capacity : (int) bytes * HEAP_BYTES_PER_BODY_BYTE;
+    }
+
+    /**
+     * Whether a body of this length goes straight to a temporary file.
+     */
+    public boolean shouldSpill(long contentLength) {
+        return contentLength > spillThreshold;
+    }
+
+    public long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Reserve bytes, waiting up to wait-timeout; false if they could not be
+     * reserved in time, in which case nothing has to be released.
+     */
+    public boolean acquire(int bytes) throws InterruptedException {
+        // Unlike tryAcquire(bytes), a zero timeout does not barge past waiters
+        if (bytes == 0 || permits.tryAcquire(bytes, 0, TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        waits.increment();
+        if (permits.tryAcquire(bytes, waitTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void release(int bytes) {
+        if (bytes > 0) {
+            permits.release(bytes);
+        }
+    }
+
+    /**
+     * Count a response that was written to a temporary file.
+     */
+    public void recordSpill(long bytes) {
+        spilledRequests.increment();
+        spilledBytes.increment(bytes);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getUsed() {
+        return capacity - permits.availablePermits();
+    }
+
+    public double getUtilization() {
+        return capacity > 0 ? (double) getUsed() / capacity : 0;
+    }
+}
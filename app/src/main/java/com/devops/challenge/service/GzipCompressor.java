@@ -0,0 +1,231 @@
+package com.devops.challenge.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.CompressionProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Gzip compression of response bodies ("app.compression").
+ *
+ * A Deflater holds a few hundred KB of native zlib state, so creating one
+ * per response is expensive. Deflaters, together with their CRC and output
+ * buffer, are instead borrowed from a bounded pool and reset when returned.
+ *
+ * Every compressed body is measured: its compression ratio, the bytes in
+ * and out, and the CPU time spent in the deflater (wall-clock time on
+ * virtual threads, whose CPU time the JVM does not report).
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class GzipCompressor implements DisposableBean {
+
+    public static final String GZIP = "gzip";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int level;
+    private final long minResponseSize;
+    private final List<MediaType> mimeTypes;
+    private final BlockingQueue<Deflation> pool;
+
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final DistributionSummary ratio;
+    private final Timer cpuTime;
+
+    @Autowired
+    public GzipCompressor(CompressionProperties compressionProperties, MeterRegistry meterRegistry) {
+        this.level = compressionProperties.getLevel();
+        this.minResponseSize = compressionProperties.getMinResponseSize().toBytes();
+        this.mimeTypes = compressionProperties.getMimeTypes().stream().map(MediaType::parseMediaType).toList();
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, compressionProperties.getPoolSize()));
+
+        FunctionCounter.builder("devops_compression_bytes_in_total", bytesIn, LongAdder::doubleValue)
+                .description("Response bytes before gzip compression")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("devops_compression_bytes_out_total", bytesOut, LongAdder::doubleValue)
+                .description("Response bytes after gzip compression")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        this.ratio = DistributionSummary.builder("devops_compression_ratio")
+                .description("Uncompressed size divided by compressed size, per response")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        this.cpuTime = Timer.builder("devops_compression_cpu_time")
+                .description("CPU time spent compressing each response")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+    }
+
+    public long getMinResponseSize() {
+        return minResponseSize;
+    }
+
+    /**
+     * Whether responses of this Content-Type are compressed.
+     */
+    public boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return isCompressible(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public boolean isCompressible(MediaType mediaType) {
+        for (MediaType mimeType : mimeTypes) {
+            if (mimeType.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an Accept-Encoding header value allows gzip, i.e. names gzip
+     * or * without q=0.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            int semicolon = coding.indexOf(';');
+            String name = (semicolon < 0 ? coding : coding.substring(0, semicolon)).trim();
+            if (GZIP.equalsIgnoreCase(name) || "*".equals(name)) {
+                return semicolon < 0 || !isZeroQuality(coding.substring(semicolon + 1));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Start a gzip stream writing to out. It must be finished, closed or
+     * discarded so its deflater goes back to the pool.
+     */
+    public PooledGzipOutputStream gzip(OutputStream out) throws IOException {
+        return new PooledGzipOutputStream(this, borrow(), out);
+    }
+
+    /**
+     * Compress a whole body in one go.
+     */
+    public byte[] compress(byte[] body, int offset, int length) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, length / 4));
+        try (PooledGzipOutputStream gzip = gzip(compressed)) {
+            gzip.write(body, offset, length);
+        } catch (IOException e) {
+            // Not thrown by ByteArrayOutputStream
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    public byte[] compress(byte[] body) {
+        return compress(body, 0, body.length);
+    }
+
+    @Override
+    public void destroy() {
+        Deflation deflation;
+        while ((deflation = pool.poll()) != null) {
+            deflation.deflater.end();
+        }
+    }
+
+    Deflation borrow() {
+        Deflation deflation = pool.poll();
+        return deflation != null ? deflation : new Deflation(level);
+    }
+
+    void release(Deflation deflation) {
+        deflation.reset();
+        if (!pool.offer(deflation)) {
+            deflation.deflater.end();
+        }
+    }
+
+    void record(long uncompressed, long compressed, long cpuNanos) {
+        bytesIn.add(uncompressed);
+        bytesOut.add(compressed);
+        if (compressed > 0) {
+            ratio.record((double) uncompressed / compressed);
+        }
+        cpuTime.record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * CPU time of the current thread, or the wall clock where it is not
+     * available. Only differences taken on the same thread are meaningful.
+     */
+    static long threadCpuTime() {
+        long cpu = THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+        return cpu >= 0 ? cpu : System.nanoTime();
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pooled per-stream state.
+     */
+    static final class Deflation {
+
+        final Deflater deflater;
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+
+        Deflation(int level) {
+            // Raw deflate: the gzip header and trailer are written by the stream
+            this.deflater = new Deflater(level, true);
+        }
+
+        void reset() {
+            deflater.reset();
+            crc.reset();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.devops.challenge.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.IdempotencyProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Responses of POST, PUT and DELETE /api requests carrying an
+ * Idempotency-Key, stored so that a retry with the same key, method and URI
+ * from the same client gets the serialized bytes of the first response back
+ * instead of running the handler again ("app.idempotency"). The client is
+ * told apart by its Authorization header, or without one by its address, so
+ * a key guessed or reused by another client never replays this client's
+ * response. A retry whose body differs from the first request's is rejected
+ * (see RequestFingerprint).
+ *
+ * Entries live in a Caffeine cache bounded by the total size of the stored
+ * bodies, whose W-TinyLFU policy only admits a new response in place of
+ * others when its key is likely to be used more often than theirs, so a
+ * burst of one-off keys cannot flush out keys that clients keep retrying.
+ * Entries expire ttl after they were stored. With off-heap enabled the
+ * bodies are held in direct buffers and the garbage collector only sees a
+ * small object per entry.
+ *
+ * A request that finds its key claimed by one still being handled waits
+ * for that request's response rather than computing its own.
+ *
+ * Exported through MetricsService as devops_idempotency_*.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+
+    /** Request header carrying the client's key. */
+    public static final String HEADER = "Idempotency-Key";
+
+    /** Response header set on replayed responses. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /** Longer keys are ignored and the request is handled normally. */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    // Rough size of the cache node, future, response and request fingerprint
+    // per entry, so that many small responses are weighed fairly against the
+    // limit
+    private static final int ENTRY_OVERHEAD = 224;
+
+    /**
+     * What a stored response was computed from: the request's declared
+     * Content-Length (-1 if none) and the SHA-256 of the body bytes its
+     * handler read. A retry is only replayed if the same number of bytes of
+     * its body hash the same.
+     */
+    public record RequestFingerprint(long contentLength, long bytesRead, byte[] sha256) {
+
+        public boolean matches(RequestFingerprint other) {
+            return contentLength == other.contentLength && bytesRead == other.bytesRead
+                    && MessageDigest.isEqual(sha256, other.sha256);
+        }
+    }
+
+    /**
+     * Builds a RequestFingerprint from the body as it is read.
+     */
+    public static final class BodyDigest {
+
+        private final MessageDigest sha256 = sha256();
+        private long bytesRead;
+
+        public void update(byte[] bytes, int offset, int length) {
+            sha256.update(bytes, offset, length);
+            bytesRead += length;
+        }
+
+        public void update(ByteBuffer buffer) {
+            bytesRead += buffer.remaining();
+            sha256.update(buffer);
+        }
+
+        /**
+         * Read up to limit bytes of the stream into the digest.
+         */
+        public void update(InputStream in, long limit) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(8192, Math.max(1, limit))];
+            long remaining = limit;
+            int read;
+            while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+                update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+
+        public RequestFingerprint finish(long contentLength) {
+            return new RequestFingerprint(contentLength, bytesRead, sha256.digest());
+        }
+    }
+
+    /**
+     * A stored response. The body is the serialized response as the handler
+     * wrote it, before compression.
+     */
+    public record StoredResponse(int status, String contentType, ByteBuffer body, RequestFingerprint request) {
+
+        /**
+         * A read-only view of the body.
+         */
+        @Override
+        public ByteBuffer body() {
+            return body.asReadOnlyBuffer();
+        }
+
+        public int size() {
+            return body.capacity();
+        }
+
+        /**
+         * Write the body to the stream, straight from the heap array or
+         * through a channel from a direct buffer.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            if (body.hasArray()) {
+                out.write(body.array(), body.arrayOffset(), body.capacity());
+                return;
+            }
+            ByteBuffer remaining = body.duplicate().clear();
+            WritableByteChannel channel = Channels.newChannel(out);
+            while (remaining.hasRemaining()) {
+                channel.write(remaining);
+            }
+        }
+    }
+
+    private final AsyncCache<String, StoredResponse> cache;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> entries;
+    private final int maxEntrySize;
+    private final Duration waitTimeout;
+    private final boolean offHeap;
+
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter misses;
+    private final Counter notStored;
+    private final Counter mismatched;
+    private final Counter storedBytes;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+
+    @Autowired
+    public IdempotencyCache(IdempotencyProperties idempotencyProperties, MetricsService metricsService) {
+        this.maxEntrySize = (int) Math.min(Integer.MAX_VALUE - ENTRY_OVERHEAD - MAX_KEY_LENGTH * 2,
+                idempotencyProperties.getMaxEntrySize().toBytes());
+        this.waitTimeout = idempotencyProperties.getWaitTimeout();
+        this.offHeap = idempotencyProperties.isOffHeap();
+
+        this.hits = requests(metricsService, "hit");
+        this.coalesced = requests(metricsService, "coalesced");
+        this.misses = requests(metricsService, "miss");
+        this.notStored = metricsService.registerCustomCounter("devops_idempotency_not_stored_total",
+                "Responses not stored: server errors, responses over max-entry-size and failed requests",
+                "service", "devops-challenge");
+        this.mismatched = metricsService.registerCustomCounter("devops_idempotency_mismatched_total",
+                "Retries answered with 422 because their body differs from the first request's",
+                "service", "devops-challenge");
+        this.storedBytes = metricsService.registerCustomCounter("devops_idempotency_stored_bytes_total",
+                "Bytes of response bodies stored", "service", "devops-challenge");
+        this.sizeEvictions = evictions(metricsService, "size");
+        this.expirations = evictions(metricsService, "expired");
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(idempotencyProperties.getMaxSize().toBytes())
+                .weigher((String key, StoredResponse response) -> key.length() * 2 + response.size() + ENTRY_OVERHEAD)
+                .expireAfterWrite(idempotencyProperties.getTtl())
+                .removalListener((String key, StoredResponse response, RemovalCause cause) -> {
+                    if (cause == RemovalCause.EXPIRED) {
+                        expirations.increment();
+                    } else if (cause.wasEvicted()) {
+                        sizeEvictions.increment();
+                    }
+                })
+                .buildAsync();
+        this.entries = cache.asMap();
+
+        metricsService.registerCustomGauge("devops_idempotency_entries", "Responses currently stored",
+                this, IdempotencyCache::getEntryCount, "service", "devops-challenge");
+        metricsService.registerCustomGauge("devops_idempotency_bytes",
+                "Weighed size of the stored responses, keys and per-entry overhead included",
+                this, IdempotencyCache::getWeightedSize, "service", "devops-challenge");
+        logger.info("Idempotency-Key responses cached up to {} ({} storage), for {}",
+                idempotencyProperties.getMaxSize(), offHeap ? "off-heap" : "heap", idempotencyProperties.getTtl());
+    }
+
+    /**
+     * Whether requests with this method are handled through the cache.
+     */
+    public static boolean isIdempotentMethod(String method) {
+        return "POST".equals(method) || "PUT".equals(method) || "DELETE".equals(method);
+    }
+
+    /**
+     * Whether an Idempotency-Key header value is usable as a key.
+     */
+    public static boolean isValidKey(String idempotencyKey) {
+        return idempotencyKey != null && !idempotencyKey.isEmpty() && idempotencyKey.length() <= MAX_KEY_LENGTH;
+    }
+
+    /**
+     * Identifies the client a key belongs to: a hash of its Authorization
+     * header, so that credentials are not kept in the cache, or its address
+     * if it sent none.
+     */
+    public static String client(String authorization, String remoteAddr) {
+        if (authorization != null) {
+            byte[] hash = sha256().digest(authorization.getBytes(StandardCharsets.UTF_8));
+            return "auth:" + HexFormat.of().formatHex(hash, 0, 16);
+        }
+        return "addr:" + remoteAddr;
+    }
+
+    /**
+     * The cache key for a request: the same Idempotency-Key sent to another
+     * method or URI, or by another client, names a different request.
+     */
+    public static String key(String method, String path, String query, String client, String idempotencyKey) {
+        StringBuilder key = new StringBuilder(method.length() + path.length() + client.length()
+                + idempotencyKey.length() + 3 + (query != null ? query.length() + 1 : 0));
+        key.append(method).append(' ').append(path);
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        return key.append(' ').append(client).append(' ').append(idempotencyKey).toString();
+    }
+
+    /**
+     * Claim the key for a request about to be handled.
+     *
+     * Returns null when the caller now owns the key; it must then finish
+     * with store or release. Otherwise returns the response of the request
+     * that owns the key, which may still be in progress. That future
+     * completes with null if the owner releases the key without storing a
+     * response, after which the caller should claim again.
+     */
+    public CompletableFuture<StoredResponse> claim(String key, CompletableFuture<StoredResponse> pending) {
+        CompletableFuture<StoredResponse> existing = entries.putIfAbsent(key, pending);
+        if (existing == null) {
+            misses.increment();
+        } else if (existing.isDone()) {
+            hits.increment();
+        } else {
+            coalesced.increment();
+        }
+        return existing;
+    }
+
+    /**
+     * Store the first length bytes of body as the response for a claimed
+     * key, computed from the given request, and hand it to the requests
+     * waiting for it. Bodies over max-entry-size release the key instead.
+     */
+    public void store(String key, CompletableFuture<StoredResponse> pending, RequestFingerprint request,
+                      int status, String contentType, byte[] body, int length) {
+        if (length > maxEntrySize) {
+            release(key, pending);
+            return;
+        }
+        ByteBuffer stored = offHeap
+                ? ByteBuffer.allocateDirect(length).put(body, 0, length).flip()
+                : ByteBuffer.wrap(Arrays.copyOf(body, length));
+        storedBytes.increment(length);
+        pending.complete(new StoredResponse(status, contentType, stored, request));
+    }
+
+    /**
+     * Whether a stored response may be replayed for a retry with this
+     * fingerprint; a retry that does not match should get a 422.
+     */
+    public boolean matches(StoredResponse stored, RequestFingerprint request) {
+        if (stored.request().matches(request)) {
+            return true;
+        }
+        mismatched.increment();
+        return false;
+    }
+
+    /**
+     * Give up a claimed key without storing a response; a waiting request
+     * then claims it and is handled itself.
+     */
+    public void release(String key, CompletableFuture<StoredResponse> pending) {
+        notStored.increment();
+        entries.remove(key, pending);
+        pending.complete(null);
+    }
+
+    /**
+     * Largest response body stored.
+     */
+    public int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * How long a duplicate waits for the request that owns its key.
+     */
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public long getEntryCount() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public long getWeightedSize() {
+        return cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    /**
+     * Run pending evictions and expirations now rather than on a later
+     * access; for tests.
+     */
+    void cleanUp() {
+        cache.synchronous().cleanUp();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support it
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter requests(MetricsService metricsService, String result) {
+        return metricsService.registerCustomCounter("devops_idempotency_requests_total",
+                "Requests with an Idempotency-Key by outcome: hit (stored response replayed), coalesced "
+                        + "(waited for the request in progress) or miss (handled)",
+                "service", "devops-challenge", "result", result);
+    }
+
+    private static Counter evictions(MetricsService metricsService, String cause) {
+        return metricsService.registerCustomCounter("devops_idempotency_evictions_total",
+                "Stored responses removed to stay within max-size (size) or after their ttl (expired)",
+                "service", "devops-challenge", "cause", cause);
+    }
+}
@@ -0,0 +1,388 @@
+package com.devops.challenge.service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.ProfilingProperties;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * On-demand, in-process JFR profiling ("app.profiling"), driven through
+ * /actuator/profiling.
+ *
+ * A recording uses the low-overhead settings in jfr/api-profile.jfc and is
+ * bounded in duration and disk size. While it runs its events are streamed
+ * into running totals, so a summary (hottest methods, top allocating frames,
+ * lock contention, /api request and stage latency) can be read at any time
+ * without parsing a recording file. When it stops the raw recording is also
+ * written to the dump directory for JDK Mission Control.
+ *
+ * Only one recording runs at a time.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.profiling", name = "enabled", havingValue = "true")
+public class JfrProfiler implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrProfiler.class);
+
+    static final String SETTINGS = "/jfr/api-profile.jfc";
+
+    // Distinct frames or locks tracked per ranking; further ones are ignored
+    private static final int MAX_KEYS = 10_000;
+
+    private static final DateTimeFormatter DUMP_NAME =
+            DateTimeFormatter.ofPattern("'api-profile-'yyyyMMdd'T'HHmmssSSS'.jfr'").withZone(ZoneOffset.UTC);
+
+    /**
+     * What a recording has seen so far. Times are in milliseconds, except
+     * the recording's own duration and elapsed time, in seconds.
+     */
+    public record ProfileSummary(boolean running, Instant startedAt, long durationSeconds, double elapsedSeconds,
+                                 String dumpFile, long executionSamples, List<Method> hottestMethods,
+                                 List<Allocation> topAllocations, List<Contention> lockContention,
+                                 Map<String, Latency> requests, Map<String, Latency> stages, Latency gcPauses) {
+
+        /** A frame at the top of the stack in this share of execution samples. */
+        public record Method(String frame, long samples, double percent) {
+        }
+
+        /** A frame that allocated this many (sampled, estimated) bytes. */
+        public record Allocation(String frame, long bytes) {
+        }
+
+        /** A monitor or lock class that threads blocked on. */
+        public record Contention(String lockClass, long waits, double totalMillis) {
+        }
+
+        public record Latency(long count, double meanMillis, double maxMillis) {
+        }
+    }
+
+    private final ProfilingProperties properties;
+    private final Configuration settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private RecordingStream stream;
+    private Profile profile;
+
+    @Autowired
+    public JfrProfiler(ProfilingProperties profilingProperties) {
+        this.properties = profilingProperties;
+        this.settings = loadSettings();
+        FlightRecorder.register(ApiRequestEvent.class);
+        FlightRecorder.register(ApiStageEvent.class);
+    }
+
+    /**
+     * Start a recording for the given duration, capped at max-duration.
+     *
+     * @throws IllegalStateException if a recording is already running
+     */
+    public ProfileSummary start(Duration duration) {
+        Duration bounded = duration == null || duration.isZero() || duration.isNegative()
+                ? properties.getDefaultDuration() : duration;
+        if (bounded.compareTo(properties.getMaxDuration()) > 0) {
+            bounded = properties.getMaxDuration();
+        }
+
+        lock.lock();
+        try {
+            if (stream != null) {
+                throw new IllegalStateException("A profiling recording is already running");
+            }
+            Profile started = new Profile(Instant.now(), bounded);
+            RecordingStream recording = new RecordingStream(settings);
+            recording.setMaxSize(properties.getMaxSize().toBytes());
+            recording.setMaxAge(bounded);
+            recording.onEvent("jdk.ExecutionSample", started::onExecutionSample);
+            recording.onEvent("jdk.ObjectAllocationSample", started::onAllocationSample);
+            recording.onEvent("jdk.JavaMonitorEnter", started::onMonitorEnter);
+            recording.onEvent("jdk.ThreadPark", started::onThreadPark);
+            recording.onEvent("jdk.GCPhasePause", started::onGcPause);
+            recording.onEvent("com.devops.challenge.ApiRequest", started::onApiRequest);
+            recording.onEvent("com.devops.challenge.ApiStage", started::onApiStage);
+            recording.startAsync();
+
+            stream = recording;
+            profile = started;
+            CompletableFuture.delayedExecutor(bounded.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> stop(started));
+            logger.info("Profiling recording started for {}", bounded);
+            return started.summary(true, properties.getTopEntries());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the running recording, write it to the dump directory and return
+     * its final summary. Returns the previous summary (or null) when no
+     * recording is running.
+     */
+    public ProfileSummary stop() {
+        lock.lock();
+        try {
+            return profile != null ? stop(profile) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Summary of the running recording so far, or of the last one.
+     */
+    public ProfileSummary summary() {
+        lock.lock();
+        try {
+            return profile != null ? profile.summary(stream != null, properties.getTopEntries()) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return stream != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        lock.lock();
+        try {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProfileSummary stop(Profile target) {
+        lock.lock();
+        try {
+            if (profile != target || stream == null) {
+                // Already stopped, or a later recording is running
+                return target.summary(false, properties.getTopEntries());
+            }
+            // Waits until every recorded event has been handed to the handlers
+            stream.stop();
+            try {
+                Path dump = Path.of(properties.getDumpDirectory()).resolve(DUMP_NAME.format(target.startedAt));
+                Files.createDirectories(dump.getParent());
+                stream.dump(dump);
+                target.dumpFile = dump.toString();
+            } catch (IOException e) {
+                logger.warn("Failed to write profiling recording", e);
+            }
+            stream.close();
+            stream = null;
+            target.stoppedAt = Instant.now();
+            logger.info("Profiling recording stopped{}",
+                    target.dumpFile != null ? ", written to " + target.dumpFile : "");
+            return target.summary(false, properties.getTopEntries());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Configuration loadSettings() {
+        try (Reader reader = new InputStreamReader(JfrProfiler.class.getResourceAsStream(SETTINGS),
+                StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR settings " + SETTINGS, e);
+        }
+    }
+
+    /**
+     * Running totals of one recording, updated by the stream's thread and
+     * read by summary().
+     */
+    private static final class Profile {
+
+        final Instant startedAt;
+        final Duration duration;
+        volatile Instant stoppedAt;
+        volatile String dumpFile;
+
+        final Map<String, LongAdder> executionSamples = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> allocatedBytes = new ConcurrentHashMap<>();
+        final Map<String, Totals> lockWaits = new ConcurrentHashMap<>();
+        final Map<String, Totals> requests = new ConcurrentHashMap<>();
+        final Map<String, Totals> stages = new ConcurrentHashMap<>();
+        final Totals gcPauses = new Totals();
+        final LongAdder totalExecutionSamples = new LongAdder();
+
+        Profile(Instant startedAt, Duration duration) {
+            this.startedAt = startedAt;
+            this.duration = duration;
+        }
+
+        void onExecutionSample(RecordedEvent event) {
+            totalExecutionSamples.increment();
+            add(executionSamples, topFrame(event.getStackTrace()), 1);
+        }
+
+        void onAllocationSample(RecordedEvent event) {
+            add(allocatedBytes, topFrame(event.getStackTrace()), event.getLong("weight"));
+        }
+
+        void onMonitorEnter(RecordedEvent event) {
+            RecordedClass monitorClass = event.getClass("monitorClass");
+            record(lockWaits, monitorClass != null ? monitorClass.getName() : "unknown", event.getDuration());
+        }
+
+        void onThreadPark(RecordedEvent event) {
+            // Parking on a lock; threads idling on a condition (pool queues
+            // waiting for work) or without a blocker are not contention
+            RecordedClass parkedClass = event.getClass("parkedClass");
+            if (parkedClass != null && !parkedClass.getName().endsWith("$ConditionObject")) {
+                record(lockWaits, parkedClass.getName(), event.getDuration());
+            }
+        }
+
+        void onGcPause(RecordedEvent event) {
+            gcPauses.add(event.getDuration().toNanos());
+        }
+
+        void onApiRequest(RecordedEvent event) {
+            record(requests, event.getString("method"), event.getDuration());
+        }
+
+        void onApiStage(RecordedEvent event) {
+            record(stages, event.getString("stage"), Duration.ofNanos(event.getLong("stageDuration")));
+        }
+
+        ProfileSummary summary(boolean running, int topEntries) {
+            Instant end = stoppedAt != null ? stoppedAt : Instant.now();
+            long samples = Math.max(1, totalExecutionSamples.sum());
+
+            List<ProfileSummary.Method> hottest = top(executionSamples, topEntries).stream()
+                    .map(entry -> new ProfileSummary.Method(entry.getKey(), entry.getValue().sum(),
+                            100.0 * entry.getValue().sum() / samples))
+                    .toList();
+            List<ProfileSummary.Allocation> allocations = top(allocatedBytes, topEntries).stream()
+                    .map(entry -> new ProfileSummary.Allocation(entry.getKey(), entry.getValue().sum()))
+                    .toList();
+            List<ProfileSummary.Contention> contention = lockWaits.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, Totals> entry) -> entry.getValue().totalNanos.sum())
+                            .reversed())
+                    .limit(topEntries)
+                    .map(entry -> new ProfileSummary.Contention(entry.getKey(), entry.getValue().count.sum(),
+                            entry.getValue().totalNanos.sum() / 1e6))
+                    .toList();
+
+            return new ProfileSummary(running, startedAt, duration.toSeconds(),
+                    Duration.between(startedAt, end).toMillis() / 1000.0, dumpFile,
+                    totalExecutionSamples.sum(), hottest, allocations, contention,
+                    latencies(requests), latencies(stages), gcPauses.latency());
+        }
+
+        private static void add(Map<String, LongAdder> totals, String key, long amount) {
+            LongAdder total = totals.get(key);
+            if (total == null) {
+                if (totals.size() >= MAX_KEYS) {
+                    return;
+                }
+                total = totals.computeIfAbsent(key, k -> new LongAdder());
+            }
+            total.add(amount);
+        }
+
+        private static void record(Map<String, Totals> totals, String key, Duration duration) {
+            Totals total = totals.get(key);
+            if (total == null) {
+                if (totals.size() >= MAX_KEYS) {
+                    return;
+                }
+                total = totals.computeIfAbsent(key, k -> new Totals());
+            }
+            total.add(duration.toNanos());
+        }
+
+        private static List<Map.Entry<String, LongAdder>> top(Map<String, LongAdder> totals, int limit) {
+            return totals.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum())
+                            .reversed())
+                    .limit(limit)
+                    .toList();
+        }
+
+        private static Map<String, ProfileSummary.Latency> latencies(Map<String, Totals> totals) {
+            Map<String, ProfileSummary.Latency> latencies = new LinkedHashMap<>();
+            totals.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> latencies.put(entry.getKey(), entry.getValue().latency()));
+            return latencies;
+        }
+
+        private static String topFrame(RecordedStackTrace stackTrace) {
+            if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+                return "unknown";
+            }
+            RecordedFrame frame = stackTrace.getFrames().get(0);
+            String location = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+            return frame.getLineNumber() > 0 ? location + ":" + frame.getLineNumber() : location;
+        }
+    }
+
+    private static final class Totals {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        ProfileSummary.Latency latency() {
+            long n = count.sum();
+            return new ProfileSummary.Latency(n, n > 0 ? totalNanos.sum() / 1e6 / n : 0, maxNanos.get() / 1e6);
+        }
+    }
+}
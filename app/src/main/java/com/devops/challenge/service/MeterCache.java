@@ -0,0 +1,234 @@
+package com.devops.challenge.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.devops.challenge.config.MetricsProperties.CustomMeters;
+import com.devops.challenge.config.MetricsProperties.CustomMeters.OverflowPolicy;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded cache of the meters registered through MetricsService's custom
+ * counter and timer factories, keyed by meter type, name and tags.
+ *
+ * A lookup hashes the key in place to pick one of a fixed set of stripes and
+ * scans that stripe's copy-on-write entry array, so hits take no lock and
+ * allocate nothing. Misses register the meter under the stripe's lock. Once
+ * the configured number of series exists, new series are either denied or
+ * make room by removing the oldest series from the registry.
+ */
+final class MeterCache {
+
+    private static final int STRIPES = 64;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    /**
+     * Registers a meter on a miss. Implementations should be non-capturing
+     * (e.g. a static method reference) so a cache hit allocates nothing.
+     */
+    @FunctionalInterface
+    interface Registrar {
+        Meter register(MeterRegistry registry, String name, String description, String[] tags);
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxSeries;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    MeterCache(MeterRegistry meterRegistry, CustomMeters properties) {
+        this.meterRegistry = meterRegistry;
+        this.maxSeries = properties.getMaxSeries();
+        this.overflowPolicy = properties.getOverflowPolicy();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        FunctionCounter.builder("devops_metrics_meter_cache_hits_total", hits, LongAdder::doubleValue)
+                .description("Custom meter lookups served from the cache")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("devops_metrics_meter_cache_misses_total", misses, LongAdder::doubleValue)
+                .description("Custom meter lookups that registered a new series")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("devops_metrics_meter_cache_rejected_total", rejected, LongAdder::doubleValue)
+                .description("New custom series rejected because the series limit was reached")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("devops_metrics_meter_cache_evictions_total", evictions, LongAdder::doubleValue)
+                .description("Custom series removed to make room for new ones")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        Gauge.builder("devops_metrics_meter_cache_series", size, AtomicInteger::get)
+                .description("Number of custom series currently registered")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the meter registered for the given key, registering it on the
+     * first call. Tags are read in name/value pairs; a trailing unpaired
+     * element is ignored. Returns null when the series is rejected.
+     */
+    Meter getOrRegister(Meter.Type type, String name, String description, String[] tags, Registrar registrar) {
+        int hash = hash(type, name, tags);
+        Stripe stripe = stripes[hash & (STRIPES - 1)];
+
+        Entry entry = find(stripe.entries, hash, type, name, tags);
+        if (entry != null) {
+            hits.increment();
+            return entry.meter;
+        }
+        return register(stripe, hash, type, name, description, tags, registrar);
+    }
+
+    private Meter register(Stripe stripe, int hash, Meter.Type type, String name, String description,
+                           String[] tags, Registrar registrar) {
+        while (true) {
+            stripe.lock.lock();
+            try {
+                Entry entry = find(stripe.entries, hash, type, name, tags);
+                if (entry != null) {
+                    hits.increment();
+                    return entry.meter;
+                }
+
+                if (size.incrementAndGet() <= maxSeries) {
+                    Meter meter;
+                    try {
+                        meter = registrar.register(meterRegistry, name, description, tags);
+                    } catch (RuntimeException e) {
+                        size.decrementAndGet();
+                        throw e;
+                    }
+                    entry = new Entry(stripe, hash, type, name, Arrays.copyOf(tags, pairedLength(tags)), meter);
+                    stripe.entries = append(stripe.entries, entry);
+                    insertionOrder.add(entry);
+                    misses.increment();
+                    return meter;
+                }
+                size.decrementAndGet();
+
+                if (overflowPolicy == OverflowPolicy.DENY) {
+                    rejected.increment();
+                    return null;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+
+            // Evict outside this stripe's lock, since the oldest entry may
+            // live in another stripe, then retry
+            if (!evictOldest()) {
+                rejected.increment();
+                return null;
+            }
+        }
+    }
+
+    private boolean evictOldest() {
+        Entry oldest = insertionOrder.poll();
+        if (oldest == null) {
+            return false;
+        }
+
+        Stripe stripe = oldest.stripe;
+        stripe.lock.lock();
+        try {
+            stripe.entries = remove(stripe.entries, oldest);
+        } finally {
+            stripe.lock.unlock();
+        }
+        size.decrementAndGet();
+        meterRegistry.remove(oldest.meter);
+        evictions.increment();
+        return true;
+    }
+
+    private static Entry find(Entry[] entries, int hash, Meter.Type type, String name, String[] tags) {
+        for (Entry entry : entries) {
+            if (entry.hash == hash && entry.type == type && entry.name.equals(name)
+                    && Arrays.equals(entry.tags, 0, entry.tags.length, tags, 0, pairedLength(tags))) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static int hash(Meter.Type type, String name, String[] tags) {
+        int h = 31 * type.ordinal() + name.hashCode();
+        for (int i = 0, length = pairedLength(tags); i < length; i++) {
+            h = 31 * h + Objects.hashCode(tags[i]);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int pairedLength(String[] tags) {
+        return tags.length & ~1;
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+        copy[entries.length] = entry;
+        return copy;
+    }
+
+    private static Entry[] remove(Entry[] entries, Entry entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == entry) {
+                Entry[] copy = new Entry[entries.length - 1];
+                System.arraycopy(entries, 0, copy, 0, i);
+                System.arraycopy(entries, i + 1, copy, i, entries.length - i - 1);
+                return copy;
+            }
+        }
+        return entries;
+    }
+
+    private static final class Stripe {
+        // ReentrantLock rather than synchronized so a registering virtual
+        // thread does not pin its carrier
+        final ReentrantLock lock = new ReentrantLock();
+        volatile Entry[] entries = NO_ENTRIES;
+    }
+
+    private static final class Entry {
+        final Stripe stripe;
+        final int hash;
+        final Meter.Type type;
+        final String name;
+        final String[] tags;
+        final Meter meter;
+
+        Entry(Stripe stripe, int hash, Meter.Type type, String name, String[] tags, Meter meter) {
+            this.stripe = stripe;
+            this.hash = hash;
+            this.type = type;
+            this.name = name;
+            this.tags = tags;
+            this.meter = meter;
+        }
+    }
+}
@@ -1,51 +1,127 @@
 package com.devops.challenge.service;
 
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.devops.challenge.config.MetricsProperties;
+
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.noop.NoopCounter;
+import io.micrometer.core.instrument.noop.NoopTimer;
 
 @Service
-public class MetricsService {
+public class MetricsService implements DisposableBean {
     
     private static final Logger logger = LoggerFactory.getLogger(MetricsService.class);
     
+    private static final ApiMethod[] API_METHODS = ApiMethod.values();
+    
+    private static final long START_TIME_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+    
+    // Handed out for custom series rejected by the series limit; never
+    // registered, so the ids only name them when debugging
+    private static final Counter REJECTED_COUNTER = new NoopCounter(new Meter.Id(
+            "devops_metrics_rejected_series_noop_counter", Tags.empty(), null, null, Meter.Type.COUNTER));
+    private static final Timer REJECTED_TIMER = new NoopTimer(new Meter.Id(
+            "devops_metrics_rejected_series_noop_timer", Tags.empty(), null, null, Meter.Type.TIMER));
+    
     private final MeterRegistry meterRegistry;
-    private final Counter apiCallsCounter;
     private final Counter errorCounter;
-    private final Timer responseTimer;
-    private final AtomicLong activeConnections;
-    private final AtomicLong totalRequests;
+    private final LongAdder activeConnections;
+    private final AtomicLong activeConnectionsHighWaterMark;
+    private final Timer queueWaitTimer;
+    private final MeterCache customMeters;
+    
+    // Per-method meters, resolved once and indexed by ApiMethod.ordinal()
+    private final LongAdder[] apiCalls;
+    private final Timer[] responseTimers;
+    
+    // Null when app.metrics.batching is disabled
+    private final ApiCallBatcher apiCallBatcher;
+    private final ScheduledExecutorService apiCallFlusher;
     
     @Autowired
-    public MetricsService(MeterRegistry meterRegistry) {
+    public MetricsService(MeterRegistry meterRegistry, MetricsProperties metricsProperties) {
         this.meterRegistry = meterRegistry;
-        this.activeConnections = new AtomicLong(0);
-        this.totalRequests = new AtomicLong(0);
+        this.activeConnections = new LongAdder();
+        this.activeConnectionsHighWaterMark = new AtomicLong();
+        this.customMeters = new MeterCache(meterRegistry, metricsProperties.getCustomMeters());
+        this.apiCalls = new LongAdder[API_METHODS.length];
+        this.responseTimers = new Timer[API_METHODS.length];
         
         // Initialize custom metrics
-        this.apiCallsCounter = Counter.builder("devops_api_calls_total")
+        for (ApiMethod method : API_METHODS) {
+            LongAdder calls = new LongAdder();
+            apiCalls[method.ordinal()] = calls;
+            
+            FunctionCounter.builder("devops_api_requests_total", calls, LongAdder::doubleValue)
+                    .description("Total number of API calls by HTTP method")
+                    .tag("service", "devops-challenge")
+                    .tag("method", method.name())
+                    .register(meterRegistry);
+                    
+            responseTimers[method.ordinal()] = Timer.builder("devops_api_response_time")
+                    .description("Response time for API calls")
+                    .tag("service", "devops-challenge")
+                    .tag("method", method.name())
+                    .register(meterRegistry);
+            
+            // Pre-existing per-method counter names, kept for dashboards
+            if (method.isEcho()) {
+                FunctionCounter.builder(method.legacyCounterName(), calls, LongAdder::doubleValue)
+                        .description("Total number of " + method.name() + " requests")
+                        .register(meterRegistry);
+            }
+        }
+        
+        // Pre-existing aggregate counter names, derived from the per-method counts
+        FunctionCounter.builder("api_calls_total", this, MetricsService::getTotalApiCalls)
+                .description("Total number of API calls")
+                .register(meterRegistry);
+                
+        FunctionCounter.builder("devops_api_calls_total", this, MetricsService::getTotalApiCalls)
                 .description("Total number of API calls made to the service")
                 .tag("service", "devops-challenge")
                 .register(meterRegistry);
                 
+        MetricsProperties.Batching batching = metricsProperties.getBatching();
+        if (batching.isEnabled()) {
+            long maxDelayNanos = Math.max(1, batching.getMaxDelay().toNanos());
+            this.apiCallBatcher = new ApiCallBatcher(apiCalls, responseTimers, batching.getBatchSize(), maxDelayNanos);
+            // A buffer is otherwise only drained by its own threads' next call
+            // or by a scrape, so calls on a stripe gone idle would wait for
+            // either one: publish them every max-delay in the background
+            this.apiCallFlusher = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("api-call-flusher").daemon().factory());
+            apiCallFlusher.scheduleAtFixedRate(apiCallBatcher::flush, maxDelayNanos, maxDelayNanos,
+                    TimeUnit.NANOSECONDS);
+        } else {
+            this.apiCallBatcher = null;
+            this.apiCallFlusher = null;
+        }
+                
         this.errorCounter = Counter.builder("devops_api_errors_total")
                 .description("Total number of API errors")
                 .tag("service", "devops-challenge")
                 .register(meterRegistry);
-                
-        this.responseTimer = Timer.builder("devops_api_response_time")
-                .description("Response time for API calls")
-                .tag("service", "devops-challenge")
-                .register(meterRegistry);
         
         // Register gauges
         Gauge.builder("devops_api_active_connections", this, MetricsService::getActiveConnections)
@@ -53,6 +129,16 @@ public class MetricsService {
                 .tag("service", "devops-challenge")
                 .register(meterRegistry);
                 
+        Gauge.builder("devops_api_active_connections_max", this, MetricsService::getAndResetActiveConnectionsHighWaterMark)
+                .description("Highest number of active connections since the gauge was last read (i.e. per scrape)")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+                
+        this.queueWaitTimer = Timer.builder("devops_api_queue_wait")
+                .description("Time dispatched requests wait for a request-handling thread")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+                
         Gauge.builder("devops_api_total_requests", this, MetricsService::getTotalRequests)
                 .description("Total number of requests processed")
                 .tag("service", "devops-challenge")
@@ -67,72 +153,184 @@ public class MetricsService {
     }
     
     /**
-     * Increment the API calls counter
+     * Record a completed API call: counts it and records its response time.
+     * This is on every request's path, so it only touches pre-resolved meters,
+     * or with batching enabled only buffers the call; see flushApiCalls.
      */
-    public void incrementApiCalls() {
-        apiCallsCounter.increment();
-        totalRequests.incrementAndGet();
-        logger.debug("API calls counter incremented");
+    public void recordApiCall(ApiMethod method, long durationNanos) {
+        int index = method.ordinal();
+        if (apiCallBatcher != null) {
+            apiCallBatcher.record(index, durationNanos);
+        } else {
+            apiCalls[index].increment();
+            responseTimers[index].record(durationNanos, TimeUnit.NANOSECONDS);
+        }
     }
     
     /**
-     * Increment the error counter
+     * Write API calls still buffered by batching into the request counters
+     * and response timers. Called before every Prometheus scrape; anything
+     * else reading those meters directly should call it first.
      */
-    public void incrementErrors() {
-        errorCounter.increment();
-        logger.debug("Error counter incremented");
+    public void flushApiCalls() {
+        if (apiCallBatcher != null) {
+            apiCallBatcher.flush();
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        if (apiCallFlusher != null) {
+            apiCallFlusher.shutdownNow();
+            apiCallBatcher.flush();
+        }
     }
     
     /**
-     * Record response time
+     * Response time timer for the given method. Calls buffered by batching
+     * are not in it until flushApiCalls.
      */
-    public void recordResponseTime(long milliseconds) {
-        responseTimer.record(milliseconds, java.util.concurrent.TimeUnit.MILLISECONDS);
-        logger.debug("Response time recorded: {} ms", milliseconds);
+    public Timer getResponseTimer(ApiMethod method) {
+        return responseTimers[method.ordinal()];
+    }
+    
+    /**
+     * Increment the error counter
+     */
+    public void incrementErrors() {
+        errorCounter.increment();
+        logger.debug("Error counter incremented");
     }
     
     /**
      * Increment active connections
      */
     public void incrementActiveConnections() {
-        activeConnections.incrementAndGet();
-        logger.debug("Active connections incremented: {}", activeConnections.get());
+        activeConnections.increment();
+        
+        // The high-water mark is only written when it actually moves
+        long current = activeConnections.sum();
+        if (current > activeConnectionsHighWaterMark.get()) {
+            activeConnectionsHighWaterMark.accumulateAndGet(current, Math::max);
+        }
     }
     
     /**
      * Decrement active connections
      */
     public void decrementActiveConnections() {
-        activeConnections.decrementAndGet();
-        logger.debug("Active connections decremented: {}", activeConnections.get());
+        activeConnections.decrement();
     }
     
     /**
      * Get current active connections count
      */
     public long getActiveConnections() {
-        return activeConnections.get();
+        return activeConnections.sum();
+    }
+    
+    /**
+     * Highest active connections count since the previous call, which then
+     * starts over from the current count. Backs a gauge, so every read of
+     * that gauge (normally one per Prometheus scrape) starts a new interval.
+     */
+    long getAndResetActiveConnectionsHighWaterMark() {
+        long current = activeConnections.sum();
+        return Math.max(activeConnectionsHighWaterMark.getAndSet(current), current);
+    }
+    
+    /**
+     * Record how long a request waited to be picked up by a request-handling thread
+     */
+    public void recordQueueWait(long waitNanos) {
+        queueWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Timer of the waits recorded by recordQueueWait.
+     */
+    public Timer getQueueWaitTimer() {
+        return queueWaitTimer;
     }
     
     /**
      * Get total requests count
      */
     public long getTotalRequests() {
-        return totalRequests.get();
+        flushApiCalls();
+        long total = 0;
+        for (LongAdder calls : apiCalls) {
+            total += calls.sum();
+        }
+        return total;
+    }
+    
+    private double getTotalApiCalls() {
+        return getTotalRequests();
     }
     
     /**
-     * Get application uptime in seconds
+     * Get application uptime in seconds, i.e. since the JVM started
      */
     public double getUptimeSeconds() {
-        // This is a simple implementation - in a real app, you'd track the start time
-        return System.currentTimeMillis() / 1000.0;
+        return (System.currentTimeMillis() - START_TIME_MILLIS) / 1000.0;
     }
     
     /**
-     * Create a custom counter with tags
+     * Create a custom counter with tags. Counters are cached by name and tags,
+     * so repeated calls return the same instance; once the custom series
+     * limit is reached a no-op counter may be returned instead. With the
+     * evict overflow policy a counter may also be removed later on, so call
+     * this for each increment rather than holding on to the result; a
+     * component that holds its counters should use registerCustomCounter.
      */
     public Counter createCustomCounter(String name, String description, String... tags) {
+        Meter meter = customMeters.getOrRegister(Meter.Type.COUNTER, name, description, tags,
+                MetricsService::registerCounter);
+        return meter != null ? (Counter) meter : REJECTED_COUNTER;
+    }
+    
+    /**
+     * Create a custom timer with tags. Cached and limited like
+     * createCustomCounter.
+     */
+    public Timer createCustomTimer(String name, String description, String... tags) {
+        Meter meter = customMeters.getOrRegister(Meter.Type.TIMER, name, description, tags,
+                MetricsService::registerTimer);
+        return meter != null ? (Timer) meter : REJECTED_TIMER;
+    }
+    
+    /**
+     * Register a counter with tags for a component to hold on to. Like
+     * gauges, such counters are neither cached nor limited, and so never
+     * evicted: register each one once, from the component's constructor.
+     */
+    public Counter registerCustomCounter(String name, String description, String... tags) {
+        return registerCounter(meterRegistry, name, description, tags);
+    }
+    
+    /**
+     * Register a gauge with tags that reads its value from obj. Unlike custom
+     * counters and timers, gauges are neither cached nor limited: register
+     * each one once, typically from the constructor of the component it
+     * reports on.
+     */
+    public <T> void registerCustomGauge(String name, String description, T obj, ToDoubleFunction<T> value,
+                                        String... tags) {
+        Gauge.Builder<T> builder = Gauge.builder(name, obj, value).description(description);
+        
+        // Add tags in pairs
+        for (int i = 0; i < tags.length; i += 2) {
+            if (i + 1 < tags.length) {
+                builder.tag(tags[i], tags[i + 1]);
+            }
+        }
+        
+        builder.register(meterRegistry);
+    }
+    
+    private static Counter registerCounter(MeterRegistry meterRegistry, String name, String description,
+                                           String[] tags) {
         Counter.Builder builder = Counter.builder(name).description(description);
         
         // Add tags in pairs
@@ -145,10 +343,8 @@ public class MetricsService {
         return builder.register(meterRegistry);
     }
     
-    /**
-     * Create a custom timer with tags
-     */
-    public Timer createCustomTimer(String name, String description, String... tags) {
+    private static Timer registerTimer(MeterRegistry meterRegistry, String name, String description,
+                                       String[] tags) {
         Timer.Builder builder = Timer.builder(name).description(description);
         
         // Add tags in pairs
@@ -165,11 +361,12 @@ public class MetricsService {
      * Get metrics summary
      */
     public MetricsSummary getMetricsSummary() {
+        long totalRequests = getTotalRequests();
         return new MetricsSummary(
-            apiCallsCounter.count(),
+            totalRequests,
             errorCounter.count(),
-            activeConnections.get(),
-            totalRequests.get(),
+            activeConnections.sum(),
+            totalRequests,
             LocalDateTime.now()
         );
     }
@@ -0,0 +1,28 @@
+package com.devops.challenge.service;
+
+import java.util.Locale;
+
+/**
+ * Stages of an /api request timed by StageTimers. The ordinal indexes the
+ * per-stage timers.
+ */
+public enum PipelineStage {
+    /**
+     * Capturing the request headers for the response. HeaderView reads them
+     * lazily, so most of their cost shows up in SERIALIZE_RESPONSE.
+     */
+    EXTRACT_HEADERS,
+    /** Parsing the request body as JSON, falling back to the raw text. */
+    PARSE_BODY,
+    /** Building the ApiResponse, including PARSE_BODY. */
+    BUILD_RESPONSE,
+    /** Serializing the ApiResponse to JSON, including writing the echoed headers. */
+    SERIALIZE_RESPONSE;
+
+    /**
+     * Value of the stage tag, e.g. parse_body.
+     */
+    public String tagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,154 @@
+package com.devops.challenge.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip stream (RFC 1952) over a deflater borrowed from GzipCompressor's
+ * pool. Unlike java.util.zip.GZIPOutputStream it never creates a deflater
+ * of its own, and it hands the borrowed one back once finished.
+ *
+ * flush() emits everything written so far as a complete deflate block, so
+ * a client can decode it before the stream ends. Not thread-safe.
+ */
+public final class PooledGzipOutputStream extends OutputStream {
+
+    private static final byte[] HEADER = {
+        0x1f, (byte) 0x8b, // magic
+        Deflater.DEFLATED, // compression method
+        0,                 // flags
+        0, 0, 0, 0,        // modification time
+        0,                 // extra flags
+        (byte) 0xff        // operating system: unknown
+    };
+
+    private final GzipCompressor compressor;
+    private final OutputStream out;
+    private GzipCompressor.Deflation deflation;
+
+    private long bytesOut;
+    private long cpuNanos;
+
+    PooledGzipOutputStream(GzipCompressor compressor, GzipCompressor.Deflation deflation, OutputStream out)
+            throws IOException {
+        this.compressor = compressor;
+        this.deflation = deflation;
+        this.out = out;
+        try {
+            out.write(HEADER);
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
+        bytesOut = HEADER.length;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        GzipCompressor.Deflation current = open();
+        long start = GzipCompressor.threadCpuTime();
+        try {
+            current.crc.update(b, off, len);
+            current.deflater.setInput(b, off, len);
+            while (!current.deflater.needsInput()) {
+                deflate(current, Deflater.NO_FLUSH);
+            }
+        } finally {
+            cpuNanos += GzipCompressor.threadCpuTime() - start;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (deflation != null) {
+            long start = GzipCompressor.threadCpuTime();
+            try {
+                int written;
+                do {
+                    written = deflate(deflation, Deflater.SYNC_FLUSH);
+                } while (written == deflation.buffer.length);
+            } finally {
+                cpuNanos += GzipCompressor.threadCpuTime() - start;
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Write the remaining compressed data and the gzip trailer, and return
+     * the deflater to the pool. The underlying stream is left open.
+     */
+    public void finish() throws IOException {
+        if (deflation == null) {
+            return;
+        }
+        GzipCompressor.Deflation current = deflation;
+        long start = GzipCompressor.threadCpuTime();
+        try {
+            current.deflater.finish();
+            while (!current.deflater.finished()) {
+                deflate(current, Deflater.NO_FLUSH);
+            }
+            cpuNanos += GzipCompressor.threadCpuTime() - start;
+
+            int crc = (int) current.crc.getValue();
+            int size = (int) current.deflater.getBytesRead();
+            out.write(new byte[] {
+                (byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24),
+                (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+            });
+            bytesOut += 8;
+            compressor.record(current.deflater.getBytesRead(), bytesOut, cpuNanos);
+        } finally {
+            discard();
+        }
+    }
+
+    /**
+     * Return the deflater to the pool without completing the stream, e.g.
+     * when the response failed part way.
+     */
+    public void discard() {
+        if (deflation != null) {
+            compressor.release(deflation);
+            deflation = null;
+        }
+    }
+
+    /**
+     * Finish the stream, then close the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private GzipCompressor.Deflation open() throws IOException {
+        if (deflation == null) {
+            throw new IOException("Gzip stream already finished");
+        }
+        return deflation;
+    }
+
+    private int deflate(GzipCompressor.Deflation current, int flush) throws IOException {
+        int written = current.deflater.deflate(current.buffer, 0, current.buffer.length, flush);
+        if (written > 0) {
+            out.write(current.buffer, 0, written);
+            bytesOut += written;
+        }
+        return written;
+    }
+}
@@ -0,0 +1,277 @@
+package com.devops.challenge.service;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.MetricsProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * JVM runtime statistics sampled on a fixed cadence
+ * ("app.metrics.runtime-stats") and exported as devops_runtime_*.
+ *
+ * Some of the underlying MXBean calls walk every thread or buffer pool, so
+ * a background thread collects them all into an immutable snapshot every
+ * interval and the gauges only read that snapshot; a scrape never calls an
+ * MXBean itself.
+ *
+ * GC pauses, safepoints and virtual thread starts and ends are not
+ * available from JMX. With "jfr" enabled they are streamed from an
+ * in-process JFR recording and folded into the next snapshot; otherwise
+ * those gauges stay at zero. Virtual thread events additionally need
+ * "virtual-threads": in the virtual execution mode they are two events per
+ * request, so the live virtual thread gauge is off by default.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.metrics.runtime-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RuntimeStatsSampler implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeStatsSampler.class);
+
+    /** GC pause percentiles cover the pauses of this last stretch of time. */
+    static final Duration GC_PAUSE_WINDOW = Duration.ofMinutes(1);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Values of one sample. Times are in seconds, sizes in bytes.
+     */
+    record Snapshot(double uptimeSeconds, double gcPauseP50, double gcPauseP99, double gcPauseMax,
+                    double allocationRate, double safepointSeconds, long safepoints,
+                    long platformThreads, long virtualThreads,
+                    long directBufferCount, long directBufferUsed, long directBufferCapacity,
+                    double sampleSeconds) {
+    }
+
+    private final BufferPoolMXBean directBufferPool;
+    private final RecordingStream recording;
+    private final ScheduledExecutorService scheduler;
+
+    // Written by the JFR stream thread
+    private final ConcurrentLinkedQueue<Long> newGcPauses = new ConcurrentLinkedQueue<>();
+    private final LongAdder safepointNanos = new LongAdder();
+    private final LongAdder safepointCount = new LongAdder();
+    private final LongAdder virtualThreadsStarted = new LongAdder();
+    private final LongAdder virtualThreadsEnded = new LongAdder();
+    private long safepointId = -1;
+    private Instant safepointStart;
+
+    // Only used by the sampling thread
+    private final ArrayDeque<long[]> gcPauses = new ArrayDeque<>();
+    private long lastAllocatedBytes = -1;
+    private long lastSampleNanos;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public RuntimeStatsSampler(MetricsProperties metricsProperties, MeterRegistry meterRegistry) {
+        this(metricsProperties, meterRegistry, true);
+    }
+
+    /**
+     * Sampler that, unless scheduled, only samples when sample() is called.
+     */
+    RuntimeStatsSampler(MetricsProperties metricsProperties, MeterRegistry meterRegistry, boolean scheduled) {
+        MetricsProperties.RuntimeStats properties = metricsProperties.getRuntimeStats();
+        this.directBufferPool = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .findFirst()
+                .orElse(null);
+        this.recording = properties.isJfr() ? startRecording(properties.isVirtualThreads()) : null;
+        sample();
+
+        registerGauge(meterRegistry, "devops_runtime_uptime_seconds", "JVM uptime in seconds",
+                Snapshot::uptimeSeconds);
+        registerGauge(meterRegistry, "devops_runtime_gc_pause_seconds", "Median GC pause over the last minute",
+                Snapshot::gcPauseP50, "quantile", "0.5");
+        registerGauge(meterRegistry, "devops_runtime_gc_pause_seconds", "99th percentile GC pause over the last minute",
+                Snapshot::gcPauseP99, "quantile", "0.99");
+        registerGauge(meterRegistry, "devops_runtime_gc_pause_seconds_max", "Longest GC pause over the last minute",
+                Snapshot::gcPauseMax);
+        registerGauge(meterRegistry, "devops_runtime_allocation_bytes_per_second", "Bytes allocated per second by platform threads",
+                Snapshot::allocationRate);
+        registerGauge(meterRegistry, "devops_runtime_threads", "Live platform threads",
+                Snapshot::platformThreads, "type", "platform");
+        registerGauge(meterRegistry, "devops_runtime_threads", "Live virtual threads",
+                Snapshot::virtualThreads, "type", "virtual");
+        registerGauge(meterRegistry, "devops_runtime_direct_buffers", "Direct buffers allocated",
+                Snapshot::directBufferCount);
+        registerGauge(meterRegistry, "devops_runtime_direct_buffer_used_bytes", "Memory used by direct buffers",
+                Snapshot::directBufferUsed);
+        registerGauge(meterRegistry, "devops_runtime_direct_buffer_capacity_bytes", "Total capacity of direct buffers",
+                Snapshot::directBufferCapacity);
+        registerGauge(meterRegistry, "devops_runtime_sample_duration_seconds", "Time taken to collect the last sample",
+                Snapshot::sampleSeconds);
+
+        FunctionCounter.builder("devops_runtime_safepoint_seconds_total", this, s -> s.snapshot.safepointSeconds())
+                .description("Time spent at safepoints, from reaching them to leaving them")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("devops_runtime_safepoints_total", this, s -> s.snapshot.safepoints())
+                .description("Number of safepoints")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+
+        if (scheduled) {
+            long intervalMillis = Math.max(1, properties.getInterval().toMillis());
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("runtime-stats-sampler").daemon().factory());
+            scheduler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+        logger.info("Runtime stats sampled every {} ({})", properties.getInterval(),
+                recording != null ? "with JFR" : "JMX only");
+    }
+
+    /**
+     * The most recent sample.
+     */
+    Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Collect a new snapshot.
+     */
+    void sample() {
+        long start = System.nanoTime();
+        try {
+            double[] pauses = gcPauseSeconds(start);
+
+            long allocatedBytes = THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled()
+                    ? THREADS.getTotalThreadAllocatedBytes() : -1;
+            double allocationRate = 0;
+            if (allocatedBytes >= 0 && lastAllocatedBytes >= 0 && start > lastSampleNanos) {
+                allocationRate = (allocatedBytes - lastAllocatedBytes) / ((start - lastSampleNanos) / 1e9);
+            }
+            lastAllocatedBytes = allocatedBytes;
+            lastSampleNanos = start;
+
+            Snapshot sampled = new Snapshot(
+                    ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0,
+                    percentile(pauses, 0.5), percentile(pauses, 0.99), pauses.length > 0 ? pauses[pauses.length - 1] : 0,
+                    Math.max(0, allocationRate),
+                    safepointNanos.sum() / 1e9, safepointCount.sum(),
+                    THREADS.getThreadCount(),
+                    Math.max(0, virtualThreadsStarted.sum() - virtualThreadsEnded.sum()),
+                    directBufferPool != null ? directBufferPool.getCount() : 0,
+                    directBufferPool != null ? directBufferPool.getMemoryUsed() : 0,
+                    directBufferPool != null ? directBufferPool.getTotalCapacity() : 0,
+                    (System.nanoTime() - start) / 1e9);
+            snapshot = sampled;
+        } catch (RuntimeException e) {
+            // Keep the previous snapshot, and keep the schedule running
+            logger.warn("Failed to sample runtime stats", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private RecordingStream startRecording(boolean virtualThreads) {
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.setMaxAge(Duration.ofSeconds(30));
+            stream.enable("jdk.GCPhasePause");
+            stream.enable("jdk.SafepointBegin");
+            stream.enable("jdk.SafepointEnd");
+            stream.onEvent("jdk.GCPhasePause", event -> newGcPauses.add(event.getDuration().toNanos()));
+            stream.onEvent("jdk.SafepointBegin", this::onSafepointBegin);
+            stream.onEvent("jdk.SafepointEnd", this::onSafepointEnd);
+            if (virtualThreads) {
+                stream.enable("jdk.VirtualThreadStart");
+                stream.enable("jdk.VirtualThreadEnd");
+                stream.onEvent("jdk.VirtualThreadStart", event -> virtualThreadsStarted.increment());
+                stream.onEvent("jdk.VirtualThreadEnd", event -> virtualThreadsEnded.increment());
+            }
+            stream.startAsync();
+            return stream;
+        } catch (RuntimeException e) {
+            logger.warn("JFR is not available, GC pause, safepoint and virtual thread stats are disabled", e);
+            return null;
+        }
+    }
+
+    private void onSafepointBegin(RecordedEvent event) {
+        safepointId = event.getLong("safepointId");
+        safepointStart = event.getStartTime();
+    }
+
+    private void onSafepointEnd(RecordedEvent event) {
+        if (safepointStart != null && event.getLong("safepointId") == safepointId) {
+            safepointNanos.add(Duration.between(safepointStart, event.getEndTime()).toNanos());
+            safepointCount.increment();
+            safepointStart = null;
+        }
+    }
+
+    /**
+     * Pauses of the last GC_PAUSE_WINDOW, in seconds, sorted.
+     */
+    private double[] gcPauseSeconds(long now) {
+        Long pause;
+        while ((pause = newGcPauses.poll()) != null) {
+            gcPauses.addLast(new long[] {now, pause});
+        }
+        long windowStart = now - GC_PAUSE_WINDOW.toNanos();
+        while (!gcPauses.isEmpty() && gcPauses.peekFirst()[0] - windowStart < 0) {
+            gcPauses.removeFirst();
+        }
+
+        double[] seconds = new double[gcPauses.size()];
+        int i = 0;
+        for (long[] entry : gcPauses) {
+            seconds[i++] = entry[1] / 1e9;
+        }
+        Arrays.sort(seconds);
+        return seconds;
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    private void registerGauge(MeterRegistry meterRegistry, String name, String description,
+                               ToDoubleFunction<Snapshot> value, String... tags) {
+        Gauge.builder(name, this, sampler -> value.applyAsDouble(sampler.snapshot))
+                .description(description)
+                .tag("service", "devops-challenge")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+}
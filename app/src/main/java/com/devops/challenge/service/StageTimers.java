@@ -0,0 +1,105 @@
+package com.devops.challenge.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.MetricsProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Sampled latency of the individual stages of an /api request
+ * ("app.metrics.stage-timing"), exported as devops_api_stage_duration{stage}.
+ *
+ * Each stage execution is timed with the configured probability, so an
+ * unsampled execution costs one random number. The timers keep
+ * HdrHistogram-backed percentiles over a sliding window, which back the
+ * "stages" actuator endpoint, and publish a percentile histogram for
+ * Prometheus.
+ *
+ * While a JFR recording enables ApiStageEvent (e.g. one started through the
+ * profiling endpoint), every stage execution is timed, recorded in the
+ * timers and committed as an event.
+ *
+ * Usage: {@code long start = stageTimers.start(); ... stageTimers.stop(stage, start);}
+ */
+@Service
+public class StageTimers {
+
+    /** Returned by start() when the execution is not sampled. */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+
+    // Sampling compares a random int in [0, SAMPLE_RANGE) with the threshold
+    private static final int SAMPLE_RANGE = 1 << 24;
+
+    private final int sampleThreshold;
+    private final Timer[] timers = new Timer[STAGES.length];
+
+    @Autowired
+    public StageTimers(MeterRegistry meterRegistry, MetricsProperties metricsProperties) {
+        double sampleRate = Math.max(0, Math.min(1, metricsProperties.getStageTiming().getSampleRate()));
+        this.sampleThreshold = (int) Math.round(sampleRate * SAMPLE_RANGE);
+
+        for (PipelineStage stage : STAGES) {
+            timers[stage.ordinal()] = Timer.builder("devops_api_stage_duration")
+                    .description("Sampled duration of each stage of an /api request")
+                    .tag("service", "devops-challenge")
+                    .tag("stage", stage.tagValue())
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(500))
+                    .maximumExpectedValue(Duration.ofSeconds(1))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Decide whether to time this execution of a stage, and if so start the
+     * clock. Returns {@link #NOT_SAMPLED} otherwise.
+     */
+    public long start() {
+        if (stageEventsEnabled()) {
+            return System.nanoTime();
+        }
+        if (sampleThreshold == 0 || ThreadLocalRandom.current().nextInt(SAMPLE_RANGE) >= sampleThreshold) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the stage's duration if start() chose to time it.
+     */
+    public void stop(PipelineStage stage, long start) {
+        if (start != NOT_SAMPLED) {
+            long duration = System.nanoTime() - start;
+            timers[stage.ordinal()].record(duration, TimeUnit.NANOSECONDS);
+
+            ApiStageEvent event = new ApiStageEvent();
+            if (event.isEnabled()) {
+                event.stage = stage.tagValue();
+                event.stageDuration = duration;
+                event.commit();
+            }
+        }
+    }
+
+    public Timer getTimer(PipelineStage stage) {
+        return timers[stage.ordinal()];
+    }
+
+    private static boolean stageEventsEnabled() {
+        // The event does not escape, so the JIT removes the allocation; this
+        // is a field read when the event class is not being recorded
+        return new ApiStageEvent().isEnabled();
+    }
+}
@@ -0,0 +1,313 @@
+package com.devops.challenge.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.devops.challenge.config.RecorderProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records /api requests into rotating memory-mapped segment files
+ * ("app.recorder"), for replay by TrafficReplayLoadTest or by TrafficReplay
+ * in benchmarks.jar. The file format is described in TrafficSegment.
+ *
+ * The request thread writes its record straight into the mapped segment:
+ * it reserves space by bumping the segment's position, copies the record
+ * in, and publishes it by storing its length last. There is no lock and no
+ * system call on this path; the operating system writes the pages out.
+ *
+ * The next segment is created and mapped ahead of time on a background
+ * thread, which also deletes the oldest segments beyond max-segments. The
+ * thread whose record does not fit only swaps the prepared segment in,
+ * under a ReentrantLock rather than a monitor so that a virtual thread
+ * waiting for it does not pin its carrier.
+ *
+ * Records larger than a segment, or written after a segment could not be
+ * created, are dropped and counted. Exported as devops_recorder_*.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.recorder", name = "enabled", havingValue = "true")
+public class TrafficRecorder implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficRecorder.class);
+
+    private static final DateTimeFormatter SEGMENT_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private static final class Segment {
+        final Path file;
+        final MappedByteBuffer buffer;
+        final AtomicLong position = new AtomicLong(TrafficSegment.HEADER_BYTES);
+
+        Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int maxBodySize;
+    private final String namePrefix;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    // Only used by the segment thread, after the constructor
+    private final ArrayDeque<Path> segments = new ArrayDeque<>();
+    private int sequence;
+
+    private final ExecutorService segmentThread = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("traffic-recorder-segments").daemon().factory());
+    private final ReentrantLock rotation = new ReentrantLock();
+
+    private volatile Segment current;
+    // The segment that will follow current; guarded by rotation
+    private Future<Segment> next;
+
+    @Autowired
+    public TrafficRecorder(RecorderProperties recorderProperties, MeterRegistry meterRegistry) throws IOException {
+        this.directory = Path.of(recorderProperties.getDirectory());
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(4096, recorderProperties.getSegmentSize().toBytes()));
+        this.maxSegments = Math.max(1, recorderProperties.getMaxSegments());
+        this.maxBodySize = (int) Math.min(segmentSize, recorderProperties.getMaxBodySize().toBytes());
+        this.namePrefix = "traffic-" + SEGMENT_TIME.format(Instant.now()) + "-";
+
+        Files.createDirectories(directory);
+        segments.addAll(TrafficSegment.list(directory));
+        current = createSegment();
+        if (current != null) {
+            retire(current);
+            next = segmentThread.submit(this::createSegment);
+        }
+
+        FunctionCounter.builder("devops_recorder_records_total", recorded, LongAdder::doubleValue)
+                .description("Requests recorded")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+        FunctionCounter.builder("devops_recorder_dropped_total", dropped, LongAdder::doubleValue)
+                .description("Requests not recorded because the record did not fit a segment or no segment could be created")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+        FunctionCounter.builder("devops_recorder_bytes_total", bytes, LongAdder::doubleValue)
+                .description("Bytes of records written")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+        logger.info("Recording /api traffic to {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * The current time in epoch microseconds, for arrival times.
+     */
+    public static long currentTimeMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    /**
+     * Largest request body recorded; longer bodies are cut to this size.
+     */
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Record a request.
+     *
+     * @param headers header names and values, alternating
+     * @param body the first bodyLength bytes are recorded
+     * @param truncated whether the body had more than bodyLength bytes,
+     *                  because it was cut at the size limit or not read in full
+     */
+    public void record(long arrivalMicros, String method, String path, String query, List<String> headers,
+                       byte[] body, int bodyLength, boolean truncated) {
+        int size = recordSize(method, path, query, headers, bodyLength);
+        if (size < 0 || size > segmentSize - TrafficSegment.HEADER_BYTES) {
+            dropped.increment();
+            return;
+        }
+
+        Segment segment = current;
+        while (segment != null) {
+            long offset = segment.position.getAndAdd(size);
+            if (offset + size <= segmentSize) {
+                write(segment.buffer, (int) offset, arrivalMicros, method, path, query, headers,
+                        body, bodyLength, truncated);
+                recorded.increment();
+                bytes.add(size);
+                return;
+            }
+            segment = rotate(segment);
+        }
+        dropped.increment();
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void destroy() {
+        rotation.lock();
+        try {
+            if (current != null) {
+                current.buffer.force();
+                current = null;
+            }
+            if (next != null) {
+                // Let the pending retire finish; the prepared segment was never written to
+                Segment unused = awaitNext();
+                if (unused != null) {
+                    Files.deleteIfExists(unused.file);
+                }
+                next = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot delete unused traffic segment", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            rotation.unlock();
+            segmentThread.shutdownNow();
+        }
+    }
+
+    private static int recordSize(String method, String path, String query, List<String> headers, int bodyLength) {
+        // Length, arrival, flags, header count, body length
+        long size = 4 + 8 + 1 + 2 + 4 + bodyLength;
+        int methodSize = TrafficSegment.stringSize(method);
+        int pathSize = TrafficSegment.stringSize(path);
+        int querySize = TrafficSegment.stringSize(query);
+        if (methodSize < 0 || pathSize < 0 || querySize < 0 || headers.size() / 2 > TrafficSegment.MAX_STRING) {
+            return -1;
+        }
+        size += methodSize + pathSize + querySize;
+        for (String header : headers) {
+            int headerSize = TrafficSegment.stringSize(header);
+            if (headerSize < 0) {
+                return -1;
+            }
+            size += headerSize;
+        }
+        return size <= Integer.MAX_VALUE - 3 ? TrafficSegment.align((int) size) : -1;
+    }
+
+    private static void write(MappedByteBuffer buffer, int offset, long arrivalMicros, String method,
+                              String path, String query, List<String> headers, byte[] body, int bodyLength,
+                              boolean truncated) {
+        int index = offset + 4;
+        buffer.putLong(index, arrivalMicros);
+        buffer.put(index + 8, truncated ? TrafficSegment.TRUNCATED : 0);
+        index = TrafficSegment.putString(buffer, index + 9, method);
+        index = TrafficSegment.putString(buffer, index, path);
+        index = TrafficSegment.putString(buffer, index, query);
+        buffer.putShort(index, (short) (headers.size() / 2));
+        index += 2;
+        for (String header : headers) {
+            index = TrafficSegment.putString(buffer, index, header);
+        }
+        buffer.putInt(index, bodyLength);
+        if (bodyLength > 0) {
+            buffer.put(index + 4, body, 0, bodyLength);
+        }
+        TrafficSegment.commit(buffer, offset, index + bodyLength - offset);
+    }
+
+    /**
+     * Swap in the prepared segment unless another thread already has, and
+     * return the current one, or null when no segment could be created.
+     */
+    private Segment rotate(Segment full) {
+        rotation.lock();
+        try {
+            if (current == full && next != null) {
+                // Only waits if segments fill faster than they are created
+                Segment prepared = awaitNext();
+                current = prepared;
+                next = prepared != null ? segmentThread.submit(() -> {
+                    retire(prepared);
+                    return createSegment();
+                }) : null;
+            }
+            return current;
+        } catch (InterruptedException e) {
+            // Drop this record and leave the rotation to the next writer
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            rotation.unlock();
+        }
+    }
+
+    // Called with rotation held
+    private Segment awaitNext() throws InterruptedException {
+        try {
+            return next.get();
+        } catch (ExecutionException e) {
+            logger.error("Cannot prepare traffic segment, recording stopped", e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Account for a segment that has become current, deleting the oldest
+     * ones beyond max-segments. On the segment thread.
+     */
+    private void retire(Segment activated) {
+        segments.addLast(activated.file);
+        while (segments.size() > maxSegments) {
+            Path oldest = segments.removeFirst();
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                logger.warn("Cannot delete traffic segment {}", oldest, e);
+            }
+        }
+    }
+
+    // On the segment thread, or the constructor before it is used
+    private Segment createSegment() {
+        Path file = directory.resolve(namePrefix + String.format("%06d", ++sequence) + TrafficSegment.SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            TrafficSegment.writeFileHeader(buffer, System.currentTimeMillis());
+            return new Segment(file, buffer);
+        } catch (IOException e) {
+            logger.error("Cannot create traffic segment {}, recording stopped", file, e);
+            return null;
+        }
+    }
+}
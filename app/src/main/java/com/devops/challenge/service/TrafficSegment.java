@@ -0,0 +1,193 @@
+package com.devops.challenge.service;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Format of the segment files written by TrafficRecorder, and a reader for
+ * them.
+ *
+ * A segment starts with a 16-byte header (magic, version, creation time in
+ * epoch millis) followed by records, each aligned to 4 bytes:
+ * <pre>
+ * int    payload length, written last; 0 marks the end of the written records
+ * long   arrival time, epoch microseconds
+ * byte   flags (1 = body truncated: cut at the size limit or not read in full)
+ * string method, path
+ * string query string, or length 0xFFFF when there is none
+ * u16    header count, then a name and a value string per header
+ * int    body length, then the body
+ * </pre>
+ * Strings are an unsigned 16-bit length followed by UTF-8. Numbers are
+ * big-endian.
+ */
+public final class TrafficSegment {
+
+    static final int MAGIC = 0x44435452; // "DCTR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final String SUFFIX = ".seg";
+
+    static final byte TRUNCATED = 1;
+    static final int MAX_STRING = 0xFFFE;
+    private static final int ABSENT = 0xFFFF;
+
+    // Ordered access to the length word, so a reader that sees it sees the record
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * One recorded request. The body is a read-only view of the mapped
+     * segment, not a copy.
+     */
+    public record RecordedRequest(long arrivalMicros, String method, String path, String query,
+                                  List<Map.Entry<String, String>> headers, ByteBuffer body, boolean truncated) {
+    }
+
+    private TrafficSegment() {
+    }
+
+    /**
+     * The segment files in a directory, oldest first.
+     */
+    public static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Map a segment and hand each of its records to the consumer, in the
+     * order they were written.
+     */
+    public static void read(Path segment, Consumer<RecordedRequest> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(segment + " is not a traffic segment");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(segment + " has unsupported version " + buffer.getInt(4));
+        }
+
+        int offset = HEADER_BYTES;
+        while (offset + 4 <= buffer.capacity()) {
+            int length = (int) INT.getAcquire(buffer, offset);
+            if (length <= 0 || offset + 4 + length > buffer.capacity()) {
+                break;
+            }
+            consumer.accept(decode(buffer, offset + 4));
+            offset += align(4 + length);
+        }
+    }
+
+    private static RecordedRequest decode(ByteBuffer buffer, int offset) {
+        ByteBuffer in = buffer.duplicate().position(offset);
+        long arrival = in.getLong();
+        boolean truncated = (in.get() & TRUNCATED) != 0;
+        String method = getString(in);
+        String path = getString(in);
+        String query = getString(in);
+        int headerCount = Short.toUnsignedInt(in.getShort());
+        List<Map.Entry<String, String>> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(Map.entry(getString(in), getString(in)));
+        }
+        int bodyLength = in.getInt();
+        ByteBuffer body = in.slice(in.position(), bodyLength).asReadOnlyBuffer();
+        return new RecordedRequest(arrival, method, path, query, List.copyOf(headers), body, truncated);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length == ABSENT) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Writing, used by TrafficRecorder
+
+    static void writeFileHeader(ByteBuffer buffer, long createdMillis) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, createdMillis);
+    }
+
+    static int align(int size) {
+        return (size + 3) & ~3;
+    }
+
+    /**
+     * Bytes a string takes in a record, or -1 if it is too long.
+     */
+    static int stringSize(String value) {
+        if (value == null) {
+            return 2;
+        }
+        int length = utf8Length(value);
+        return length <= MAX_STRING ? 2 + length : -1;
+    }
+
+    /**
+     * Write a string at the index and return the index after it.
+     */
+    static int putString(ByteBuffer buffer, int index, String value) {
+        if (value == null) {
+            buffer.putShort(index, (short) ABSENT);
+            return index + 2;
+        }
+        int start = index + 2;
+        int end = start;
+        if (isAscii(value)) {
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put(end++, (byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.put(start, bytes);
+            end += bytes.length;
+        }
+        buffer.putShort(index, (short) (end - start));
+        return end;
+    }
+
+    /**
+     * Publish a record written at the offset by storing its payload length.
+     */
+    static void commit(ByteBuffer buffer, int offset, int payloadLength) {
+        INT.setRelease(buffer, offset, payloadLength);
+    }
+
+    private static int utf8Length(String value) {
+        return isAscii(value) ? value.length() : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,264 @@
+package com.devops.challenge.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.devops.challenge.config.WarmupProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Warms the /api pipeline up before the application reports ready
+ * ("app.warmup").
+ *
+ * Runs once the web server is listening and before Spring Boot publishes
+ * ReadinessState.ACCEPTING_TRAFFIC, so the readiness probe keeps answering
+ * REFUSING_TRAFFIC meanwhile. It sends rounds of requests over loopback
+ * through the whole stack (filters, controller, Jackson, compression): all
+ * four methods, JSON and plain-text bodies of each configured size, with and
+ * without gzip. It stops once the median latency of a round has stayed
+ * within the tolerance of the previous round for stable-rounds rounds, or
+ * when the time budget is spent.
+ *
+ * Warm-up requests carry a per-startup token that keeps them out of the
+ * access log, the traffic recording, the request metrics
+ * (devops_api_* and http.server.requests) and so the latency the
+ * concurrency limiter adapts to, and lets them bypass that limit.
+ *
+ * Exported as devops_warmup_duration_seconds,
+ * devops_warmup_latency_seconds{phase="initial"|"final"} (median latency of
+ * the first and last round) and devops_warmup_requests.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    /** Header carrying the token that marks a warm-up request. */
+    public static final String HEADER = "X-Warmup-Token";
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+    private final WarmupProperties properties;
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+    private final String token = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private volatile double durationSeconds;
+    private volatile double initialLatency;
+    private volatile double finalLatency;
+    private final LongAdder requests = new LongAdder();
+
+    @Autowired
+    public WarmupRunner(WarmupProperties warmupProperties, ApplicationContext applicationContext,
+                        Environment environment, MeterRegistry meterRegistry) {
+        this.properties = warmupProperties;
+        this.applicationContext = applicationContext;
+        this.environment = environment;
+
+        Gauge.builder("devops_warmup_duration_seconds", this, w -> w.durationSeconds)
+                .description("Time spent warming up before reporting ready")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+        Gauge.builder("devops_warmup_latency_seconds", this, w -> w.initialLatency)
+                .description("Median /api latency of the first warm-up round")
+                .tag("service", "devops-challenge")
+                .tag("phase", "initial")
+                .register(meterRegistry);
+        Gauge.builder("devops_warmup_latency_seconds", this, w -> w.finalLatency)
+                .description("Median /api latency of the last warm-up round")
+                .tag("service", "devops-challenge")
+                .tag("phase", "final")
+                .register(meterRegistry);
+        Gauge.builder("devops_warmup_requests", this, w -> w.requests.sum())
+                .description("Requests sent during the warm-up")
+                .tag("service", "devops-challenge")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a request carrying this X-Warmup-Token value was sent by a
+     * warm-up that is still running.
+     */
+    public boolean isWarmupRequest(String headerValue) {
+        return running && token.equals(headerValue);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!(applicationContext instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer().getPort() <= 0) {
+            logger.debug("No web server running, skipping warm-up");
+            return;
+        }
+        if (environment.getProperty("server.ssl.enabled", Boolean.class, false)) {
+            logger.info("Warm-up only supports plain HTTP, skipping it");
+            return;
+        }
+
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        String address = environment.getProperty("server.address", "127.0.0.1");
+        URI uri = URI.create("http://" + (address.contains(":") ? "[" + address + "]" : address)
+                + ":" + webContext.getWebServer().getPort() + "/api");
+
+        running = true;
+        long start = System.nanoTime();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()) {
+            warmUp(client, requests(uri), start + properties.getTimeBudget().toNanos());
+        } catch (IOException | ExecutionException e) {
+            logger.warn("Warm-up aborted", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Warm-up interrupted");
+        } finally {
+            running = false;
+            durationSeconds = (System.nanoTime() - start) / 1e9;
+        }
+        logger.info("Warmed up in {} s with {} requests; median /api latency {} ms -> {} ms",
+                String.format("%.1f", durationSeconds), requests.sum(),
+                String.format("%.2f", initialLatency * 1000), String.format("%.2f", finalLatency * 1000));
+    }
+
+    private void warmUp(HttpClient client, List<HttpRequest> mix, long deadline)
+            throws IOException, ExecutionException, InterruptedException {
+        int stable = 0;
+        double previous = 0;
+        for (int round = 0; System.nanoTime() < deadline && stable < properties.getStableRounds(); round++) {
+            double median = round(client, mix, deadline);
+            if (Double.isNaN(median)) {
+                break;
+            }
+            if (round == 0) {
+                initialLatency = median;
+            }
+            finalLatency = median;
+            stable = previous > 0 && Math.abs(median - previous) <= properties.getTolerance() * previous ? stable + 1 : 0;
+            previous = median;
+        }
+    }
+
+    /**
+     * Send one round of requests and return their median latency in
+     * seconds, or NaN if the deadline passed before any completed.
+     */
+    private double round(HttpClient client, List<HttpRequest> mix, long deadline)
+            throws IOException, ExecutionException, InterruptedException {
+        int size = Math.max(1, properties.getRequestsPerRound());
+        long[] latencies = new long[size];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        List<Future<Void>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < Math.max(1, properties.getConcurrency()); w++) {
+                workers.add(executor.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < size && System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        client.send(mix.get(i % mix.size()), HttpResponse.BodyHandlers.discarding());
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - start;
+                        requests.increment();
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<Void> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw e;
+            }
+        }
+
+        int count = completed.get();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long[] done = Arrays.copyOf(latencies, count);
+        Arrays.sort(done);
+        return done[count / 2] / 1e9;
+    }
+
+    /**
+     * The request mix: GET and DELETE, and POST and PUT with a JSON and a
+     * plain-text body of each size, every one with and without gzip.
+     */
+    private List<HttpRequest> requests(URI uri) {
+        List<HttpRequest> requests = new ArrayList<>();
+        for (boolean gzip : new boolean[] {false, true}) {
+            for (String method : METHODS) {
+                if (method.equals("GET") || method.equals("DELETE")) {
+                    requests.add(request(uri, method, gzip, null, null));
+                    continue;
+                }
+                for (DataSize size : properties.getBodySizes()) {
+                    int bytes = (int) Math.min(Integer.MAX_VALUE, size.toBytes());
+                    requests.add(request(uri, method, gzip, "application/json", jsonBody(bytes)));
+                    requests.add(request(uri, method, gzip, "text/plain", "warm-up ".repeat(bytes / 8 + 1)));
+                }
+            }
+        }
+        return requests;
+    }
+
+    private HttpRequest request(URI uri, String method, boolean gzip, String contentType, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(10))
+                .header(HEADER, token)
+                .header("X-Custom-Header", "warm-up")
+                .header("Accept-Encoding", gzip ? "gzip" : "identity");
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", contentType)
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // A JSON object of roughly the given size, with nesting and mixed value types
+    private static String jsonBody(int bytes) {
+        StringBuilder json = new StringBuilder("{\"message\": \"warm-up\", \"count\": 1, \"nested\": {\"ok\": true}, \"items\": [");
+        for (int i = 0; json.length() < bytes; i++) {
+            json.append(i == 0 ? "" : ", ").append("{\"id\": ").append(i).append(", \"value\": \"item-").append(i).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+}
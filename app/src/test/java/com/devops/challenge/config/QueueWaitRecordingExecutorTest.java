@@ -0,0 +1,32 @@
+package com.devops.challenge.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.devops.challenge.service.MetricsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueueWaitRecordingExecutorTest {
+
+    @Test
+    void testWrappedExecutorRecordsQueueWaitAndPassesShutdownOn() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsService metricsService = new MetricsService(meterRegistry, new MetricsProperties());
+        ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+        ExecutorService wrapped = QueueWaitRecordingExecutor.wrap(virtual, metricsService);
+
+        wrapped.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        assertEquals(1, meterRegistry.get("devops_api_queue_wait").timer().count());
+
+        wrapped.shutdownNow();
+        assertTrue(virtual.isShutdown());
+        assertTrue(wrapped.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
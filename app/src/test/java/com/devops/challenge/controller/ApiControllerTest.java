@@ -1,9 +1,16 @@
 package com.devops.challenge.controller;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
@@ -14,16 +21,27 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.devops.challenge.dto.BinaryFormat;
+import com.devops.challenge.service.ApiMethod;
 import com.devops.challenge.service.MetricsService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @SpringBootTest
+@AutoConfigureObservability(tracing = false)
 class ApiControllerTest {
 
     private MockMvc mockMvc;
@@ -34,6 +52,9 @@ class ApiControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MetricsService metricsService;
+
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
@@ -115,6 +136,35 @@ class ApiControllerTest {
                 .andExpect(jsonPath("$.endpoints").exists());
     }
 
+    @Test
+    void testInfoEndpointsAreInAFixedOrder() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/info"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        List<String> names = new ArrayList<>();
+        objectMapper.readTree(body).get("endpoints").fieldNames().forEachRemaining(names::add);
+        assertEquals(List.of("api", "health", "info", "actuator"), names);
+    }
+
+    @Test
+    void testStatusEndpointsHonourIfNoneMatch() throws Exception {
+        String healthETag = mockMvc.perform(get("/api/health"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/health").header("If-None-Match", healthETag))
+                .andExpect(status().isNotModified());
+
+        String infoETag = mockMvc.perform(get("/api/info"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.build-time").exists())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/info").header("If-None-Match", infoETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/info").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testPostRequestWithInvalidJson() throws Exception {
         String invalidJson = "invalid json content";
@@ -142,4 +192,124 @@ class ApiControllerTest {
                 .andExpect(jsonPath("$.headers['X-Another-Header']").value("another-value"))
                 .andExpect(jsonPath("$.headers['Authorization']").value("Bearer token123"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testRepeatedHeaderIsEchoedWithEveryValue() throws Exception {
+        mockMvc.perform(get("/api")
+                .header("X-Forwarded-For", "203.0.113.7", "10.0.0.1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.headers['X-Forwarded-For'][0]").value("203.0.113.7"))
+                .andExpect(jsonPath("$.headers['X-Forwarded-For'][1]").value("10.0.0.1"));
+    }
+
+    @Test
+    void testResponseIsCompactUnlessPrettyIsRequested() throws Exception {
+        mockMvc.perform(get("/api"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\"method\":\"GET\",\"headers\":{")))
+                .andExpect(jsonPath("$.timestamp").value(matchesPattern("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}")));
+
+        mockMvc.perform(get("/api?pretty=true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\n  \"method\" : \"GET\"")))
+                .andExpect(jsonPath("$.queryString").value("pretty=true"));
+    }
+
+    @Test
+    void testBinaryFormatsAreNegotiated() throws Exception {
+        for (BinaryFormat format : BinaryFormat.values()) {
+            ObjectMapper mapper = format.mapper(objectMapper);
+
+            byte[] response = mockMvc.perform(post("/api")
+                    .contentType(format.getMediaType())
+                    .accept(format.getMediaType())
+                    .content(mapper.writeValueAsBytes(Map.of("message", "Hello World"))))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(format.getMediaType()))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            JsonNode tree = mapper.readTree(response);
+            assertEquals("POST", tree.get("method").asText());
+            assertEquals("Hello World", tree.get("body").get("message").asText());
+            assertEquals("/api", tree.get("requestUri").asText());
+        }
+    }
+
+    @Test
+    void testMalformedBinaryBodyIsReported() throws Exception {
+        mockMvc.perform(post("/api")
+                .contentType(BinaryFormat.CBOR.getMediaType())
+                .content(new byte[] {(byte) 0xff, 0x01}))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value("Failed to parse request: Malformed CBOR body"));
+    }
+
+    @Test
+    void testScrapeIncludesBatchedApiCalls() throws Exception {
+        mockMvc.perform(delete("/api")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        double calls = scrapedValue(scrape, "devops_api_requests_total{", "method=\"DELETE\"");
+        double timed = scrapedValue(scrape, "devops_api_response_time_seconds_count{", "method=\"DELETE\"");
+        assertTrue(timed >= 1);
+        assertEquals(calls, timed);
+    }
+
+    @Test
+    void testProfilingEndpointIsDisabledByDefault() throws Exception {
+        mockMvc.perform(post("/actuator/profiling")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static double scrapedValue(String scrape, String series, String label) {
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith(series) && line.contains(label)) {
+                return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+            }
+        }
+        throw new AssertionError("No " + series + label + "} in scrape");
+    }
+
+    @Test
+    void testInfoEndpointServesPrecompressedVariant() throws Exception {
+        byte[] gzip = mockMvc.perform(get("/api/info").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", endsWith("-gzip\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            JsonNode info = objectMapper.readTree(in);
+            assertEquals("DevOps Challenge API", info.get("application").asText());
+        }
+    }
+
+    @Test
+    void testBatchRequestStreamsNdjson() throws Exception {
+        metricsService.flushApiCalls();
+        long posts = metricsService.getResponseTimer(ApiMethod.POST).count();
+        long batches = metricsService.getResponseTimer(ApiMethod.BATCH).count();
+
+        String content = mockMvc.perform(post("/api/batch")
+                .header("X-Custom-Header", "test-value")
+                .contentType("application/x-ndjson")
+                .content("{\"id\": 1}\n{\"id\": 2}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = content.split("\n");
+        assertEquals(2, lines.length);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(2, second.get("body").get("id").asInt());
+        assertEquals("test-value", second.get("headers").get("X-Custom-Header").asText());
+        metricsService.flushApiCalls();
+        assertEquals(batches + 1, metricsService.getResponseTimer(ApiMethod.BATCH).count());
+        assertEquals(posts, metricsService.getResponseTimer(ApiMethod.POST).count());
+    }
+}
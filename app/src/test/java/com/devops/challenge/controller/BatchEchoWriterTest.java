@@ -0,0 +1,157 @@
+package com.devops.challenge.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.dto.HeaderFilter;
+import com.devops.challenge.dto.HeaderView;
+import com.devops.challenge.service.StageTimers;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchEchoWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BatchEchoWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        writer.destroy();
+    }
+
+    @Test
+    void testNdjsonItemsAreEchoedLineByLine() throws Exception {
+        writer = writer(1);
+        String body = "{\"id\": 1}\n{\"id\": 2, \"tags\": [\"a\"]}\n\"text\"\n";
+
+        MockHttpServletResponse response = perform("application/x-ndjson", body);
+
+        assertEquals("application/x-ndjson", response.getContentType());
+        List<JsonNode> lines = lines(response);
+        assertEquals(3, lines.size());
+        assertEquals(1, lines.get(0).get("body").get("id").asInt());
+        assertEquals("a", lines.get(1).get("body").get("tags").get(0).asText());
+        assertEquals("text", lines.get(2).get("body").asText());
+        for (JsonNode line : lines) {
+            assertEquals("POST", line.get("method").asText());
+            assertEquals("/api/batch", line.get("requestUri").asText());
+            assertEquals("application/x-ndjson", line.get("contentType").asText());
+        }
+
+        assertEquals(3, meterRegistry.get("devops_api_batch_items").summary().totalAmount());
+        assertEquals(body.length(), meterRegistry.get("devops_api_batch_bytes").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("devops_api_batch_item_duration").timer().count());
+    }
+
+    @Test
+    void testJsonArrayItemsAreEchoedInOrderInParallel() throws Exception {
+        writer = writer(4);
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            body.append(i > 0 ? "," : "").append("{\"id\": ").append(i).append('}');
+        }
+        body.append(']');
+
+        List<JsonNode> lines = lines(perform("application/json", body.toString()));
+
+        assertEquals(500, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(i, lines.get(i).get("body").get("id").asInt());
+        }
+        assertEquals(500, meterRegistry.get("devops_api_batch_items").summary().totalAmount());
+    }
+
+    @Test
+    void testParallelItemsEchoHeadersCopiedOnTheRequestThread() throws Exception {
+        writer = writer(4);
+        Set<Thread> readers = ConcurrentHashMap.newKeySet();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/batch") {
+            @Override
+            public Enumeration<String> getHeaders(String name) {
+                readers.add(Thread.currentThread());
+                return super.getHeaders(name);
+            }
+        };
+        request.setContentType("application/x-ndjson");
+        request.addHeader("X-Tag", "a");
+        request.addHeader("X-Tag", "b");
+        request.addHeader("Authorization", "Bearer secret");
+        request.setContent("{\"id\": 1}\n{\"id\": 2}\n{\"id\": 3}\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(request, response,
+                HeaderView.of(request, HeaderFilter.of(List.of(), List.of("Authorization"))));
+
+        List<JsonNode> lines = lines(response);
+        assertEquals(3, lines.size());
+        for (JsonNode line : lines) {
+            JsonNode tags = line.get("headers").get("x-tag");
+            assertEquals(2, tags.size());
+            assertEquals("a", tags.get(0).asText());
+            assertEquals("b", tags.get(1).asText());
+            assertNull(line.get("headers").get("authorization"));
+        }
+        assertEquals(Set.of(Thread.currentThread()), readers);
+    }
+
+    @Test
+    void testInvalidItemEndsTheBatchWithAnError() throws Exception {
+        for (int parallelism : new int[] {1, 4}) {
+            writer = writer(parallelism);
+            List<JsonNode> lines = lines(perform("application/x-ndjson", "{\"id\": 1}\n{\"id\": 2}\n{\"id\": \n"));
+
+            assertEquals(3, lines.size());
+            assertEquals(2, lines.get(1).get("body").get("id").asInt());
+            assertTrue(lines.get(2).get("error").asText().startsWith("Failed to parse request"));
+            writer.destroy();
+        }
+    }
+
+    private BatchEchoWriter writer(int parallelism) {
+        EchoProperties echoProperties = new EchoProperties();
+        echoProperties.getBatch().setParallelism(parallelism);
+        echoProperties.getBatch().setMaxInFlight(8);
+        return new BatchEchoWriter(objectMapper,
+                new ApiResponseFactory(objectMapper, new StageTimers(meterRegistry, new MetricsProperties())),
+                new RequestBodyReader(echoProperties), echoProperties, meterRegistry);
+    }
+
+    private MockHttpServletResponse perform(String contentType, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/batch");
+        request.setContentType(contentType);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, HeaderView.empty());
+        return response;
+    }
+
+    private List<JsonNode> lines(MockHttpServletResponse response) throws Exception {
+        String content = response.getContentAsString();
+        assertTrue(content.endsWith("\n"));
+        return content.lines().map(line -> {
+            try {
+                return objectMapper.readTree(line);
+            } catch (Exception e) {
+                throw new AssertionError("Not a JSON line: " + line, e);
+            }
+        }).toList();
+    }
+}
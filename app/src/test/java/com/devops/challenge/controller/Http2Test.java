@@ -0,0 +1,163 @@
+package com.devops.challenge.controller;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class Http2Test {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testH2cIsNegotiatedByUpgrade() throws Exception {
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build()) {
+            HttpResponse<String> get = client.send(HttpRequest.newBuilder(uri()).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(get.version()).isEqualTo(HttpClient.Version.HTTP_2);
+            assertThat(get.body()).contains("\"method\":\"GET\"");
+
+            HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"message\": \"h2c\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(post.version()).isEqualTo(HttpClient.Version.HTTP_2);
+            assertThat(post.body()).contains("\"message\":\"h2c\"");
+        }
+    }
+
+    @Test
+    void testHttp11IsStillServed() throws Exception {
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri()).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_1_1);
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void testRepeatedResponseHeadersAreCompressed() throws Exception {
+        // Two identical GETs on one prior-knowledge h2c connection: the second
+        // response's header block refers to HPACK's dynamic table instead of
+        // repeating the header values the first one added to it
+        try (H2cConnection connection = new H2cConnection("localhost", port)) {
+            int first = connection.get(1, "/api");
+            int second = connection.get(3, "/api");
+
+            assertThat(first).isGreaterThan(0);
+            assertThat(second).isLessThan(first);
+        }
+    }
+
+    private URI uri() {
+        return URI.create("http://localhost:" + port + "/api");
+    }
+
+    /**
+     * Just enough of an HTTP/2 client to send GETs over one h2c connection
+     * (prior knowledge) and measure the encoded size of the response headers.
+     */
+    private static final class H2cConnection implements AutoCloseable {
+
+        private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        private static final int DATA = 0;
+        private static final int HEADERS = 1;
+        private static final int SETTINGS = 4;
+        private static final int GOAWAY = 7;
+        private static final int END_STREAM = 0x1;
+        private static final int ACK = 0x1;
+        private static final int END_HEADERS = 0x4;
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+        private final String authority;
+
+        H2cConnection(String host, int port) throws IOException {
+            this.socket = new Socket(host, port);
+            socket.setSoTimeout(10_000);
+            this.in = new DataInputStream(socket.getInputStream());
+            this.out = socket.getOutputStream();
+            this.authority = host + ":" + port;
+            out.write(PREFACE);
+            writeFrame(SETTINGS, 0, 0, new byte[0]);
+        }
+
+        /**
+         * Send a GET on the stream and return the size of the response's
+         * header block once the response is complete.
+         */
+        int get(int streamId, String path) throws IOException {
+            List<Byte> block = new ArrayList<>();
+            block.add((byte) 0x82); // :method GET
+            block.add((byte) 0x86); // :scheme http
+            literal(block, 4, path); // :path
+            literal(block, 1, authority); // :authority
+            byte[] headers = new byte[block.size()];
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = block.get(i);
+            }
+            writeFrame(HEADERS, END_STREAM | END_HEADERS, streamId, headers);
+
+            int headerBytes = 0;
+            while (true) {
+                int length = (in.readUnsignedShort() << 8) | in.readUnsignedByte();
+                int type = in.readUnsignedByte();
+                int flags = in.readUnsignedByte();
+                int stream = in.readInt() & 0x7FFFFFFF;
+                byte[] payload = in.readNBytes(length);
+
+                if (type == SETTINGS && (flags & ACK) == 0) {
+                    writeFrame(SETTINGS, ACK, 0, new byte[0]);
+                } else if (type == GOAWAY) {
+                    throw new IOException("Connection closed by the server: GOAWAY");
+                } else if (stream == streamId && type == HEADERS) {
+                    headerBytes += payload.length;
+                }
+                if (stream == streamId && (type == DATA || type == HEADERS) && (flags & END_STREAM) != 0) {
+                    return headerBytes;
+                }
+            }
+        }
+
+        // Literal header field without indexing, indexed name, raw (non-Huffman) value
+        private static void literal(List<Byte> block, int nameIndex, String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+            block.add((byte) nameIndex);
+            block.add((byte) bytes.length);
+            for (byte b : bytes) {
+                block.add(b);
+            }
+        }
+
+        private void writeFrame(int type, int flags, int streamId, byte[] payload) throws IOException {
+            ByteBuffer frame = ByteBuffer.allocate(9 + payload.length);
+            frame.put((byte) (payload.length >>> 16)).put((byte) (payload.length >>> 8)).put((byte) payload.length);
+            frame.put((byte) type).put((byte) flags).putInt(streamId).put(payload);
+            out.write(frame.array());
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.devops.challenge.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.profiling.enabled=true",
+        "management.endpoints.web.exposure.include=health,profiling"
+})
+class ProfilingEndpointTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testProfilingEndpointStartsAndStopsARecording() throws Exception {
+        mockMvc.perform(post("/actuator/profiling")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"durationSeconds\": 30}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running").value(true))
+                .andExpect(jsonPath("$.durationSeconds").value(30));
+        mockMvc.perform(post("/actuator/profiling")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/actuator/profiling"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running").value(true));
+
+        mockMvc.perform(delete("/actuator/profiling"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running").value(false))
+                .andExpect(jsonPath("$.dumpFile").exists())
+                .andExpect(jsonPath("$.hottestMethods").isArray());
+    }
+}
@@ -0,0 +1,241 @@
+package com.devops.challenge.controller;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.devops.challenge.dto.BinaryFormat;
+import com.devops.challenge.service.MetricsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.netty.http.client.HttpClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveApiControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testReactiveStackIsActive() {
+        assertThat(applicationContext.getBeanNamesForType(ReactiveApiController.class)).hasSize(1);
+        assertThat(applicationContext.getBeanNamesForType(ApiController.class)).isEmpty();
+    }
+
+    @Test
+    void testGetRequest() {
+        webTestClient.get().uri("/api?page=1")
+                .header("X-Custom-Header", "test-value")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.method").isEqualTo("GET")
+                .jsonPath("$.headers['x-custom-header']").isEqualTo("test-value")
+                .jsonPath("$.timestamp").exists()
+                .jsonPath("$.requestUri").isEqualTo("/api")
+                .jsonPath("$.queryString").isEqualTo("page=1")
+                .jsonPath("$.remoteAddr").exists();
+    }
+
+    @Test
+    void testPostRequest() {
+        long before = metricsService.getTotalRequests();
+
+        webTestClient.post().uri("/api")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\": \"Hello World\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.method").isEqualTo("POST")
+                .jsonPath("$.body.message").isEqualTo("Hello World")
+                .jsonPath("$.contentType").isEqualTo("application/json");
+
+        assertThat(metricsService.getTotalRequests()).isGreaterThan(before);
+    }
+
+    @Test
+    void testPutRequestWithInvalidJson() {
+        webTestClient.put().uri("/api")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("invalid json content")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.method").isEqualTo("PUT")
+                .jsonPath("$.body").isEqualTo("invalid json content");
+    }
+
+    @Test
+    void testDeleteRequest() {
+        webTestClient.delete().uri("/api")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.method").isEqualTo("DELETE")
+                .jsonPath("$.body").doesNotExist();
+    }
+
+    @Test
+    void testHealthEndpoint() {
+        webTestClient.get().uri("/api/health")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("UP")
+                .jsonPath("$.version").isEqualTo("1.0.0");
+    }
+
+    @Test
+    void testInfoEndpoint() {
+        webTestClient.get().uri("/api/info")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.application").isEqualTo("DevOps Challenge API")
+                .jsonPath("$.endpoints").exists();
+    }
+
+    @Test
+    void testHealthEndpointHonoursIfNoneMatch() {
+        String eTag = webTestClient.get().uri("/api/health")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(byte[].class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/health")
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void testResponseIsCompactUnlessPrettyIsRequested() {
+        webTestClient.get().uri("/api")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertThat(body).startsWith("{\"method\":\"GET\",\"headers\":{"));
+
+        webTestClient.get().uri("/api?pretty=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertThat(body).startsWith("{\n  \"method\" : \"GET\""));
+    }
+
+    @Test
+    void testBinaryFormatsAreNegotiated() throws Exception {
+        for (BinaryFormat format : BinaryFormat.values()) {
+            ObjectMapper mapper = format.mapper(objectMapper);
+
+            byte[] response = webTestClient.put().uri("/api")
+                    .contentType(format.getMediaType())
+                    .accept(format.getMediaType())
+                    .bodyValue(mapper.writeValueAsBytes(Map.of("message", "Hello World")))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(format.getMediaType())
+                    .expectBody(byte[].class)
+                    .returnResult().getResponseBody();
+
+            JsonNode tree = mapper.readTree(response);
+            assertThat(tree.get("method").asText()).isEqualTo("PUT");
+            assertThat(tree.get("body").get("message").asText()).isEqualTo("Hello World");
+            assertThat(tree.get("contentType").asText()).isEqualTo(format.getMediaType().toString());
+        }
+    }
+
+    @Test
+    void testLargeResponseIsGzipped() {
+        String largeBody = "\"" + "x".repeat(10_000) + "\"";
+        // The default connector decompresses responses and drops Content-Encoding
+        WebTestClient rawClient = WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create()))
+                .baseUrl("http://localhost:" + port)
+                .build();
+
+        rawClient.post().uri("/api")
+                .header("Accept-Encoding", "gzip")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(largeBody)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Content-Encoding", "gzip")
+                .expectHeader().valueEquals("Vary", "Accept-Encoding")
+                .expectBody(byte[].class)
+                .value(body -> assertThat(body.length).isLessThan(1000));
+    }
+
+    @Test
+    void testRetryWithIdempotencyKeyIsReplayed() {
+        byte[] first = webTestClient.put().uri("/api")
+                .header("Idempotency-Key", "reactive-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\": \"once\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("Idempotent-Replayed")
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClient.put().uri("/api")
+                .header("Idempotency-Key", "reactive-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\": \"once\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Idempotent-Replayed", "true")
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody(byte[].class)
+                .isEqualTo(first);
+
+        webTestClient.put().uri("/api")
+                .header("Idempotency-Key", "reactive-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\": \"twice\"}")
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void testH2cIsNegotiatedByUpgrade() throws Exception {
+        try (java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_2)
+                .build()) {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.version()).isEqualTo(java.net.http.HttpClient.Version.HTTP_2);
+            assertThat(response.body()).contains("\"method\":\"GET\"");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.devops.challenge.controller;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bodies over the spill threshold, sent with a Content-Length and chunked,
+ * echoed from a temporary file.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.echo.buffering.spill-threshold=256B",
+        "app.idempotency.enabled=false"
+})
+class SpilledEchoTest {
+
+    @TempDir
+    static Path spillDirectory;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void spillDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.echo.buffering.spill-directory", () -> spillDirectory.toString());
+    }
+
+    @AfterEach
+    void spillFilesAreDeleted() throws Exception {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testLargeJsonBodyIsSpilled() throws Exception {
+        double spilled = spilledRequests();
+        String body = jsonBody(100);
+
+        HttpResponse<String> response = send(HttpRequest.BodyPublishers.ofString(body), "application/json");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValueAsLong("Content-Length")).hasValue(response.body().length());
+
+        JsonNode echoed = objectMapper.readTree(response.body());
+        assertThat(echoed.get("method").asText()).isEqualTo("POST");
+        assertThat(echoed.get("body")).isEqualTo(objectMapper.readTree(body));
+        assertThat(echoed.get("requestUri").asText()).isEqualTo("/api");
+        assertThat(spilledRequests()).isEqualTo(spilled + 1);
+        assertThat(meterRegistry.get("devops_echo_memory_budget_used_bytes").gauge().value()).isZero();
+    }
+
+    @Test
+    void testChunkedBodiesSpillOnceOverTheThreshold() throws Exception {
+        double spilled = spilledRequests();
+        String large = "x".repeat(1000);
+        HttpResponse<String> response = send(chunked(large), "text/plain");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()).get("body").asText()).isEqualTo(large);
+        assertThat(spilledRequests()).isEqualTo(spilled + 1);
+
+        response = send(chunked("small"), "text/plain");
+        assertThat(objectMapper.readTree(response.body()).get("body").asText()).isEqualTo("small");
+        assertThat(spilledRequests()).isEqualTo(spilled + 1);
+    }
+
+    @Test
+    void testInvalidSpilledJsonIsReported() throws Exception {
+        String body = jsonBody(100);
+        HttpResponse<String> response = send(HttpRequest.BodyPublishers.ofString(body.substring(0, body.length() - 1)),
+                "application/json");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()).get("error").asText()).startsWith("Failed to parse request");
+    }
+
+    private HttpResponse<String> send(HttpRequest.BodyPublisher body, String contentType) throws Exception {
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api"))
+                    .header("Content-Type", contentType)
+                    .POST(body)
+                    .build(), HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    // No Content-Length: the request is sent with chunked transfer encoding
+    private static HttpRequest.BodyPublisher chunked(String body) {
+        return HttpRequest.BodyPublishers.ofInputStream(
+                () -> new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String jsonBody(int items) {
+        StringBuilder json = new StringBuilder("{\"items\": [");
+        for (int i = 0; i < items; i++) {
+            json.append(i > 0 ? ", " : "").append("{\"id\": ").append(i).append(", \"value\": 1.50}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private double spilledRequests() {
+        return meterRegistry.get("devops_echo_spilled_requests_total").counter().count();
+    }
+}
@@ -0,0 +1,89 @@
+package com.devops.challenge.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.echo.mode=streaming",
+        "app.echo.max-body-size=1KB"
+})
+class StreamingEchoTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testStreamingJsonBody() throws Exception {
+        String requestBody = "{\"message\": \"Hello World\", \"items\": [1, 2, {\"nested\": true}]}";
+
+        mockMvc.perform(post("/api")
+                .header("X-Custom-Header", "test-value")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.method").value("POST"))
+                .andExpect(jsonPath("$.headers['X-Custom-Header']").value("test-value"))
+                .andExpect(jsonPath("$.body.message").value("Hello World"))
+                .andExpect(jsonPath("$.body.items[2].nested").value(true))
+                .andExpect(jsonPath("$.timestamp").exists())
+                .andExpect(jsonPath("$.requestUri").value("/api"));
+    }
+
+    @Test
+    void testStreamingTextBody() throws Exception {
+        String requestBody = "plain \"text\" body\nwith a newline";
+
+        mockMvc.perform(put("/api")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("PUT"))
+                .andExpect(jsonPath("$.body").value(requestBody));
+    }
+
+    @Test
+    void testStreamingEmptyBody() throws Exception {
+        mockMvc.perform(post("/api")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("POST"))
+                .andExpect(jsonPath("$.body").doesNotExist());
+    }
+
+    @Test
+    void testStreamingInvalidJsonReportsError() throws Exception {
+        mockMvc.perform(post("/api")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"unterminated\": "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("POST"))
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void testBodyOverMaxSizeIsRejected() throws Exception {
+        mockMvc.perform(post("/api")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"data\": \"" + "x".repeat(2048) + "\"}"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+}
@@ -0,0 +1,47 @@
+package com.devops.challenge.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ApiResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSerializerWritesFieldsInOrderAndOmitsNulls() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api");
+        request.addHeader("Accept", "application/json");
+
+        ApiResponse response = ApiResponse.builder()
+                .method("POST")
+                .headers(HeaderView.of(request, HeaderFilter.all()))
+                .body(Map.of("items", List.of(1, 2.5, true)))
+                .timestamp(LocalDateTime.of(2024, 1, 1, 9, 5, 7, 123_000_000))
+                .requestUri("/api")
+                .contentType("application/json")
+                .build();
+
+        assertEquals("{\"method\":\"POST\",\"headers\":{\"Accept\":\"application/json\"},"
+                + "\"body\":{\"items\":[1,2.5,true]},\"timestamp\":\"2024-01-01 09:05:07\","
+                + "\"requestUri\":\"/api\",\"contentType\":\"application/json\"}",
+                objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void testTimestampIsFormattedOncePerSecond() {
+        String first = TimestampFormat.format(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 1_000));
+
+        assertEquals("2024-12-31 23:59:59", first);
+        assertSame(first, TimestampFormat.format(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999_000_000)));
+        assertEquals("2025-01-01 00:00:00", TimestampFormat.format(LocalDateTime.of(2025, 1, 1, 0, 0)));
+    }
+}
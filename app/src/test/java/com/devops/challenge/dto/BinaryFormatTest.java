@@ -0,0 +1,31 @@
+package com.devops.challenge.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryFormatTest {
+
+    @Test
+    void testContentTypesIgnoreParameters() {
+        assertEquals(BinaryFormat.CBOR, BinaryFormat.forContentType("application/cbor"));
+        assertEquals(BinaryFormat.SMILE, BinaryFormat.forContentType("Application/X-Jackson-Smile; charset=x"));
+        assertNull(BinaryFormat.forContentType("application/json"));
+        assertNull(BinaryFormat.forContentType(null));
+    }
+
+    @Test
+    void testAcceptHonoursQualityValues() {
+        assertTrue(BinaryFormat.isAcceptable("application/cbor"));
+        assertTrue(BinaryFormat.isAcceptable("application/json;q=0.9, application/x-jackson-smile;q=0.1"));
+        assertFalse(BinaryFormat.isAcceptable("application/json, application/cbor;q=0"));
+        assertFalse(BinaryFormat.isAcceptable("application/cbor; q=0.0, application/x-jackson-smile;q=0.000"));
+        assertFalse(BinaryFormat.isAcceptable("*/*"));
+        assertFalse(BinaryFormat.isAcceptable("application/json"));
+        assertFalse(BinaryFormat.isAcceptable("not a media type"));
+        assertFalse(BinaryFormat.isAcceptable(null));
+    }
+}
@@ -0,0 +1,54 @@
+package com.devops.challenge.dto;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeaderViewTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testRepeatedHeadersAreSerializedAsArrays() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api");
+        request.addHeader("X-Single", "one");
+        request.addHeader("X-Repeated", "first");
+        request.addHeader("X-Repeated", "second");
+
+        assertEquals("{\"X-Single\":\"one\",\"X-Repeated\":[\"first\",\"second\"]}",
+                objectMapper.writeValueAsString(HeaderView.of(request, HeaderFilter.all())));
+    }
+
+    @Test
+    void testAllowAndDenyListsAreCaseInsensitive() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api");
+        request.addHeader("Accept", "application/json");
+        request.addHeader("Authorization", "Bearer token123");
+        request.addHeader("X-Request-Id", "42");
+
+        HeaderFilter deny = HeaderFilter.of(List.of(), List.of("authorization"));
+        assertEquals("{\"Accept\":\"application/json\",\"X-Request-Id\":\"42\"}",
+                objectMapper.writeValueAsString(HeaderView.of(request, deny)));
+
+        HeaderFilter allow = HeaderFilter.of(List.of("x-request-id", "authorization"), List.of("AUTHORIZATION"));
+        assertEquals("{\"X-Request-Id\":\"42\"}",
+                objectMapper.writeValueAsString(HeaderView.of(request, allow)));
+    }
+
+    @Test
+    void testHttpHeadersNamesAreLowerCased() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Custom-Header", "test-value");
+        headers.add("Accept", "text/plain");
+        headers.add("Accept", "application/json");
+
+        assertEquals("{\"x-custom-header\":\"test-value\",\"accept\":[\"text/plain\",\"application/json\"]}",
+                objectMapper.writeValueAsString(HeaderView.of(headers, HeaderFilter.all())));
+    }
+}
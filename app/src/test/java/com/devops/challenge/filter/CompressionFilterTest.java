@@ -0,0 +1,161 @@
+package com.devops.challenge.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.config.CompressionProperties;
+import com.devops.challenge.service.GzipCompressor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GzipCompressor compressor;
+    private CompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        compressor = new GzipCompressor(new CompressionProperties(), meterRegistry);
+        filter = new CompressionFilter(compressor);
+    }
+
+    @Test
+    void testLargeJsonBodyIsGzipped() throws Exception {
+        byte[] body = jsonBody(20_000);
+        MockHttpServletResponse response = respond("gzip, deflate", "application/json", body, 1000);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertNull(response.getHeader("Content-Length"));
+        assertTrue(response.getContentAsByteArray().length < body.length / 4);
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+
+        assertEquals(body.length, meterRegistry.get("devops_compression_bytes_in_total").functionCounter().count());
+        assertEquals(1, meterRegistry.get("devops_compression_ratio").summary().count());
+        assertEquals(1, meterRegistry.get("devops_compression_cpu_time").timer().count());
+    }
+
+    @Test
+    void testSmallBodyKeepsItsContentLength() throws Exception {
+        byte[] body = jsonBody(500);
+        MockHttpServletResponse response = respond("gzip", "application/json", body, body.length);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(body.length, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testBodiesAreLeftAloneWhenNotCompressible() throws Exception {
+        byte[] body = jsonBody(20_000);
+
+        MockHttpServletResponse binary = respond("gzip", "application/cbor", body, 1000);
+        assertNull(binary.getHeader("Content-Encoding"));
+        assertArrayEquals(body, binary.getContentAsByteArray());
+
+        MockHttpServletResponse notAccepted = respond("gzip;q=0, br", "application/json", body, 1000);
+        assertNull(notAccepted.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", notAccepted.getHeader("Vary"));
+        assertArrayEquals(body, notAccepted.getContentAsByteArray());
+    }
+
+    @Test
+    void testFlushedStreamLinesAreSentCompressedRightAway() throws Exception {
+        String first = "{\"id\":1}\n";
+        String second = "{\"id\":2}\n";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/batch");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType("application/x-ndjson");
+            res.getOutputStream().write(first.getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+
+            // The first line can be inflated before the body is complete
+            assertTrue(response.isCommitted());
+            assertEquals("gzip", response.getHeader("Content-Encoding"));
+            byte[] sent = response.getContentAsByteArray();
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(sent))) {
+                assertEquals(first, new String(in.readNBytes(first.length()), StandardCharsets.UTF_8));
+            }
+            res.getOutputStream().write(second.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals(first + second, new String(gunzip(response.getContentAsByteArray()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testAcceptEncodingParsing() {
+        assertTrue(GzipCompressor.acceptsGzip("gzip"));
+        assertTrue(GzipCompressor.acceptsGzip("br, GZIP;q=0.5"));
+        assertTrue(GzipCompressor.acceptsGzip("*"));
+        assertFalse(GzipCompressor.acceptsGzip("gzip;q=0"));
+        assertFalse(GzipCompressor.acceptsGzip("deflate, br"));
+        assertFalse(GzipCompressor.acceptsGzip(null));
+    }
+
+    @Test
+    void testOneShotCompressionReusesPooledDeflaters() throws IOException {
+        byte[] body = jsonBody(5_000);
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(body, gunzip(compressor.compress(body)));
+        }
+        assertEquals(3, meterRegistry.get("devops_compression_ratio").summary().count());
+    }
+
+    /**
+     * Run the filter around a handler that declares the body's length and
+     * writes it in chunks of the given size.
+     */
+    private MockHttpServletResponse respond(String acceptEncoding, String contentType, byte[] body, int chunk)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api");
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.setContentType(contentType);
+            httpResponse.setContentLength(body.length);
+            for (int offset = 0; offset < body.length; offset += chunk) {
+                res.getOutputStream().write(body, offset, Math.min(chunk, body.length - offset));
+            }
+            res.getOutputStream().flush();
+        });
+        return response;
+    }
+
+    private static byte[] jsonBody(int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < size - 40; i++) {
+            json.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\"}");
+        }
+        while (json.length() < size - 1) {
+            json.append(' ');
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.devops.challenge.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.config.IdempotencyProperties;
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.service.ApiMethod;
+import com.devops.challenge.service.IdempotencyCache;
+import com.devops.challenge.service.MetricsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private final AtomicInteger handled = new AtomicInteger();
+    private MetricsService metricsService;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        metricsService = new MetricsService(new SimpleMeterRegistry(), new MetricsProperties());
+        filter = new IdempotencyFilter(new IdempotencyCache(new IdempotencyProperties(), metricsService),
+                metricsService);
+    }
+
+    @Test
+    void testRetryIsReplayedWithoutRunningTheHandler() throws Exception {
+        MockHttpServletResponse first = perform("PUT", "key-1", echo());
+        MockHttpServletResponse retry = perform("PUT", "key-1", echo());
+
+        assertEquals(1, handled.get());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("application/json", retry.getContentType());
+        assertEquals(first.getContentAsString().length(), retry.getContentLength());
+        assertNull(first.getHeader(IdempotencyCache.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeader(IdempotencyCache.REPLAYED_HEADER));
+        metricsService.flushApiCalls();
+        assertEquals(1, metricsService.getResponseTimer(ApiMethod.PUT).count());
+
+        perform("DELETE", "key-1", echo());
+        perform("PUT", "key-2", echo());
+        perform("PUT", null, echo());
+        assertEquals(4, handled.get());
+    }
+
+    @Test
+    void testRetryWithAnotherBodyIsRejected() throws Exception {
+        perform(request("POST", "/api", "key-1", "{\"amount\": 10}"), echo());
+        MockHttpServletResponse same = perform(request("POST", "/api", "key-1", "{\"amount\": 10}"), echo());
+        MockHttpServletResponse changed = perform(request("POST", "/api", "key-1", "{\"amount\": 99}"), echo());
+
+        assertEquals(1, handled.get());
+        assertEquals("true", same.getHeader(IdempotencyCache.REPLAYED_HEADER));
+        assertEquals(422, changed.getStatus());
+        assertEquals("", changed.getContentAsString());
+    }
+
+    @Test
+    void testKeysAreNotSharedBetweenClients() throws Exception {
+        MockHttpServletRequest alice = request("POST", "/api", "key-1", null);
+        alice.addHeader("Authorization", "Bearer alice");
+        MockHttpServletRequest bob = request("POST", "/api", "key-1", null);
+        bob.addHeader("Authorization", "Bearer bob");
+        MockHttpServletRequest anonymous = request("POST", "/api", "key-1", null);
+        anonymous.setRemoteAddr("10.0.0.2");
+
+        perform(alice, echo());
+        MockHttpServletResponse other = perform(bob, echo());
+        perform(anonymous, echo());
+
+        assertEquals(3, handled.get());
+        assertNull(other.getHeader(IdempotencyCache.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testBatchRequestsAreNotReplayed() throws Exception {
+        perform("POST", "/api/batch", "key-1", echo());
+        MockHttpServletResponse retry = perform("POST", "/api/batch", "key-1", echo());
+
+        assertEquals(2, handled.get());
+        assertNull(retry.getHeader(IdempotencyCache.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testServerErrorsAreNotStored() throws Exception {
+        FilterChain failing = (req, res) -> {
+            handled.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(500);
+        };
+        perform("POST", "key-1", failing);
+        perform("POST", "key-1", failing);
+
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            entered.countDown();
+            try {
+                proceed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            echo().doFilter(req, res);
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<MockHttpServletResponse> first = executor.submit(() -> perform("POST", "key-1", slow));
+            entered.await(10, TimeUnit.SECONDS);
+            Future<MockHttpServletResponse> duplicate = executor.submit(() -> perform("POST", "key-1", slow));
+            Thread.sleep(100);
+            proceed.countDown();
+
+            assertEquals(first.get().getContentAsString(), duplicate.get().getContentAsString());
+            assertEquals("true", duplicate.get().getHeader(IdempotencyCache.REPLAYED_HEADER));
+        }
+        assertEquals(1, handled.get());
+    }
+
+    private MockHttpServletResponse perform(String method, String idempotencyKey, FilterChain chain)
+            throws Exception {
+        return perform(method, "/api", idempotencyKey, chain);
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String idempotencyKey, FilterChain chain)
+            throws Exception {
+        return perform(request(method, path, idempotencyKey, null), chain);
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String idempotencyKey, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (idempotencyKey != null) {
+            request.addHeader(IdempotencyCache.HEADER, idempotencyKey);
+        }
+        if (body != null) {
+            request.setContentType("application/json");
+            request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    // Reads the request body and answers with a body that differs on every
+    // call
+    private FilterChain echo() {
+        return (req, res) -> {
+            req.getInputStream().readAllBytes();
+            int call = handled.incrementAndGet();
+            res.setContentType("application/json");
+            res.getOutputStream().write(("{\"method\": \"" + ((HttpServletRequest) req).getMethod()
+                    + "\", \"call\": " + call + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
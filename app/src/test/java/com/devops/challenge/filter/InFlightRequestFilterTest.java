@@ -0,0 +1,71 @@
+package com.devops.challenge.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.service.MetricsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InFlightRequestFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricsService metricsService;
+    private InFlightRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(meterRegistry, new MetricsProperties());
+        filter = new InFlightRequestFilter(new InFlightRequests(metricsService, meterRegistry));
+    }
+
+    @Test
+    void testRequestIsInFlightWhileInTheChain() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("POST", "/api"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    assertEquals(1.0, inFlight("/api", "POST"));
+                    assertEquals(0.0, inFlight("/api", "GET"));
+                    assertEquals(1, metricsService.getActiveConnections());
+                });
+
+        assertEquals(0.0, inFlight("/api", "POST"));
+        assertEquals(0, metricsService.getActiveConnections());
+        assertEquals(1.0, meterRegistry.get("devops_api_active_connections_max").gauge().value());
+        assertEquals(0.0, meterRegistry.get("devops_api_active_connections_max").gauge().value());
+    }
+
+    @Test
+    void testEndpointsAndMethodsAreBounded() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"), new MockHttpServletResponse(),
+                (request, response) -> assertEquals(1.0, inFlight("/actuator", "GET")));
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/batch"), new MockHttpServletResponse(),
+                (request, response) -> assertEquals(1.0, inFlight("/api/batch", "POST")));
+        filter.doFilter(new MockHttpServletRequest("PATCH", "/api/unknown/123"), new MockHttpServletResponse(),
+                (request, response) -> assertEquals(1.0, inFlight("other", "OTHER")));
+    }
+
+    @Test
+    void testRequestIsReleasedWhenTheChainFails() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/api"),
+                new MockHttpServletResponse(), (request, response) -> {
+                    throw new IllegalStateException("handler failed");
+                }));
+
+        assertEquals(0.0, inFlight("/api", "GET"));
+        assertEquals(0, metricsService.getActiveConnections());
+    }
+
+    private double inFlight(String endpoint, String method) {
+        return meterRegistry.get("devops_api_in_flight_requests")
+                .tag("endpoint", endpoint)
+                .tag("method", method)
+                .gauge().value();
+    }
+}
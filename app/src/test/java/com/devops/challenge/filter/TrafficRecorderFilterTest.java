@@ -0,0 +1,118 @@
+package com.devops.challenge.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.config.RecorderProperties;
+import com.devops.challenge.service.TrafficRecorder;
+import com.devops.challenge.service.TrafficSegment;
+import com.devops.challenge.service.WarmupRunner;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficRecorderFilterTest {
+
+    @TempDir
+    Path directory;
+
+    private TrafficRecorder recorder;
+    private EchoProperties echoProperties;
+    private TrafficRecorderFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RecorderProperties properties = new RecorderProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxBodySize(DataSize.ofBytes(16));
+        recorder = new TrafficRecorder(properties, new SimpleMeterRegistry());
+        echoProperties = new EchoProperties();
+        echoProperties.getHeaders().setDeny(List.of("X-Internal-Token"));
+        filter = new TrafficRecorderFilter(recorder, echoProperties,
+                new StaticListableBeanFactory().getBeanProvider(WarmupRunner.class));
+    }
+
+    @Test
+    void testRecordsWhatTheHandlerRead() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api");
+        request.setQueryString("page=2");
+        request.addHeader("Content-Type", "application/json");
+        request.setContent("{\"message\": \"hello world\"}".getBytes(StandardCharsets.UTF_8));
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> req.getInputStream().readAllBytes());
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                (req, res) -> { });
+
+        List<TrafficSegment.RecordedRequest> records = readAll();
+        assertEquals(1, records.size());
+        TrafficSegment.RecordedRequest record = records.get(0);
+        assertEquals("POST", record.method());
+        assertEquals("/api", record.path());
+        assertEquals("page=2", record.query());
+        assertTrue(record.headers().contains(Map.entry("Content-Type", "application/json")));
+        assertEquals("{\"message\": \"hel", StandardCharsets.UTF_8.decode(record.body()).toString());
+        assertTrue(record.truncated());
+        assertTrue(Math.abs(record.arrivalMicros() - TrafficRecorder.currentTimeMicros()) < 60_000_000L);
+    }
+
+    @Test
+    void testBodiesTheHandlerDidNotReadAreMarkedTruncated() throws Exception {
+        MockHttpServletRequest unread = new MockHttpServletRequest("POST", "/api");
+        unread.setContent("{\"a\": 1}".getBytes(StandardCharsets.UTF_8));
+        filter.doFilter(unread, new MockHttpServletResponse(), (req, res) -> ((HttpServletResponse) res).setStatus(503));
+
+        MockHttpServletRequest read = new MockHttpServletRequest("POST", "/api");
+        read.setContent("{\"a\": 1}".getBytes(StandardCharsets.UTF_8));
+        filter.doFilter(read, new MockHttpServletResponse(), (req, res) -> req.getInputStream().readAllBytes());
+
+        List<TrafficSegment.RecordedRequest> records = readAll();
+        assertEquals(2, records.size());
+        assertEquals(0, records.get(0).body().remaining());
+        assertTrue(records.get(0).truncated());
+        assertEquals(8, records.get(1).body().remaining());
+        assertFalse(records.get(1).truncated());
+    }
+
+    @Test
+    void testCredentialAndDeniedHeadersAreNotRecorded() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api");
+        request.addHeader("Authorization", "Bearer secret");
+        request.addHeader("proxy-authorization", "Basic c2VjcmV0");
+        request.addHeader("Cookie", "session=secret");
+        request.addHeader("X-Internal-Token", "secret");
+        request.addHeader("Accept", "application/json");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+
+        List<TrafficSegment.RecordedRequest> records = readAll();
+        assertEquals(1, records.size());
+        assertEquals(List.of(Map.entry("Accept", "application/json")), records.get(0).headers());
+    }
+
+    private List<TrafficSegment.RecordedRequest> readAll() throws Exception {
+        recorder.destroy();
+        List<TrafficSegment.RecordedRequest> records = new ArrayList<>();
+        for (Path segment : TrafficSegment.list(directory)) {
+            TrafficSegment.read(segment, records::add);
+        }
+        return records;
+    }
+}
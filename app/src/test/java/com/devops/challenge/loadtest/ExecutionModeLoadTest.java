@@ -0,0 +1,60 @@
+package com.devops.challenge.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Compares p50/p99 latency and throughput of the platform and virtual thread
+ * execution modes ("app.execution.mode") at 1k and 10k concurrent
+ * connections, and checks that no application code pins a virtual thread's
+ * carrier while handling requests.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ExecutionModeLoadTest {
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        AtomicInteger pinnedInApplicationCode = new AtomicInteger();
+
+        for (String mode : List.of("platform", "virtual")) {
+            try (ConfigurableApplicationContext context = LoadTestSupport.start("app.execution.mode=" + mode);
+                 RecordingStream pinning = new RecordingStream()) {
+                pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+                pinning.onEvent("jdk.VirtualThreadPinned", event -> {
+                    if (event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                            .map(RecordedFrame::getMethod)
+                            .anyMatch(method -> method.getType().getName().startsWith("com.devops.challenge"))) {
+                        pinnedInApplicationCode.incrementAndGet();
+                    }
+                });
+                pinning.startAsync();
+
+                int port = LoadTestSupport.port(context);
+                LoadGenerator generator = new LoadGenerator(LoadTestSupport.httpClient());
+                for (int concurrency : LoadTestSupport.concurrencyLevels("1000,10000")) {
+                    results.add(generator.run(mode + " threads", concurrency,
+                            LoadTestSupport.warmup(), LoadTestSupport.duration(),
+                            worker -> LoadTestSupport.apiRequest(port, worker)));
+                }
+            }
+        }
+
+        System.out.println("\n=== Execution mode comparison ===");
+        results.forEach(result -> System.out.println(result.summary()));
+
+        assertThat(pinnedInApplicationCode.get())
+                .as("virtual threads pinned inside application code")
+                .isZero();
+    }
+}
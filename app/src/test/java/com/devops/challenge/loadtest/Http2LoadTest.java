@@ -0,0 +1,88 @@
+package com.devops.challenge.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HTTP/1.1 keep-alive against HTTP/2 multiplexing (h2c) for the same /api
+ * request mix and concurrency on the servlet stack, reporting throughput
+ * and latency along with the peak number of connections Tomcat held open.
+ * An HTTP/1.1 client needs a connection per concurrent request, while an
+ * HTTP/2 client carries them all as streams of one connection.
+ *
+ * Concurrency defaults to 64 (-Dloadtest.concurrency); above
+ * app.http2.max-concurrent-streams the HTTP/2 client queues requests.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class Http2LoadTest {
+
+    @Test
+    void compareHttp11AndHttp2() throws Exception {
+        List<String> results = new ArrayList<>();
+
+        try (ConfigurableApplicationContext context = LoadTestSupport.start("server.tomcat.mbeanregistry.enabled=true")) {
+            int port = LoadTestSupport.port(context);
+            Gauge connections = context.getBean(MeterRegistry.class).get("tomcat.connections.current").gauge();
+
+            for (int concurrency : LoadTestSupport.concurrencyLevels("64")) {
+                for (HttpClient.Version version : List.of(HttpClient.Version.HTTP_1_1, HttpClient.Version.HTTP_2)) {
+                    awaitConnectionsClosed(connections);
+                    try (HttpClient client = LoadTestSupport.httpClient(version)) {
+                        // Settle the protocol (h2c Upgrade) on one connection
+                        // before the workers start sending
+                        HttpResponse<Void> probe = client.send(LoadTestSupport.apiRequest(port, 0),
+                                HttpResponse.BodyHandlers.discarding());
+                        assertThat(probe.version()).isEqualTo(version);
+
+                        AtomicBoolean sampling = new AtomicBoolean(true);
+                        AtomicLong peak = new AtomicLong();
+                        Thread sampler = Thread.ofVirtual().start(() -> {
+                            while (sampling.get()) {
+                                peak.accumulateAndGet((long) connections.value(), Math::max);
+                                try {
+                                    Thread.sleep(100);
+                                } catch (InterruptedException e) {
+                                    return;
+                                }
+                            }
+                        });
+
+                        LoadGenerator.Result result = new LoadGenerator(client).run(
+                                version == HttpClient.Version.HTTP_2 ? "HTTP/2 (h2c)" : "HTTP/1.1 keep-alive",
+                                concurrency, LoadTestSupport.warmup(), LoadTestSupport.duration(),
+                                worker -> LoadTestSupport.apiRequest(port, worker));
+                        sampling.set(false);
+                        sampler.join();
+
+                        results.add(String.format("%s  connections=%d", result.summary(), peak.get()));
+                        assertThat(result.errors()).isZero();
+                    }
+                }
+            }
+        }
+
+        System.out.println("\n=== HTTP/1.1 vs HTTP/2 ===");
+        results.forEach(System.out::println);
+    }
+
+    // Connections of the previous client linger until Tomcat sees them close
+    private static void awaitConnectionsClosed(Gauge connections) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (connections.value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.devops.challenge.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Closed-loop HTTP load generator.
+ *
+ * A fixed number of virtual-thread workers each send requests back to back,
+ * so the number of workers is the number of concurrent requests (and, with
+ * HTTP/1.1 keep-alive, the number of open connections). Latencies of
+ * successful requests are recorded into an HdrHistogram after a warm-up
+ * period. A worker whose request is rejected with 503 can be made to back
+ * off before its next request, as a client honouring Retry-After would.
+ */
+public final class LoadGenerator {
+
+    /**
+     * Outcome of one load run.
+     */
+    public record Result(String name, int concurrency, long requests, long errors, long rejected,
+                         Duration duration, Histogram latencies) {
+
+        public double throughput() {
+            return requests / (duration.toNanos() / 1_000_000_000.0);
+        }
+
+        public double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+
+        public String summary() {
+            return String.format("%-32s conc=%6d  req/s=%10.1f  p50=%9.2f ms  p99=%9.2f ms  max=%9.2f ms  errors=%d  rejected=%d",
+                    name, concurrency, throughput(), percentileMillis(50), percentileMillis(99),
+                    latencies.getMaxValue() / 1_000_000.0, errors, rejected);
+        }
+    }
+
+    private final HttpClient client;
+    private final Duration rejectionBackoff;
+
+    public LoadGenerator(HttpClient client) {
+        this(client, Duration.ZERO);
+    }
+
+    public LoadGenerator(HttpClient client, Duration rejectionBackoff) {
+        this.client = client;
+        this.rejectionBackoff = rejectionBackoff;
+    }
+
+    /**
+     * Run the given number of concurrent workers; worker i sends requests
+     * built by {@code requests.apply(i)}.
+     */
+    public Result run(String name, int concurrency, Duration warmup, Duration duration,
+                      IntFunction<HttpRequest> requests) throws InterruptedException {
+        Recorder recorder = new Recorder(3);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder rejected = new LongAdder();
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = requests.apply(i);
+            workers.execute(() -> {
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long latency = System.nanoTime() - start;
+                    if (measuring.get()) {
+                        if (status == 503) {
+                            rejected.increment();
+                        } else if (status < 200 || status >= 300) {
+                            errors.increment();
+                        } else {
+                            recorder.recordValue(latency);
+                            completed.increment();
+                        }
+                    }
+                    if (status == 503 && !rejectionBackoff.isZero()) {
+                        try {
+                            Thread.sleep(rejectionBackoff);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+
+        Thread.sleep(warmup.toMillis());
+        recorder.reset();
+        measuring.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        measuring.set(false);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Histogram latencies = recorder.getIntervalHistogram();
+
+        running.set(false);
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        return new Result(name, concurrency, completed.sum(), errors.sum(), rejected.sum(), elapsed, latencies);
+    }
+}
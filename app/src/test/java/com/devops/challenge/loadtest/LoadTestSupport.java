@@ -0,0 +1,96 @@
+package com.devops.challenge.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.devops.challenge.DevOpsChallengeApplication;
+
+/**
+ * Helpers shared by the load tests.
+ *
+ * Load tests are skipped unless run with -Dloadtest=true, e.g.
+ * {@code mvn test -Dtest=ExecutionModeLoadTest -Dloadtest=true}.
+ * The run can be tuned with -Dloadtest.concurrency=1000,10000,
+ * -Dloadtest.warmup=10 and -Dloadtest.duration=30 (seconds). High
+ * concurrency levels need a raised open-file limit (ulimit -n), since both
+ * the client and the server side of every connection live in this JVM.
+ */
+final class LoadTestSupport {
+
+    static final String JSON_BODY = "{\"message\": \"Hello World\", \"timestamp\": \"2024-01-01T00:00:00Z\"}";
+
+    private LoadTestSupport() {
+    }
+
+    /**
+     * Start the application on a random port with load-test friendly
+     * settings plus the given properties.
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        String[] defaults = {
+                "server.port=0",
+                "server.tomcat.max-connections=20000",
+                "server.tomcat.accept-count=10000",
+                "logging.level.com.devops.challenge=WARN"
+        };
+        // Passed as command line arguments so they override application.yml
+        return new SpringApplicationBuilder(DevOpsChallengeApplication.class)
+                .run(Stream.concat(Arrays.stream(defaults), Arrays.stream(properties))
+                        .map(property -> "--" + property)
+                        .toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    static HttpClient httpClient() {
+        return httpClient(HttpClient.Version.HTTP_1_1);
+    }
+
+    static HttpClient httpClient(HttpClient.Version version) {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * The default request mix: GET and small JSON POST requests to /api.
+     */
+    static HttpRequest apiRequest(int port, int worker) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .header("X-Custom-Header", "load-test");
+        if (worker % 2 == 0) {
+            return builder.GET().build();
+        }
+        return builder.POST(HttpRequest.BodyPublishers.ofString(JSON_BODY)).build();
+    }
+
+    static List<Integer> concurrencyLevels(String defaults) {
+        return Arrays.stream(System.getProperty("loadtest.concurrency", defaults).split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .toList();
+    }
+
+    static Duration warmup() {
+        return Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+    }
+
+    static Duration duration() {
+        return Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+    }
+}
@@ -0,0 +1,120 @@
+package com.devops.challenge.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.devops.challenge.service.AdaptiveConcurrencyLimiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of /api under 3x overload with and without the adaptive
+ * concurrency limit (app.limiter).
+ *
+ * Requests POST a sizeable JSON document so that most of the time is spent
+ * in the server's handler, whose latency drives the limit.
+ *
+ * The baseline runs at -Dloadtest.capacity concurrent requests (default
+ * 16), which should be about where throughput stops growing on the test
+ * machine, and the overload runs triple that. With the limit on, excess requests are
+ * rejected with 503 and their workers back off as a client honouring
+ * Retry-After would, so the p99 of the requests that are served should stay
+ * close to the baseline instead of growing with the queue. The latencies are
+ * printed for comparison; the test asserts that nothing but 503s fails and
+ * that /api/health keeps answering throughout the overload.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class OverloadLoadTest {
+
+    private static final Duration REJECTION_BACKOFF = Duration.ofMillis(100);
+
+    private static final String LARGE_JSON_BODY = largeJsonBody(256 * 1024);
+
+    @Test
+    void compareLatencyUnderOverload() throws Exception {
+        int capacity = Integer.getInteger("loadtest.capacity", 16);
+        List<LoadGenerator.Result> results = new ArrayList<>();
+
+        try (ConfigurableApplicationContext context = LoadTestSupport.start("app.limiter.enabled=false")) {
+            int port = LoadTestSupport.port(context);
+            LoadGenerator generator = new LoadGenerator(LoadTestSupport.httpClient(), REJECTION_BACKOFF);
+            results.add(generator.run("no limit, 1x", capacity, LoadTestSupport.warmup(), LoadTestSupport.duration(),
+                    worker -> request(port)));
+            results.add(generator.run("no limit, 3x", 3 * capacity, LoadTestSupport.warmup(), LoadTestSupport.duration(),
+                    worker -> request(port)));
+        }
+
+        LoadGenerator.Result limited;
+        int finalLimit;
+        List<Integer> healthStatuses = new CopyOnWriteArrayList<>();
+        try (ConfigurableApplicationContext context = LoadTestSupport.start("app.limiter.enabled=true")) {
+            int port = LoadTestSupport.port(context);
+            HttpClient client = LoadTestSupport.httpClient();
+            AtomicBoolean overloaded = new AtomicBoolean(true);
+            Thread healthProbe = Thread.ofVirtual().start(() -> probeHealth(client, port, overloaded, healthStatuses));
+
+            LoadGenerator generator = new LoadGenerator(client, REJECTION_BACKOFF);
+            limited = generator.run("adaptive limit, 3x", 3 * capacity, LoadTestSupport.warmup(),
+                    LoadTestSupport.duration(), worker -> request(port));
+            overloaded.set(false);
+            healthProbe.join();
+            results.add(limited);
+            finalLimit = context.getBean(AdaptiveConcurrencyLimiter.class).getLimit();
+        }
+
+        System.out.println("\n=== Overload with and without the adaptive concurrency limit ===");
+        results.forEach(result -> System.out.println(result.summary()));
+        System.out.println("Concurrency limit at the end of the run: " + finalLimit);
+
+        assertThat(limited.errors()).isZero();
+        assertThat(healthStatuses).isNotEmpty().containsOnly(200);
+    }
+
+    private static void probeHealth(HttpClient client, int port, AtomicBoolean overloaded, List<Integer> statuses) {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/health"))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        while (overloaded.get()) {
+            try {
+                statuses.add(client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode());
+                Thread.sleep(250);
+            } catch (IOException e) {
+                statuses.add(-1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static HttpRequest request(int port) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LARGE_JSON_BODY))
+                .build();
+    }
+
+    private static String largeJsonBody(int size) {
+        StringBuilder body = new StringBuilder(size + 64).append('[');
+        for (int i = 0; body.length() < size; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\",\"active\":true}");
+        }
+        return body.append(']').toString();
+    }
+}
@@ -0,0 +1,163 @@
+package com.devops.challenge.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cold start of each packaging of the application, measured as the time
+ * from launching the process to its first successful /api response, and
+ * the process's resident memory at that point.
+ *
+ * Modes whose artifacts have not been built are skipped:
+ * <ul>
+ * <li>jar: the executable jar ({@code mvn package})</li>
+ * <li>aot, aot+cds: the AOT-processed application in target/cds, without
+ * and with its CDS archive ({@code mvn package -Paot})</li>
+ * <li>native: target/challenge ({@code mvn -Pnative native:compile})</li>
+ * </ul>
+ *
+ * Each mode is started -Dloadtest.startup.runs times (default 5), e.g.
+ * {@code mvn package -Paot -DskipTests && mvn test -Dtest=StartupLoadTest -Dloadtest=true}.
+ * Memory is read from /proc, so is only reported on Linux.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class StartupLoadTest {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path CDS = TARGET.resolve("cds");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    record Mode(String name, Path artifact, Path directory, List<String> command) {
+    }
+
+    record Result(String mode, List<Long> startupMillis, List<Long> rssKilobytes) {
+
+        String summary() {
+            return String.format("%-8s first /api response: median %6d ms, min %6d ms   RSS: median %s",
+                    mode, median(startupMillis), startupMillis.stream().mapToLong(Long::longValue).min().orElse(0),
+                    rssKilobytes.isEmpty() ? "n/a" : median(rssKilobytes) / 1024 + " MB");
+        }
+
+        private static long median(List<Long> values) {
+            return values.stream().sorted().toList().get(values.size() / 2);
+        }
+    }
+
+    @Test
+    void compareStartupModes() throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<Mode> modes = List.of(
+                new Mode("jar", TARGET.resolve("challenge-1.0.0.jar"), TARGET,
+                        List.of(java, "-jar", "challenge-1.0.0.jar")),
+                new Mode("aot", CDS.resolve("challenge.jar"), CDS,
+                        List.of(java, "-Dspring.aot.enabled=true", "-jar", "challenge.jar")),
+                new Mode("aot+cds", CDS.resolve("application.jsa"), CDS,
+                        List.of(java, "-XX:SharedArchiveFile=application.jsa",
+                                "-Dspring.aot.enabled=true", "-jar", "challenge.jar")),
+                new Mode("native", TARGET.resolve("challenge"), TARGET,
+                        List.of(TARGET.resolve("challenge").toAbsolutePath().toString())));
+
+        int runs = Integer.getInteger("loadtest.startup.runs", 5);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+        List<Result> results = new ArrayList<>();
+
+        for (Mode mode : modes) {
+            if (!Files.exists(mode.artifact())) {
+                System.out.println("Skipping " + mode.name() + ": " + mode.artifact() + " not built");
+                continue;
+            }
+            List<Long> startupMillis = new ArrayList<>();
+            List<Long> rssKilobytes = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                int port = freePort();
+                List<String> command = Stream.concat(mode.command().stream(),
+                        Stream.of("--server.port=" + port, "--logging.level.root=WARN")).toList();
+
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(command)
+                        .directory(mode.directory().toFile())
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                try {
+                    awaitFirstResponse(client, port, process);
+                    startupMillis.add((System.nanoTime() - start) / 1_000_000);
+                    long rss = rssKilobytes(process.pid());
+                    if (rss > 0) {
+                        rssKilobytes.add(rss);
+                    }
+                } finally {
+                    process.destroy();
+                    process.waitFor();
+                }
+            }
+            results.add(new Result(mode.name(), startupMillis, rssKilobytes));
+        }
+
+        System.out.println("\n=== Startup time to first /api response (" + runs + " runs each) ===");
+        results.forEach(result -> System.out.println(result.summary()));
+
+        assertThat(results).isNotEmpty();
+    }
+
+    private static void awaitFirstResponse(HttpClient client, int port, Process process) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Process exited with " + process.exitValue() + " before serving /api");
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No /api response within " + TIMEOUT);
+    }
+
+    /**
+     * VmRSS of the process, or -1 where /proc is not available.
+     */
+    private static long rssKilobytes(long pid) {
+        try {
+            return Files.readAllLines(Path.of("/proc", Long.toString(pid), "status")).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Arrays.stream(line.split("\\s+")).skip(1).findFirst().orElse("-1"))
+                    .mapToLong(Long::parseLong)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
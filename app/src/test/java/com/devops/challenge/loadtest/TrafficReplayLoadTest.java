@@ -0,0 +1,209 @@
+package com.devops.challenge.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.devops.challenge.service.TrafficSegment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Replays traffic recorded with app.recorder.enabled=true against a local
+ * instance, at the recorded pace or scaled, and reports throughput and
+ * latency percentiles.
+ *
+ * Requests are sent open-loop, each at its recorded arrival time divided by
+ * -Dreplay.speed (default 1, e.g. 2 for twice the original rate), and
+ * latency is measured from that intended send time, so a slow server shows
+ * up as latency rather than as a lower send rate. Segments are mapped and
+ * request bodies sent straight from the mapping. Requests whose body was
+ * recorded truncated are skipped and counted.
+ *
+ * Reads the segments in -Dreplay.directory (default "recordings") and sends
+ * them to -Dreplay.target, or to an instance started in-process when no
+ * target is given, e.g.
+ * {@code mvn test -Dtest=TrafficReplayLoadTest -Dloadtest=true -Dreplay.speed=4}.
+ * TrafficReplay in benchmarks.jar replays against a running instance
+ * without a build tree.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class TrafficReplayLoadTest {
+
+    // Set by the client itself, or not allowed to be set by it
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade", "keep-alive", "te",
+            "transfer-encoding", "http2-settings");
+
+    @Test
+    void replayRecordedTraffic() throws Exception {
+        Path directory = Path.of(System.getProperty("replay.directory", "recordings"));
+        List<Path> segments = Files.isDirectory(directory) ? TrafficSegment.list(directory) : List.of();
+        assumeTrue(!segments.isEmpty(), "No traffic segments in " + directory.toAbsolutePath());
+        double speed = Double.parseDouble(System.getProperty("replay.speed", "1"));
+        assertThat(speed).isPositive();
+
+        String target = System.getProperty("replay.target");
+        ConfigurableApplicationContext context = target == null ? LoadTestSupport.start() : null;
+        try {
+            String base = target != null ? target : "http://localhost:" + LoadTestSupport.port(context);
+            Replay replay = new Replay(LoadTestSupport.httpClient(), base, speed);
+            for (Path segment : segments) {
+                TrafficSegment.read(segment, replay::send);
+            }
+            replay.finish();
+
+            System.out.println("\n=== Replay of " + segments.size() + " segment(s) from " + directory + " at "
+                    + speed + "x ===");
+            System.out.println(replay.summary());
+            assertThat(replay.sent.sum()).isPositive();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static final class Replay {
+
+        final HttpClient client;
+        final String base;
+        final double speed;
+        final Recorder latencies = new Recorder(3);
+        final LongAdder sent = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder truncated = new LongAdder();
+        final Phaser inFlight = new Phaser(1);
+
+        long startNanos;
+        long firstArrival = -1;
+        long lastArrival;
+        long finishNanos;
+
+        Replay(HttpClient client, String base, double speed) {
+            this.client = client;
+            this.base = base;
+            this.speed = speed;
+        }
+
+        void send(TrafficSegment.RecordedRequest record) {
+            // Only part of the body was recorded, so sending it would be a
+            // different request
+            if (record.truncated()) {
+                truncated.increment();
+                return;
+            }
+            if (firstArrival < 0) {
+                firstArrival = record.arrivalMicros();
+                startNanos = System.nanoTime();
+            }
+            lastArrival = Math.max(lastArrival, record.arrivalMicros());
+            long due = startNanos + (long) ((record.arrivalMicros() - firstArrival) * 1_000 / speed);
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+
+            HttpRequest request;
+            try {
+                request = request(record);
+            } catch (IllegalArgumentException e) {
+                failed.increment();
+                return;
+            }
+            sent.increment();
+            inFlight.register();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null) {
+                    failed.increment();
+                } else {
+                    latencies.recordValue(Math.max(0, System.nanoTime() - due));
+                    if (response.statusCode() >= 400) {
+                        errors.increment();
+                    }
+                }
+                inFlight.arriveAndDeregister();
+            });
+        }
+
+        void finish() {
+            inFlight.arriveAndAwaitAdvance();
+            finishNanos = System.nanoTime();
+        }
+
+        String summary() {
+            Histogram histogram = latencies.getIntervalHistogram();
+            Duration recorded = Duration.ofNanos((lastArrival - firstArrival) * 1_000);
+            Duration replayed = Duration.ofNanos(finishNanos - startNanos);
+            return String.format("requests=%d over %.1f s (recorded over %.1f s)  req/s=%.1f%n"
+                            + "p50=%.2f ms  p90=%.2f ms  p99=%.2f ms  p99.9=%.2f ms  max=%.2f ms  "
+                            + "4xx/5xx=%d  failed=%d  skipped truncated=%d",
+                    sent.sum(), replayed.toMillis() / 1000.0, recorded.toMillis() / 1000.0,
+                    sent.sum() / Math.max(1e-9, replayed.toNanos() / 1e9),
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1e6, errors.sum(), failed.sum(), truncated.sum());
+        }
+
+        private HttpRequest request(TrafficSegment.RecordedRequest record) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + record.path()
+                            + (record.query() != null ? "?" + record.query() : "")))
+                    .timeout(Duration.ofSeconds(60))
+                    .method(record.method(), body(record.body()));
+            for (Map.Entry<String, String> header : record.headers()) {
+                if (!SKIPPED_HEADERS.contains(header.getKey().toLowerCase())) {
+                    builder.header(header.getKey(), header.getValue());
+                }
+            }
+            return builder.build();
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        /**
+         * A body publisher that hands the client the mapped body itself.
+         */
+        private static HttpRequest.BodyPublisher body(ByteBuffer body) {
+            if (!body.hasRemaining()) {
+                return HttpRequest.BodyPublishers.noBody();
+            }
+            return HttpRequest.BodyPublishers.fromPublisher(subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+                private boolean done;
+
+                @Override
+                public void request(long n) {
+                    if (!done && n > 0) {
+                        done = true;
+                        subscriber.onNext(body.duplicate());
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    done = true;
+                }
+            }), body.remaining());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.devops.challenge.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Side-by-side throughput of the servlet stack (Spring MVC on Tomcat) and
+ * the "reactive" profile (WebFlux on Netty) for the same /api request mix.
+ * Before loading, checks that both stacks return byte-identical JSON for the
+ * same request (apart from the timestamp and the port in the Host header).
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class WebStackLoadTest {
+
+    private static final String TIMESTAMP_LINE = "(?m)^\\s*\"timestamp\" : \"[^\"]*\",?$";
+
+    @Test
+    void compareServletAndReactiveStacks() throws Exception {
+        Map<String, String> bodies = new LinkedHashMap<>();
+        List<LoadGenerator.Result> results = new ArrayList<>();
+
+        for (String profile : List.of("default", "reactive")) {
+            try (ConfigurableApplicationContext context = LoadTestSupport.start("spring.profiles.active=" + profile)) {
+                int port = LoadTestSupport.port(context);
+                HttpClient client = LoadTestSupport.httpClient();
+                bodies.put(profile, client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api?x=1"))
+                                .header("Content-Type", "application/json")
+                                .header("X-Custom-Header", "compare")
+                                .POST(HttpRequest.BodyPublishers.ofString(LoadTestSupport.JSON_BODY))
+                                .build(), HttpResponse.BodyHandlers.ofString())
+                        .body().replaceAll(TIMESTAMP_LINE, "").replace("localhost:" + port, "localhost"));
+
+                LoadGenerator generator = new LoadGenerator(client);
+                for (int concurrency : LoadTestSupport.concurrencyLevels("100,1000")) {
+                    results.add(generator.run(profile + " stack", concurrency,
+                            LoadTestSupport.warmup(), LoadTestSupport.duration(),
+                            worker -> LoadTestSupport.apiRequest(port, worker)));
+                }
+            }
+        }
+
+        System.out.println("\n=== Servlet vs reactive stack ===");
+        results.forEach(result -> System.out.println(result.summary()));
+
+        assertThat(bodies.get("reactive")).isEqualTo(bodies.get("default"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.devops.challenge.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.config.AccessLogProperties;
+import com.devops.challenge.filter.AccessLogFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogTest {
+
+    @Test
+    void testRecordsAreWrittenAsJsonLines() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AccessLog accessLog = new AccessLog(new AccessLogProperties(), new SimpleMeterRegistry(), output);
+
+        accessLog.record("GET", "/api", 200, TimeUnit.MICROSECONDS.toNanos(412), 345);
+        accessLog.record("POST", "/api?q=\"x\"", 503, 0, 0);
+        accessLog.destroy();
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].matches("\\{\"timestamp\":\"[0-9T:.\\-]+Z\",\"method\":\"GET\",\"uri\":\"/api\","
+                + "\"status\":200,\"durationMicros\":412,\"bytes\":345}"), lines[0]);
+        assertTrue(lines[1].contains("\"uri\":\"/api?q=\\\"x\\\"\",\"status\":503"), lines[1]);
+        assertEquals(2, accessLog.getWritten());
+    }
+
+    @Test
+    void testFullBufferDropsRecords() {
+        AccessLogBuffer buffer = new AccessLogBuffer(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(0, "GET", "/api", 200, 0, i));
+        }
+        assertFalse(buffer.offer(0, "GET", "/api", 200, 0, 4));
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain((timestamp, method, uri, status, duration, bytes) -> drained.add(bytes), 2));
+        assertTrue(buffer.offer(0, "GET", "/api", 200, 0, 5));
+        assertEquals(3, buffer.drain((timestamp, method, uri, status, duration, bytes) -> drained.add(bytes), 10));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 5L), drained);
+    }
+
+    @Test
+    void testDroppedRecordsAreCounted() throws Exception {
+        // The writer stalls on its first batch, so the buffer fills up behind it
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        OutputStream output = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                stalled.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        AccessLogProperties properties = new AccessLogProperties();
+        properties.setBufferSize(4);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AccessLog accessLog = new AccessLog(properties, meterRegistry, output);
+
+        accessLog.record("GET", "/api", 200, 0, 0);
+        assertTrue(stalled.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 99; i++) {
+            accessLog.record("GET", "/api", 200, 0, 0);
+        }
+        resume.countDown();
+        accessLog.destroy();
+
+        assertEquals(95, accessLog.getDropped());
+        assertEquals(5, accessLog.getWritten());
+        assertEquals(accessLog.getDropped(),
+                meterRegistry.get("devops_access_log_dropped_total").functionCounter().count());
+    }
+
+    @Test
+    void testFilterRecordsStatusAndBodySize() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AccessLog accessLog = new AccessLog(new AccessLogProperties(), new SimpleMeterRegistry(), output);
+        AccessLogFilter filter = new AccessLogFilter(accessLog);
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    ((HttpServletResponse) response).setStatus(201);
+                    response.getOutputStream().write("{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+                });
+        accessLog.destroy();
+
+        String line = output.toString(StandardCharsets.UTF_8);
+        assertTrue(line.contains("\"method\":\"PUT\",\"uri\":\"/api\",\"status\":201,"), line);
+        assertTrue(line.endsWith(",\"bytes\":11}\n"), line);
+    }
+}
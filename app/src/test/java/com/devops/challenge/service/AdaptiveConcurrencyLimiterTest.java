@@ -0,0 +1,163 @@
+package com.devops.challenge.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.config.LimiterProperties;
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.filter.ConcurrencyLimitFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricsService metricsService;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(meterRegistry, new MetricsProperties());
+
+        LimiterProperties properties = new LimiterProperties();
+        properties.setEnabled(true);
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        limiter = new AdaptiveConcurrencyLimiter(metricsService, meterRegistry, properties);
+    }
+
+    @Test
+    void testRequestsOverTheLimitAreRejected() {
+        acquire(10);
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1.0, meterRegistry.get("devops_api_requests_rejected_total").functionCounter().count());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsSteady() {
+        acquire(10);
+
+        for (int window = 0; window < 5; window++) {
+            recordWindow(1);
+            limiter.updateLimit();
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+        assertEquals(limiter.getLimit(), meterRegistry.get("devops_api_concurrency_limit").gauge().value());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        acquire(10);
+        recordWindow(1);
+        limiter.updateLimit();
+        int steadyLimit = limiter.getLimit();
+
+        for (int window = 0; window < 5; window++) {
+            recordWindow(20);
+            limiter.updateLimit();
+        }
+
+        assertTrue(limiter.getLimit() < steadyLimit, "limit " + limiter.getLimit() + " vs " + steadyLimit);
+    }
+
+    @Test
+    void testLimitShrinksWhenRequestsQueueForAThread() {
+        acquire(10);
+        recordWindow(1);
+        limiter.updateLimit();
+        int steadyLimit = limiter.getLimit();
+
+        // Response times stay flat, but requests wait longer and longer for a thread
+        for (int window = 0; window < 5; window++) {
+            for (int i = 0; i < 20; i++) {
+                metricsService.recordQueueWait(TimeUnit.MILLISECONDS.toNanos(20));
+            }
+            recordWindow(1);
+            limiter.updateLimit();
+        }
+
+        assertTrue(limiter.getLimit() < steadyLimit, "limit " + limiter.getLimit() + " vs " + steadyLimit);
+    }
+
+    @Test
+    void testBatchLatencyIsLeftOutOfTheSample() {
+        acquire(10);
+        recordWindow(1);
+        limiter.updateLimit();
+        int steadyLimit = limiter.getLimit();
+
+        for (int window = 0; window < 5; window++) {
+            for (int i = 0; i < 20; i++) {
+                metricsService.recordApiCall(ApiMethod.BATCH, TimeUnit.SECONDS.toNanos(2));
+            }
+            recordWindow(1);
+            limiter.updateLimit();
+        }
+
+        assertTrue(limiter.getLimit() >= steadyLimit, "limit " + limiter.getLimit() + " vs " + steadyLimit);
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenUnused() {
+        acquire(2);
+
+        for (int window = 0; window < 5; window++) {
+            recordWindow(1);
+            limiter.updateLimit();
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testFilterRejectsApiRequestsButAdmitsHealthChecks() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter,
+                new StaticListableBeanFactory().getBeanProvider(WarmupRunner.class));
+        acquire(10);
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api"), rejected,
+                (request, response) -> ((MockHttpServletResponse) response).setStatus(200));
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/health"), health,
+                (request, response) -> ((MockHttpServletResponse) response).setStatus(200));
+        assertEquals(200, health.getStatus());
+
+        limiter.release();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api"), admitted,
+                (request, response) -> ((MockHttpServletResponse) response).setStatus(200));
+        assertEquals(200, admitted.getStatus());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    private void acquire(int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+    }
+
+    private void recordWindow(long latencyMillis) {
+        for (int i = 0; i < 20; i++) {
+            metricsService.recordApiCall(ApiMethod.GET, TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.devops.challenge.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.config.MetricsProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EchoBodyBudgetTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testReservations() {
+        EchoBodyBudget budget = budget(new EchoProperties());
+
+        // JSON and text bodies
+        assertEquals(4000, budget.reservationFor(1000, true));
+        assertEquals(0, budget.reservationFor(DataSize.ofMegabytes(2).toBytes(), true));
+        assertEquals(4 * (DataSize.ofMegabytes(1).toBytes() + 1), budget.reservationFor(-1, true));
+        // Binary bodies never spill
+        assertEquals(DataSize.ofMegabytes(8).toBytes(), budget.reservationFor(DataSize.ofMegabytes(2).toBytes(), false));
+        assertEquals(4 * (DataSize.ofMegabytes(10).toBytes() + 1), budget.reservationFor(-1, false));
+        assertEquals(DataSize.ofMegabytes(64).toBytes(), budget.reservationFor(DataSize.ofMegabytes(20).toBytes(), false));
+        assertEquals(DataSize.ofMegabytes(64).toBytes(), budget.reservationFor(Long.MAX_VALUE, false));
+
+        EchoProperties streaming = new EchoProperties();
+        streaming.setMode(EchoProperties.Mode.STREAMING);
+        assertEquals(0, budget(streaming).reservationFor(1000, true));
+        assertEquals(4000, budget(streaming).reservationFor(1000, false));
+    }
+
+    @Test
+    void testConcurrentBodiesAtTheSpillThresholdFillTheBudget() throws Exception {
+        // Room for exactly four bodies at the threshold, by their heap footprint
+        long threshold = DataSize.ofMegabytes(1).toBytes();
+        EchoProperties echoProperties = new EchoProperties();
+        echoProperties.getBuffering().setMemoryBudget(
+                DataSize.ofBytes(4 * threshold * EchoBodyBudget.HEAP_BYTES_PER_BODY_BYTE));
+        echoProperties.getBuffering().setWaitTimeout(Duration.ofMillis(200));
+        EchoBodyBudget budget = budget(echoProperties);
+        int bytes = budget.reservationFor(threshold, true);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> requests = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 6; i++) {
+                requests.add(executor.submit(() -> {
+                    start.await();
+                    return budget.acquire(bytes);
+                }));
+            }
+            start.countDown();
+        }
+        long admitted = 0;
+        for (Future<Boolean> request : requests) {
+            admitted += request.get() ? 1 : 0;
+        }
+        assertEquals(4, admitted);
+        assertEquals(budget.getCapacity(), budget.getUsed());
+        assertEquals(2, meterRegistry.get("devops_echo_memory_budget_rejected_total").counter().count());
+    }
+
+    @Test
+    void testRequestsWaitForBudgetAndAreRejectedAfterTheTimeout() throws Exception {
+        EchoProperties echoProperties = new EchoProperties();
+        echoProperties.getBuffering().setMemoryBudget(DataSize.ofBytes(100));
+        echoProperties.getBuffering().setWaitTimeout(Duration.ofMillis(50));
+        EchoBodyBudget budget = budget(echoProperties);
+
+        assertTrue(budget.acquire(80));
+        assertEquals(80, meterRegistry.get("devops_echo_memory_budget_used_bytes").gauge().value());
+        assertEquals(0.8, meterRegistry.get("devops_echo_memory_budget_utilization").gauge().value(), 1e-9);
+        assertFalse(budget.acquire(30));
+        assertEquals(1, meterRegistry.get("devops_echo_memory_budget_rejected_total").counter().count());
+
+        echoProperties.getBuffering().setWaitTimeout(Duration.ofSeconds(10));
+        EchoBodyBudget waiting = budget(echoProperties);
+        assertTrue(waiting.acquire(80));
+        CountDownLatch started = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Boolean> second = executor.submit(() -> {
+                started.countDown();
+                return waiting.acquire(30);
+            });
+            started.await(10, TimeUnit.SECONDS);
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+
+            waiting.release(80);
+            assertTrue(second.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(30, waiting.getUsed());
+    }
+
+    @Test
+    void testSpillsAreCounted() {
+        EchoBodyBudget budget = budget(new EchoProperties());
+        budget.recordSpill(5000);
+        budget.recordSpill(3000);
+
+        assertEquals(2, meterRegistry.get("devops_echo_spilled_requests_total").counter().count());
+        assertEquals(8000, meterRegistry.get("devops_echo_spilled_bytes_total").counter().count());
+    }
+
+    private EchoBodyBudget budget(EchoProperties echoProperties) {
+        return new EchoBodyBudget(echoProperties, new MetricsService(meterRegistry, new MetricsProperties()));
+    }
+}
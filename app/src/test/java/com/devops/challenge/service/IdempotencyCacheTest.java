@@ -0,0 +1,183 @@
+package com.devops.challenge.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.devops.challenge.config.IdempotencyProperties;
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.service.IdempotencyCache.BodyDigest;
+import com.devops.challenge.service.IdempotencyCache.RequestFingerprint;
+import com.devops.challenge.service.IdempotencyCache.StoredResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+
+    private static final String CLIENT = IdempotencyCache.client(null, "127.0.0.1");
+    private static final RequestFingerprint REQUEST = new BodyDigest().finish(-1);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testStoredResponseIsReturnedToLaterClaims() throws Exception {
+        IdempotencyCache cache = cache(new IdempotencyProperties());
+        String key = IdempotencyCache.key("PUT", "/api", "page=1", CLIENT, "abc");
+
+        CompletableFuture<StoredResponse> first = new CompletableFuture<>();
+        assertNull(cache.claim(key, first));
+        CompletableFuture<StoredResponse> duplicate = cache.claim(key, new CompletableFuture<>());
+        assertSame(first, duplicate);
+        assertFalse(duplicate.isDone());
+
+        byte[] body = "{\"method\": \"PUT\"}".getBytes(StandardCharsets.UTF_8);
+        cache.store(key, first, REQUEST, 200, "application/json", body, body.length);
+
+        StoredResponse stored = cache.claim(key, new CompletableFuture<>()).get();
+        assertEquals(200, stored.status());
+        assertEquals("application/json", stored.contentType());
+        assertEquals("{\"method\": \"PUT\"}", StandardCharsets.UTF_8.decode(stored.body()).toString());
+        assertNull(cache.claim(IdempotencyCache.key("DELETE", "/api", "page=1", CLIENT, "abc"),
+                new CompletableFuture<>()));
+
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("coalesced"));
+        assertEquals(2, requests("miss"));
+        assertEquals(body.length, meterRegistry.get("devops_idempotency_stored_bytes_total").counter().count());
+        assertTrue(meterRegistry.get("devops_idempotency_bytes").gauge().value() > body.length);
+    }
+
+    @Test
+    void testReleasedKeyCanBeClaimedAgain() throws Exception {
+        IdempotencyCache cache = cache(new IdempotencyProperties());
+        String key = IdempotencyCache.key("POST", "/api", null, CLIENT, "abc");
+
+        CompletableFuture<StoredResponse> first = new CompletableFuture<>();
+        assertNull(cache.claim(key, first));
+        CompletableFuture<StoredResponse> waiting = cache.claim(key, new CompletableFuture<>());
+        cache.release(key, first);
+
+        assertNull(waiting.get());
+        assertNull(cache.claim(key, new CompletableFuture<>()));
+        assertEquals(1, meterRegistry.get("devops_idempotency_not_stored_total").counter().count());
+    }
+
+    @Test
+    void testResponsesOverTheEntryLimitAreNotStored() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntrySize(DataSize.ofBytes(8));
+        IdempotencyCache cache = cache(properties);
+        String key = IdempotencyCache.key("POST", "/api", null, CLIENT, "abc");
+
+        CompletableFuture<StoredResponse> first = new CompletableFuture<>();
+        cache.claim(key, first);
+        cache.store(key, first, REQUEST, 200, "text/plain", new byte[9], 9);
+
+        assertNull(first.getNow(null));
+        assertNull(cache.claim(key, new CompletableFuture<>()));
+    }
+
+    @Test
+    void testSizeIsBoundedOffHeap() throws Exception {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxSize(DataSize.ofKilobytes(64));
+        properties.setOffHeap(true);
+        IdempotencyCache cache = cache(properties);
+
+        byte[] body = new byte[1024];
+        for (int i = 0; i < 200; i++) {
+            String key = IdempotencyCache.key("POST", "/api", null, CLIENT, "key-" + i);
+            CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+            cache.claim(key, pending);
+            cache.store(key, pending, REQUEST, 200, "application/octet-stream", body, body.length);
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.getWeightedSize() <= 64 * 1024, "weighted size " + cache.getWeightedSize());
+        assertTrue(cache.getEntryCount() < 200);
+        // The removal listener runs asynchronously, after cleanUp returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sizeEvictions() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(sizeEvictions() > 0);
+
+        String key = IdempotencyCache.key("POST", "/api", null, CLIENT, "last");
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        cache.claim(key, pending);
+        byte[] text = "stored off-heap".getBytes(StandardCharsets.UTF_8);
+        cache.store(key, pending, REQUEST, 201, "text/plain", text, text.length);
+        StoredResponse stored = pending.get();
+        assertTrue(stored.body().isDirect());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stored.writeTo(out);
+        assertEquals("stored off-heap", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testKeysAreScopedToTheClient() {
+        String bearer = IdempotencyCache.client("Bearer a", "10.0.0.1");
+        assertEquals(bearer, IdempotencyCache.client("Bearer a", "10.0.0.2"));
+        assertNotEquals(bearer, IdempotencyCache.client("Bearer b", "10.0.0.1"));
+        assertFalse(bearer.contains("Bearer"));
+        assertNotEquals(IdempotencyCache.client(null, "10.0.0.1"), IdempotencyCache.client(null, "10.0.0.2"));
+        assertNotEquals(IdempotencyCache.key("POST", "/api", null, bearer, "abc"),
+                IdempotencyCache.key("POST", "/api", null, CLIENT, "abc"));
+    }
+
+    @Test
+    void testRetriesWithAnotherBodyDoNotMatch() {
+        IdempotencyCache cache = cache(new IdempotencyProperties());
+        String key = IdempotencyCache.key("POST", "/api", null, CLIENT, "abc");
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        cache.claim(key, pending);
+        cache.store(key, pending, fingerprint("{\"a\": 1}"), 200, "application/json", new byte[2], 2);
+        StoredResponse stored = pending.getNow(null);
+
+        assertTrue(cache.matches(stored, fingerprint("{\"a\": 1}")));
+        assertFalse(cache.matches(stored, fingerprint("{\"a\": 2}")));
+        assertFalse(cache.matches(stored, fingerprint("{\"a\": 1}  ")));
+        assertEquals(2, meterRegistry.get("devops_idempotency_mismatched_total").counter().count());
+    }
+
+    @Test
+    void testKeysAreValidated() {
+        assertTrue(IdempotencyCache.isValidKey("8e03978e-40d5-43e8-bc93-6894a57f9324"));
+        assertFalse(IdempotencyCache.isValidKey(null));
+        assertFalse(IdempotencyCache.isValidKey(""));
+        assertFalse(IdempotencyCache.isValidKey("k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1)));
+        assertTrue(IdempotencyCache.isIdempotentMethod("DELETE"));
+        assertFalse(IdempotencyCache.isIdempotentMethod("GET"));
+    }
+
+    private static RequestFingerprint fingerprint(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        BodyDigest digest = new BodyDigest();
+        digest.update(bytes, 0, bytes.length);
+        return digest.finish(bytes.length);
+    }
+
+    private IdempotencyCache cache(IdempotencyProperties properties) {
+        return new IdempotencyCache(properties, new MetricsService(meterRegistry, new MetricsProperties()));
+    }
+
+    private double sizeEvictions() {
+        return meterRegistry.get("devops_idempotency_evictions_total").tag("cause", "size").counter().count();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("devops_idempotency_requests_total").tag("result", result).counter().count();
+    }
+}
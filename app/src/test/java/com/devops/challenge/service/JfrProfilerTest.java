@@ -0,0 +1,115 @@
+package com.devops.challenge.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.config.ProfilingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrProfilerTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    private JfrProfiler profiler;
+
+    @AfterEach
+    void tearDown() {
+        if (profiler != null) {
+            profiler.destroy();
+        }
+    }
+
+    @Test
+    void testRecordingSummarisesApiEventsAndSamples() throws IOException {
+        profiler = new JfrProfiler(properties());
+        assertNull(profiler.summary());
+
+        JfrProfiler.ProfileSummary started = profiler.start(Duration.ofMinutes(1));
+        assertTrue(started.running());
+        assertEquals(60, started.durationSeconds());
+
+        // Stage executions are all timed while the recording runs, even at a zero sample rate
+        MetricsProperties metricsProperties = new MetricsProperties();
+        metricsProperties.getStageTiming().setSampleRate(0);
+        StageTimers stageTimers = new StageTimers(new SimpleMeterRegistry(), metricsProperties);
+
+        List<byte[]> allocations = new ArrayList<>();
+        long deadline = System.nanoTime() + 1_500_000_000L;
+        long sum = 0;
+        while (System.nanoTime() < deadline) {
+            ApiRequestEvent event = new ApiRequestEvent();
+            event.begin();
+            long start = stageTimers.start();
+            for (int i = 0; i < 100_000; i++) {
+                sum += Long.numberOfTrailingZeros(sum + i);
+            }
+            allocations.add(new byte[16 * 1024]);
+            if (allocations.size() > 64) {
+                allocations.clear();
+            }
+            stageTimers.stop(PipelineStage.BUILD_RESPONSE, start);
+            event.end();
+            event.method = "POST";
+            event.uri = "/api";
+            event.status = 200;
+            event.requestBytes = 42;
+            event.commit();
+        }
+        assertTrue(sum != 0);
+
+        JfrProfiler.ProfileSummary summary = profiler.stop();
+        assertFalse(summary.running());
+        assertFalse(profiler.isRunning());
+        assertTrue(summary.requests().get("POST").count() > 0);
+        assertTrue(summary.stages().get(PipelineStage.BUILD_RESPONSE.tagValue()).count() > 0);
+        assertTrue(summary.executionSamples() > 0);
+        assertFalse(summary.hottestMethods().isEmpty());
+        assertFalse(summary.topAllocations().isEmpty());
+        assertTrue(summary.hottestMethods().size() <= 3);
+
+        assertNotNull(summary.dumpFile());
+        assertTrue(Files.size(Path.of(summary.dumpFile())) > 0);
+        assertEquals(summary.requests().get("POST").count(), profiler.summary().requests().get("POST").count());
+    }
+
+    @Test
+    void testOnlyOneRecordingRunsAtATime() {
+        profiler = new JfrProfiler(properties());
+        profiler.start(null);
+        assertThrows(IllegalStateException.class, () -> profiler.start(Duration.ofSeconds(5)));
+
+        // Unset durations default, and long ones are capped
+        assertEquals(30, profiler.summary().durationSeconds());
+        profiler.stop();
+        assertEquals(120, profiler.start(Duration.ofHours(1)).durationSeconds());
+        profiler.stop();
+        assertFalse(profiler.isRunning());
+    }
+
+    private ProfilingProperties properties() {
+        ProfilingProperties properties = new ProfilingProperties();
+        properties.setDefaultDuration(Duration.ofSeconds(30));
+        properties.setMaxDuration(Duration.ofMinutes(2));
+        properties.setDumpDirectory(dumpDirectory.toString());
+        properties.setTopEntries(3);
+        return properties;
+    }
+}
@@ -0,0 +1,205 @@
+package com.devops.challenge.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.config.MetricsProperties.CustomMeters.OverflowPolicy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.noop.NoopCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MetricsServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricsService metricsService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(meterRegistry, new MetricsProperties());
+    }
+
+    @Test
+    void testRecordApiCallUpdatesTaggedMeters() {
+        metricsService.recordApiCall(ApiMethod.GET, TimeUnit.MILLISECONDS.toNanos(5));
+        metricsService.recordApiCall(ApiMethod.GET, TimeUnit.MILLISECONDS.toNanos(7));
+        metricsService.recordApiCall(ApiMethod.POST, TimeUnit.MILLISECONDS.toNanos(3));
+        metricsService.flushApiCalls();
+
+        assertEquals(2.0, meterRegistry.get("devops_api_requests_total").tag("method", "GET").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("devops_api_requests_total").tag("method", "POST").functionCounter().count());
+        assertEquals(2, meterRegistry.get("devops_api_response_time").tag("method", "GET").timer().count());
+        assertEquals(12.0, meterRegistry.get("devops_api_response_time").tag("method", "GET").timer()
+                .totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(3, metricsService.getTotalRequests());
+    }
+
+    @Test
+    void testLegacyMetricNamesAreKept() {
+        metricsService.recordApiCall(ApiMethod.GET, 1);
+        metricsService.recordApiCall(ApiMethod.PUT, 1);
+        metricsService.recordApiCall(ApiMethod.DELETE, 1);
+        metricsService.flushApiCalls();
+
+        assertEquals(3.0, meterRegistry.get("api_calls_total").functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("devops_api_calls_total").tag("service", "devops-challenge")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("api_get_requests_total").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("api_post_requests_total").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("api_put_requests_total").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("api_delete_requests_total").functionCounter().count());
+        assertNotNull(meterRegistry.get("devops_api_total_requests").gauge());
+    }
+
+    @Test
+    void testApiCallsAreBatchedUntilFlushed() {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getBatching().setBatchSize(4);
+        properties.getBatching().setMaxDelay(Duration.ofHours(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsService batched = new MetricsService(meterRegistry, properties);
+        Timer getTimer = meterRegistry.get("devops_api_response_time").tag("method", "GET").timer();
+
+        for (int i = 0; i < 3; i++) {
+            batched.recordApiCall(ApiMethod.GET, TimeUnit.MILLISECONDS.toNanos(2));
+        }
+        assertEquals(0, getTimer.count());
+
+        // The fourth call fills the batch
+        batched.recordApiCall(ApiMethod.GET, TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals(4, getTimer.count());
+        assertEquals(4.0, meterRegistry.get("devops_api_requests_total").tag("method", "GET").functionCounter().count());
+
+        batched.recordApiCall(ApiMethod.POST, TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(0, meterRegistry.get("devops_api_response_time").tag("method", "POST").timer().count());
+        assertEquals(5, batched.getTotalRequests());
+        assertEquals(1, meterRegistry.get("devops_api_response_time").tag("method", "POST").timer().count());
+        assertEquals(8.0, getTimer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testIdleBatchIsPublishedWithoutAScrape() throws InterruptedException {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getBatching().setBatchSize(64);
+        properties.getBatching().setMaxDelay(Duration.ofMillis(50));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsService batched = new MetricsService(meterRegistry, properties);
+        try {
+            Timer getTimer = meterRegistry.get("devops_api_response_time").tag("method", "GET").timer();
+
+            // One call, and no further call on its stripe nor a flush
+            batched.recordApiCall(ApiMethod.GET, TimeUnit.MILLISECONDS.toNanos(2));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (getTimer.count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, getTimer.count());
+            assertEquals(1.0, meterRegistry.get("devops_api_requests_total").tag("method", "GET").functionCounter().count());
+        } finally {
+            batched.destroy();
+        }
+    }
+
+    @Test
+    void testApiCallsAreRecordedDirectlyWithoutBatching() {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getBatching().setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsService direct = new MetricsService(meterRegistry, properties);
+
+        direct.recordApiCall(ApiMethod.PUT, TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(1, meterRegistry.get("devops_api_response_time").tag("method", "PUT").timer().count());
+        assertEquals(1.0, meterRegistry.get("devops_api_requests_total").tag("method", "PUT").functionCounter().count());
+    }
+
+    @Test
+    void testCustomMetersAreCachedByNameAndTags() {
+        Counter counter = metricsService.createCustomCounter("custom_events_total", "Custom events",
+                "endpoint", "/api", "outcome", "success");
+        counter.increment();
+
+        assertSame(counter, metricsService.createCustomCounter("custom_events_total", "Custom events",
+                "endpoint", "/api", "outcome", "success"));
+        assertSame(counter, metricsService.createCustomCounter("custom_events_total", "Custom events",
+                "endpoint", "/api", "outcome", "success", "unpaired"));
+        assertEquals(1.0, meterRegistry.get("custom_events_total").tag("endpoint", "/api").counter().count());
+
+        Counter other = metricsService.createCustomCounter("custom_events_total", "Custom events",
+                "endpoint", "/api/info", "outcome", "success");
+        Timer timer = metricsService.createCustomTimer("custom_event_duration", "Custom event duration",
+                "endpoint", "/api", "outcome", "success");
+        assertNotNull(other);
+        assertNotNull(timer);
+        assertEquals(2.0, meterRegistry.get("devops_metrics_meter_cache_hits_total").functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("devops_metrics_meter_cache_series").gauge().value());
+    }
+
+    @Test
+    void testNewSeriesAreDeniedPastTheLimit() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsService limited = new MetricsService(meterRegistry, customMeters(2, OverflowPolicy.DENY));
+
+        limited.createCustomCounter("limited_total", "Limited", "id", "1");
+        limited.createCustomCounter("limited_total", "Limited", "id", "2");
+        Counter denied = limited.createCustomCounter("limited_total", "Limited", "id", "3");
+        denied.increment();
+
+        assertInstanceOf(NoopCounter.class, denied);
+        assertEquals("devops_metrics_rejected_series_noop_counter", denied.getId().getName());
+        assertNull(meterRegistry.find("limited_total").tag("id", "3").counter());
+        assertNotNull(meterRegistry.find("limited_total").tag("id", "1").counter());
+        assertEquals(1.0, meterRegistry.get("devops_metrics_meter_cache_rejected_total").functionCounter().count());
+    }
+
+    @Test
+    void testOldestSeriesIsEvictedPastTheLimit() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsService limited = new MetricsService(meterRegistry, customMeters(2, OverflowPolicy.EVICT));
+
+        limited.createCustomCounter("limited_total", "Limited", "id", "1");
+        limited.createCustomCounter("limited_total", "Limited", "id", "2");
+        Counter third = limited.createCustomCounter("limited_total", "Limited", "id", "3");
+
+        assertSame(third, meterRegistry.get("limited_total").tag("id", "3").counter());
+        assertNull(meterRegistry.find("limited_total").tag("id", "1").counter());
+        assertNotNull(meterRegistry.find("limited_total").tag("id", "2").counter());
+        assertEquals(1.0, meterRegistry.get("devops_metrics_meter_cache_evictions_total").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("devops_metrics_meter_cache_series").gauge().value());
+    }
+
+    @Test
+    void testRegisteredCountersAreNeverEvicted() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsService limited = new MetricsService(meterRegistry, customMeters(1, OverflowPolicy.EVICT));
+
+        Counter held = limited.registerCustomCounter("held_total", "Held", "id", "1");
+        limited.createCustomCounter("limited_total", "Limited", "id", "1");
+        limited.createCustomCounter("limited_total", "Limited", "id", "2");
+        held.increment();
+
+        assertSame(held, meterRegistry.get("held_total").tag("id", "1").counter());
+        assertEquals(1.0, meterRegistry.get("held_total").counter().count());
+        assertEquals(1.0, meterRegistry.get("devops_metrics_meter_cache_evictions_total").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("devops_metrics_meter_cache_series").gauge().value());
+    }
+
+    private static MetricsProperties customMeters(int maxSeries, OverflowPolicy overflowPolicy) {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getCustomMeters().setMaxSeries(maxSeries);
+        properties.getCustomMeters().setOverflowPolicy(overflowPolicy);
+        return properties;
+    }
+}
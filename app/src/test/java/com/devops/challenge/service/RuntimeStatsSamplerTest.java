@@ -0,0 +1,125 @@
+package com.devops.challenge.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.devops.challenge.config.MetricsProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeStatsSamplerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RuntimeStatsSampler sampler;
+
+    @AfterEach
+    void tearDown() {
+        if (sampler != null) {
+            sampler.destroy();
+        }
+    }
+
+    @Test
+    void testGaugesServeTheLatestSnapshot() {
+        sampler = new RuntimeStatsSampler(properties(false), meterRegistry, false);
+        RuntimeStatsSampler.Snapshot first = sampler.getSnapshot();
+
+        List<ByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            buffers.add(ByteBuffer.allocateDirect(64 * 1024));
+        }
+        assertEquals(first.directBufferUsed(), gauge("devops_runtime_direct_buffer_used_bytes"));
+
+        sampler.sample();
+        RuntimeStatsSampler.Snapshot second = sampler.getSnapshot();
+        assertTrue(second.directBufferUsed() >= first.directBufferUsed() + buffers.size() * 64 * 1024);
+        assertEquals(second.directBufferUsed(), gauge("devops_runtime_direct_buffer_used_bytes"));
+        assertTrue(second.allocationRate() > 0);
+        assertTrue(meterRegistry.get("devops_runtime_threads").tag("type", "platform").gauge().value() >= 1);
+    }
+
+    @Test
+    void testUptimeIsTimeSinceJvmStart() {
+        sampler = new RuntimeStatsSampler(properties(false), meterRegistry, false);
+        MetricsService metricsService = new MetricsService(meterRegistry, new MetricsProperties());
+
+        double uptime = gauge("devops_runtime_uptime_seconds");
+        assertTrue(uptime > 0 && uptime < 24 * 3600, "uptime " + uptime);
+        assertEquals(uptime, meterRegistry.get("devops_api_uptime_seconds").gauge().value(), 1.0);
+        assertEquals(uptime, metricsService.getUptimeSeconds(), 1.0);
+    }
+
+    @Test
+    void testGcPausesAreStreamedFromJfr() throws InterruptedException {
+        sampler = new RuntimeStatsSampler(properties(true), meterRegistry, false);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> awaitQuietly(done));
+
+        // JFR hands events to the stream about once a second
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        try {
+            do {
+                System.gc();
+                Thread.sleep(200);
+                sampler.sample();
+            } while (sampler.getSnapshot().gcPauseMax() == 0 && System.nanoTime() < deadline);
+        } finally {
+            done.countDown();
+        }
+
+        RuntimeStatsSampler.Snapshot snapshot = sampler.getSnapshot();
+        assertTrue(snapshot.gcPauseMax() > 0);
+        assertTrue(snapshot.gcPauseP99() <= snapshot.gcPauseMax());
+        assertTrue(snapshot.safepoints() > 0);
+        assertEquals(snapshot.gcPauseMax(), meterRegistry.get("devops_runtime_gc_pause_seconds_max").gauge().value());
+        // Virtual thread events are not recorded unless asked for
+        assertEquals(0, snapshot.virtualThreads());
+    }
+
+    @Test
+    void testVirtualThreadsAreStreamedFromJfrWhenEnabled() throws InterruptedException {
+        MetricsProperties properties = properties(true);
+        properties.getRuntimeStats().setVirtualThreads(true);
+        sampler = new RuntimeStatsSampler(properties, meterRegistry, false);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> awaitQuietly(done));
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        try {
+            do {
+                Thread.sleep(200);
+                sampler.sample();
+            } while (sampler.getSnapshot().virtualThreads() == 0 && System.nanoTime() < deadline);
+        } finally {
+            done.countDown();
+        }
+
+        assertTrue(sampler.getSnapshot().virtualThreads() > 0);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static MetricsProperties properties(boolean jfr) {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getRuntimeStats().setJfr(jfr);
+        return properties;
+    }
+}
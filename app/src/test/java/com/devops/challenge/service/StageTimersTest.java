@@ -0,0 +1,66 @@
+package com.devops.challenge.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.controller.StageLatencyEndpoint;
+import com.devops.challenge.controller.StageLatencyEndpoint.StageLatency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StageTimersTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testEveryExecutionIsTimedAtFullSampleRate() {
+        StageTimers stageTimers = stageTimers(1.0);
+
+        for (int i = 0; i < 10; i++) {
+            stageTimers.stop(PipelineStage.PARSE_BODY, stageTimers.start());
+        }
+
+        assertEquals(10, meterRegistry.get("devops_api_stage_duration").tag("stage", "parse_body").timer().count());
+        assertEquals(0, meterRegistry.get("devops_api_stage_duration").tag("stage", "build_response").timer().count());
+    }
+
+    @Test
+    void testNothingIsTimedAtZeroSampleRate() {
+        StageTimers stageTimers = stageTimers(0);
+
+        for (int i = 0; i < 1000; i++) {
+            long start = stageTimers.start();
+            assertEquals(StageTimers.NOT_SAMPLED, start);
+            stageTimers.stop(PipelineStage.SERIALIZE_RESPONSE, start);
+        }
+
+        assertEquals(0, stageTimers.getTimer(PipelineStage.SERIALIZE_RESPONSE).count());
+    }
+
+    @Test
+    void testEndpointReportsEveryStageWithPercentiles() {
+        StageTimers stageTimers = stageTimers(1.0);
+        stageTimers.stop(PipelineStage.EXTRACT_HEADERS, stageTimers.start());
+
+        Map<String, StageLatency> stages = new StageLatencyEndpoint(stageTimers).stages();
+
+        assertEquals(List.of("extract_headers", "parse_body", "build_response", "serialize_response"),
+                List.copyOf(stages.keySet()));
+        StageLatency headers = stages.get("extract_headers");
+        assertEquals(1, headers.samples());
+        assertEquals(List.of("p50", "p90", "p99", "p99.9"), List.copyOf(headers.percentiles().keySet()));
+        assertTrue(headers.max() > 0);
+    }
+
+    private StageTimers stageTimers(double sampleRate) {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getStageTiming().setSampleRate(sampleRate);
+        return new StageTimers(meterRegistry, properties);
+    }
+}
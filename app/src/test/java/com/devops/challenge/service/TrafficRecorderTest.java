@@ -0,0 +1,123 @@
+package com.devops.challenge.service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.devops.challenge.config.RecorderProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsReadBack() throws Exception {
+        TrafficRecorder recorder = recorder(DataSize.ofMegabytes(1), 4);
+        byte[] body = "{\"message\": \"héllo\"}".getBytes(StandardCharsets.UTF_8);
+        recorder.record(1_700_000_000_000_001L, "POST", "/api", "page=1&q=%20",
+                List.of("Content-Type", "application/json", "X-Tag", "a", "X-Tag", "b"), body, body.length, false);
+        recorder.record(1_700_000_000_000_002L, "GET", "/api/info", null, List.of(), new byte[0], 0, false);
+        recorder.record(1_700_000_000_000_003L, "PUT", "/api", null, List.of(), body, 4, true);
+        recorder.destroy();
+
+        List<TrafficSegment.RecordedRequest> records = readAll();
+        assertEquals(3, records.size());
+
+        TrafficSegment.RecordedRequest post = records.get(0);
+        assertEquals(1_700_000_000_000_001L, post.arrivalMicros());
+        assertEquals("POST", post.method());
+        assertEquals("/api", post.path());
+        assertEquals("page=1&q=%20", post.query());
+        assertEquals(List.of(Map.entry("Content-Type", "application/json"), Map.entry("X-Tag", "a"),
+                Map.entry("X-Tag", "b")), post.headers());
+        assertEquals("{\"message\": \"héllo\"}", StandardCharsets.UTF_8.decode(post.body()).toString());
+        assertFalse(post.truncated());
+
+        TrafficSegment.RecordedRequest get = records.get(1);
+        assertNull(get.query());
+        assertEquals(0, get.body().remaining());
+
+        TrafficSegment.RecordedRequest put = records.get(2);
+        assertEquals(4, put.body().remaining());
+        assertTrue(put.truncated());
+        assertEquals(3, recorder.getRecorded());
+    }
+
+    @Test
+    void testSegmentsRotateAndOldOnesAreDeleted() throws Exception {
+        TrafficRecorder recorder = recorder(DataSize.ofKilobytes(8), 3);
+        byte[] body = "x".repeat(500).getBytes(StandardCharsets.UTF_8);
+        int threads = 4;
+        int perThread = 100;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                String path = "/api/" + t;
+                executor.execute(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        recorder.record(i, "POST", path, "i=" + i, List.of("Content-Type", "text/plain"),
+                                body, body.length, false);
+                    }
+                });
+            }
+        }
+        recorder.destroy();
+
+        assertEquals(threads * perThread, recorder.getRecorded());
+        assertEquals(0, recorder.getDropped());
+        assertEquals(3, TrafficSegment.list(directory).size());
+
+        // Every record in the segments kept is intact
+        List<TrafficSegment.RecordedRequest> records = readAll();
+        assertTrue(records.size() > 10 && records.size() < threads * perThread, "records " + records.size());
+        for (TrafficSegment.RecordedRequest record : records) {
+            assertTrue(record.path().startsWith("/api/"));
+            assertEquals("i=" + record.arrivalMicros(), record.query());
+            assertEquals(body.length, record.body().remaining());
+        }
+    }
+
+    @Test
+    void testRecordsLargerThanASegmentAreDropped() throws Exception {
+        TrafficRecorder recorder = recorder(DataSize.ofKilobytes(4), 2);
+        byte[] body = new byte[8192];
+        recorder.record(1, "POST", "/api", null, List.of(), body, body.length, false);
+        recorder.destroy();
+
+        assertEquals(0, recorder.getRecorded());
+        assertEquals(1, recorder.getDropped());
+        assertTrue(readAll().isEmpty());
+    }
+
+    private TrafficRecorder recorder(DataSize segmentSize, int maxSegments) throws Exception {
+        RecorderProperties properties = new RecorderProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(segmentSize);
+        properties.setMaxSegments(maxSegments);
+        return new TrafficRecorder(properties, new SimpleMeterRegistry());
+    }
+
+    private List<TrafficSegment.RecordedRequest> readAll() throws Exception {
+        List<TrafficSegment.RecordedRequest> records = new ArrayList<>();
+        for (Path segment : TrafficSegment.list(directory)) {
+            TrafficSegment.read(segment, records::add);
+        }
+        return records;
+    }
+}
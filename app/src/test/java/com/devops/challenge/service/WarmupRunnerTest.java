@@ -0,0 +1,104 @@
+package com.devops.challenge.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.warmup.enabled=true",
+        "app.warmup.time-budget=10s",
+        "app.warmup.requests-per-round=40",
+        "app.warmup.stable-rounds=2",
+        "app.access-log.flush-interval=10ms"
+})
+class WarmupRunnerTest {
+
+    /** Readiness changes and how many warm-up requests had been sent at each. */
+    static final List<String> READINESS = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class ReadinessRecorder {
+
+        @Bean
+        ApplicationListener<AvailabilityChangeEvent<ReadinessState>> readinessRecorder(MeterRegistry meterRegistry) {
+            return event -> READINESS.add(event.getState() + " after "
+                    + (long) meterRegistry.get("devops_warmup_requests").gauge().value());
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private AccessLog accessLog;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testReadinessIsHeldUntilWarmedUp() {
+        double requests = gauge("devops_warmup_requests");
+        assertTrue(requests >= 80, "warm-up requests " + requests);
+        assertTrue(gauge("devops_warmup_duration_seconds") > 0);
+        assertTrue(meterRegistry.get("devops_warmup_latency_seconds").tag("phase", "initial").gauge().value() > 0);
+        assertTrue(meterRegistry.get("devops_warmup_latency_seconds").tag("phase", "final").gauge().value() > 0);
+
+        assertEquals(List.of("REFUSING_TRAFFIC after 0", "ACCEPTING_TRAFFIC after " + (long) requests), READINESS);
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+    }
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Test
+    void testWarmupRequestsAreNotAccessLoggedOrCounted() throws Exception {
+        Thread.sleep(200);
+        assertEquals(0, accessLog.getWritten());
+        metricsService.flushApiCalls();
+        assertEquals(0, meterRegistry.get("devops_api_calls_total").functionCounter().count());
+        assertEquals(0, meterRegistry.get("devops_api_response_time").timers().stream().mapToLong(Timer::count).sum());
+        assertNull(meterRegistry.find("http.server.requests").tag("uri", "/api").timer());
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api"))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            assertEquals(200, response.statusCode());
+        }
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (accessLog.getWritten() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, accessLog.getWritten());
+        metricsService.flushApiCalls();
+        assertEquals(1, meterRegistry.get("devops_api_calls_total").functionCounter().count());
+        assertEquals(1, meterRegistry.get("http.server.requests").tag("uri", "/api").timer().count());
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
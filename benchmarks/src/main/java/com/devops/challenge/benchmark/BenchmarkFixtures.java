@@ -0,0 +1,176 @@
+package com.devops.challenge.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.config.MetricsProperties;
+import com.devops.challenge.controller.ApiController;
+import com.devops.challenge.controller.ApiResponseFactory;
+import com.devops.challenge.controller.BatchEchoWriter;
+import com.devops.challenge.controller.RequestBodyReader;
+import com.devops.challenge.controller.StreamingEchoWriter;
+import com.devops.challenge.service.EchoBodyBudget;
+import com.devops.challenge.service.MetricsService;
+import com.devops.challenge.service.StageTimers;
+import com.devops.challenge.service.WarmupRunner;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+/**
+ * Shared request fixtures and ObjectMapper configurations for the benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String JSON_BODY = "{\"message\": \"Hello World\", "
+            + "\"timestamp\": \"2024-01-01T00:00:00Z\", "
+            + "\"items\": [1, 2, 3, 4, 5], "
+            + "\"nested\": {\"enabled\": true, \"ratio\": 0.75, \"tags\": [\"a\", \"b\", \"c\"]}}";
+
+    public static final String TEXT_BODY = "plain text payload that is not valid json, "
+            + "echoed back to the caller as a string";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * ObjectMapper configured the same way as the application (see application.yml).
+     */
+    public static ObjectMapper objectMapper(boolean indentOutput) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        if (indentOutput) {
+            builder.featuresToEnable(SerializationFeature.INDENT_OUTPUT);
+        }
+        return builder.build();
+    }
+
+    /**
+     * An ApiController wired the same way as in the application, backed by a
+     * simple in-memory meter registry.
+     */
+    public static ApiController controller(ObjectMapper objectMapper, EchoProperties echoProperties) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StageTimers stageTimers = stageTimers(meterRegistry);
+        RequestBodyReader requestBodyReader = new RequestBodyReader(echoProperties);
+        MetricsService metricsService = new MetricsService(meterRegistry, new MetricsProperties());
+        EchoBodyBudget echoBodyBudget = new EchoBodyBudget(echoProperties, metricsService);
+        ApiResponseFactory apiResponseFactory = new ApiResponseFactory(objectMapper, stageTimers);
+        return new ApiController(metricsService, apiResponseFactory, echoProperties, requestBodyReader,
+                new StreamingEchoWriter(objectMapper, requestBodyReader, echoBodyBudget), echoBodyBudget,
+                new BatchEchoWriter(objectMapper, apiResponseFactory, requestBodyReader, echoProperties,
+                        meterRegistry),
+                stageTimers, new StaticListableBeanFactory().getBeanProvider(WarmupRunner.class));
+    }
+
+    /**
+     * Stage timers at the application's default sample rate.
+     */
+    public static StageTimers stageTimers(MeterRegistry meterRegistry) {
+        return new StageTimers(meterRegistry, new MetricsProperties());
+    }
+
+    /**
+     * A response whose output stream discards everything written to it, so
+     * benchmarks only account for the bytes the code under test allocates.
+     */
+    public static MockHttpServletResponse discardingResponse() {
+        return new MockHttpServletResponse() {
+            private final ServletOutputStream outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return outputStream;
+            }
+        };
+    }
+
+    /**
+     * A request carrying a realistic set of headers, similar to what the
+     * service sees behind the ingress controller.
+     */
+    public static MockHttpServletRequest request(String method, String contentType, int extraHeaders) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api") {
+            // MockHttpServletRequest hands out a single stream per request; the
+            // benchmarks replay the same request, so open a fresh one each time.
+            @Override
+            public ServletInputStream getInputStream() {
+                byte[] content = getContentAsByteArray();
+                return new DelegatingServletInputStream(
+                        new ByteArrayInputStream(content != null ? content : new byte[0]));
+            }
+        };
+        request.setQueryString("page=1&size=20");
+        request.setRemoteAddr("10.0.0.42");
+        request.setContentType(contentType);
+        request.addHeader("Host", "devops-challenge.local");
+        request.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64) benchmark/1.0");
+        request.addHeader("Accept", "application/json");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        request.addHeader("Accept-Language", "en-US,en;q=0.9");
+        request.addHeader("Connection", "keep-alive");
+        request.addHeader("Content-Type", contentType);
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        request.addHeader("X-Forwarded-Proto", "https");
+        request.addHeader("X-Request-Id", "0f8fad5b-d9cb-469f-a165-70867728950e");
+        for (int i = 0; i < extraHeaders; i++) {
+            request.addHeader("X-Custom-Header-" + i, "value-" + i);
+        }
+        return request;
+    }
+
+    /**
+     * Body of roughly the given size: a JSON array of small objects, or plain
+     * text of the same length.
+     */
+    public static byte[] body(int size, boolean json) {
+        StringBuilder body = new StringBuilder(size + 64);
+        if (json) {
+            body.append('[');
+            for (int i = 0; body.length() < size - 64; i++) {
+                if (i > 0) {
+                    body.append(',');
+                }
+                body.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i)
+                        .append("\",\"active\":true,\"score\":").append(i % 100).append(".5}");
+            }
+            body.append(']');
+        } else {
+            while (body.length() < size) {
+                body.append(TEXT_BODY).append('\n');
+            }
+            body.setLength(size);
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,225 @@
+package com.devops.challenge.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.devops.challenge.service.TrafficSegment;
+
+/**
+ * Replays traffic recorded with app.recorder.enabled=true against a running
+ * instance, at the recorded pace or scaled, and reports throughput and
+ * latency percentiles. Runs from benchmarks.jar without a build tree:
+ *
+ * <pre>
+ * java -cp benchmarks.jar com.devops.challenge.benchmark.TrafficReplay \
+ *     --target http://localhost:8080 --directory recordings --speed 2
+ * </pre>
+ *
+ * Requests are sent open-loop, each at its recorded arrival time divided by
+ * --speed (default 1), and latency is measured from that intended send
+ * time, so a slow server shows up as latency rather than as a lower send
+ * rate. Segments are mapped and request bodies sent straight from the
+ * mapping. Requests whose body was recorded truncated are skipped and
+ * counted. Exits with status 1 if nothing could be sent.
+ *
+ * TrafficReplayLoadTest in app/ does the same against an instance started
+ * in-process.
+ */
+public final class TrafficReplay {
+
+    // Set by the client itself, or not allowed to be set by it
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade", "keep-alive", "te",
+            "transfer-encoding", "http2-settings");
+
+    private final HttpClient client;
+    private final String base;
+    private final double speed;
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final Phaser inFlight = new Phaser(1);
+
+    private long startNanos;
+    private long firstArrival = -1;
+    private long lastArrival;
+    private long finishNanos;
+
+    private TrafficReplay(HttpClient client, String base, double speed) {
+        this.client = client;
+        this.base = base;
+        this.speed = speed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = null;
+        Path directory = Path.of("recordings");
+        double speed = 1;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 == args.length) {
+                usage("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--target" -> target = value;
+                case "--directory" -> directory = Path.of(value);
+                case "--speed" -> speed = Double.parseDouble(value);
+                default -> usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        if (target == null) {
+            usage("--target is required");
+        }
+        if (!(speed > 0)) {
+            usage("--speed must be positive");
+        }
+        List<Path> segments = Files.isDirectory(directory) ? TrafficSegment.list(directory) : List.of();
+        if (segments.isEmpty()) {
+            usage("No traffic segments in " + directory.toAbsolutePath());
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        TrafficReplay replay = new TrafficReplay(client, target, speed);
+        for (Path segment : segments) {
+            TrafficSegment.read(segment, replay::send);
+        }
+        replay.finish();
+
+        System.out.println("=== Replay of " + segments.size() + " segment(s) from " + directory + " at "
+                + speed + "x ===");
+        System.out.println(replay.summary());
+        if (replay.sent.sum() == 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: TrafficReplay --target <base URL> [--directory <dir>] [--speed <factor>]");
+        System.exit(2);
+    }
+
+    private void send(TrafficSegment.RecordedRequest record) {
+        // Only part of the body was recorded, so sending it would be a
+        // different request
+        if (record.truncated()) {
+            truncated.increment();
+            return;
+        }
+        if (firstArrival < 0) {
+            firstArrival = record.arrivalMicros();
+            startNanos = System.nanoTime();
+        }
+        lastArrival = Math.max(lastArrival, record.arrivalMicros());
+        long due = startNanos + (long) ((record.arrivalMicros() - firstArrival) * 1_000 / speed);
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+
+        HttpRequest request;
+        try {
+            request = request(record);
+        } catch (IllegalArgumentException e) {
+            failed.increment();
+            return;
+        }
+        sent.increment();
+        inFlight.register();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null) {
+                failed.increment();
+            } else {
+                latencies.recordValue(Math.max(0, System.nanoTime() - due));
+                if (response.statusCode() >= 400) {
+                    errors.increment();
+                }
+            }
+            inFlight.arriveAndDeregister();
+        });
+    }
+
+    private void finish() {
+        inFlight.arriveAndAwaitAdvance();
+        finishNanos = System.nanoTime();
+    }
+
+    private String summary() {
+        Histogram histogram = latencies.getIntervalHistogram();
+        Duration recorded = Duration.ofNanos((lastArrival - firstArrival) * 1_000);
+        Duration replayed = Duration.ofNanos(finishNanos - startNanos);
+        return String.format("requests=%d over %.1f s (recorded over %.1f s)  req/s=%.1f%n"
+                        + "p50=%.2f ms  p90=%.2f ms  p99=%.2f ms  p99.9=%.2f ms  max=%.2f ms  "
+                        + "4xx/5xx=%d  failed=%d  skipped truncated=%d",
+                sent.sum(), replayed.toMillis() / 1000.0, recorded.toMillis() / 1000.0,
+                sent.sum() / Math.max(1e-9, replayed.toNanos() / 1e9),
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1e6, errors.sum(), failed.sum(), truncated.sum());
+    }
+
+    private HttpRequest request(TrafficSegment.RecordedRequest record) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + record.path()
+                        + (record.query() != null ? "?" + record.query() : "")))
+                .timeout(Duration.ofSeconds(60))
+                .method(record.method(), body(record.body()));
+        for (Map.Entry<String, String> header : record.headers()) {
+            if (!SKIPPED_HEADERS.contains(header.getKey().toLowerCase())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    /**
+     * A body publisher that hands the client the mapped body itself.
+     */
+    private static HttpRequest.BodyPublisher body(ByteBuffer body) {
+        if (!body.hasRemaining()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.fromPublisher(subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                if (!done && n > 0) {
+                    done = true;
+                    subscriber.onNext(body.duplicate());
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        }), body.remaining());
+    }
+}
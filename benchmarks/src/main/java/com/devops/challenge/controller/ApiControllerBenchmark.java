@@ -0,0 +1,133 @@
+package com.devops.challenge.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.benchmark.BenchmarkFixtures;
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.ApiResponse;
+import com.devops.challenge.dto.HeaderView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks for each stage of the /api echo pipeline, plus a multi-threaded
+ * benchmark of the whole request (controller + JSON serialization).
+ *
+ * Run with: java -jar target/benchmarks.jar ApiControllerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiControllerBenchmark {
+
+    @Param({"10", "40"})
+    int extraHeaders;
+
+    private ApiController controller;
+    private ApiResponseFactory apiResponseFactory;
+    private ObjectMapper indentingMapper;
+    private ObjectMapper compactMapper;
+    private ApiResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        indentingMapper = BenchmarkFixtures.objectMapper(true);
+        compactMapper = BenchmarkFixtures.objectMapper(false);
+        controller = BenchmarkFixtures.controller(indentingMapper, new EchoProperties());
+        apiResponseFactory = new ApiResponseFactory(indentingMapper,
+                BenchmarkFixtures.stageTimers(new SimpleMeterRegistry()));
+
+        MockHttpServletRequest request = BenchmarkFixtures.request("POST", MediaType.APPLICATION_JSON_VALUE, extraHeaders);
+        response = controller.buildApiResponse(request, "POST", BenchmarkFixtures.JSON_BODY);
+    }
+
+    /**
+     * Per-thread request so the multi-threaded benchmark does not share the
+     * mock request's mutable state.
+     */
+    @State(Scope.Thread)
+    public static class RequestState {
+
+        MockHttpServletRequest jsonRequest;
+        MockHttpServletRequest textRequest;
+        MockHttpServletResponse response;
+
+        @Setup(Level.Trial)
+        public void setUp(ApiControllerBenchmark benchmark) {
+            jsonRequest = BenchmarkFixtures.request("POST", MediaType.APPLICATION_JSON_VALUE, benchmark.extraHeaders);
+            jsonRequest.setContent(BenchmarkFixtures.JSON_BODY.getBytes(StandardCharsets.UTF_8));
+            textRequest = BenchmarkFixtures.request("POST", MediaType.TEXT_PLAIN_VALUE, benchmark.extraHeaders);
+            textRequest.setContent(BenchmarkFixtures.TEXT_BODY.getBytes(StandardCharsets.UTF_8));
+            response = BenchmarkFixtures.discardingResponse();
+        }
+    }
+
+    @Benchmark
+    public HeaderView extractHeaders(RequestState state) {
+        return controller.extractHeaders(state.jsonRequest);
+    }
+
+    @Benchmark
+    public Object parseJsonBody() {
+        return apiResponseFactory.parseBody(BenchmarkFixtures.JSON_BODY);
+    }
+
+    @Benchmark
+    public Object parseNonJsonBody() {
+        return apiResponseFactory.parseBody(BenchmarkFixtures.TEXT_BODY);
+    }
+
+    @Benchmark
+    public ApiResponse buildApiResponse(RequestState state) {
+        return controller.buildApiResponse(state.jsonRequest, "POST", BenchmarkFixtures.JSON_BODY);
+    }
+
+    @Benchmark
+    public void serializeIndented() throws IOException {
+        indentingMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void serializeCompact() throws IOException {
+        compactMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fullRequestJson(RequestState state) throws IOException {
+        ResponseEntity<ApiResponse> entity = controller.handlePostRequest(state.jsonRequest, state.response);
+        indentingMapper.writeValue(OutputStream.nullOutputStream(), entity.getBody());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fullRequestText(RequestState state) throws IOException {
+        ResponseEntity<ApiResponse> entity = controller.handlePostRequest(state.textRequest, state.response);
+        indentingMapper.writeValue(OutputStream.nullOutputStream(), entity.getBody());
+    }
+}
@@ -0,0 +1,86 @@
+package com.devops.challenge.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import com.devops.challenge.benchmark.BenchmarkFixtures;
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Heap cost of echoing POST bodies of different sizes in buffered mode (read
+ * into a String, parse into a tree, serialize) versus streaming mode (copy
+ * tokens from the request stream to the response stream).
+ *
+ * Compare gc.alloc.rate.norm (bytes/op) between the two modes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g"})
+@State(Scope.Benchmark)
+public class EchoBodyBenchmark {
+
+    @Param({"1024", "102400", "10485760"})
+    int bodySize;
+
+    @Param({"true", "false"})
+    boolean json;
+
+    private ObjectMapper objectMapper;
+    private ApiController bufferedController;
+    private ApiController streamingController;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper(true);
+        bufferedController = BenchmarkFixtures.controller(objectMapper, echoProperties(EchoProperties.Mode.BUFFERED));
+        streamingController = BenchmarkFixtures.controller(objectMapper, echoProperties(EchoProperties.Mode.STREAMING));
+
+        String contentType = json ? MediaType.APPLICATION_JSON_VALUE : MediaType.TEXT_PLAIN_VALUE;
+        request = BenchmarkFixtures.request("POST", contentType, 10);
+        request.setContent(BenchmarkFixtures.body(bodySize, json));
+        response = BenchmarkFixtures.discardingResponse();
+    }
+
+    @Benchmark
+    public void buffered() throws IOException {
+        ResponseEntity<ApiResponse> entity = bufferedController.handlePostRequest(request, response);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), entity.getBody());
+    }
+
+    @Benchmark
+    public void streaming() throws IOException {
+        streamingController.handlePostRequest(request, response);
+    }
+
+    private static EchoProperties echoProperties(EchoProperties.Mode mode) {
+        EchoProperties properties = new EchoProperties();
+        properties.setMode(mode);
+        properties.setMaxBodySize(DataSize.ofMegabytes(16));
+        return properties;
+    }
+}
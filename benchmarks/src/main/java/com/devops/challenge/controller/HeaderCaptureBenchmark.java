@@ -0,0 +1,72 @@
+package com.devops.challenge.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.devops.challenge.benchmark.BenchmarkFixtures;
+import com.devops.challenge.dto.HeaderFilter;
+import com.devops.challenge.dto.HeaderView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Capturing the request headers and serializing them, as the echo response
+ * does: the previous copy into a HashMap against the lazy HeaderView.
+ *
+ * Run with the GC profiler to compare allocation rates:
+ * java -jar target/benchmarks.jar HeaderCaptureBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderCaptureBenchmark {
+
+    @Param({"10", "40"})
+    int extraHeaders;
+
+    private ObjectMapper objectMapper;
+    private MockHttpServletRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper(false);
+        request = BenchmarkFixtures.request("GET", MediaType.APPLICATION_JSON_VALUE, extraHeaders);
+    }
+
+    @Benchmark
+    public void hashMapCopy() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String headerName = headerNames.nextElement();
+            headers.put(headerName, request.getHeader(headerName));
+        }
+        objectMapper.writeValue(OutputStream.nullOutputStream(), headers);
+    }
+
+    @Benchmark
+    public void headerView() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), HeaderView.of(request, HeaderFilter.all()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.devops.challenge.dto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.devops.challenge.benchmark.BenchmarkFixtures;
+import com.devops.challenge.config.ApiResponseCodecConfiguration;
+import com.devops.challenge.controller.ApiResponseFactory;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Serializing an ApiResponse: the previous default path (bean introspection,
+ * @JsonFormat timestamp, indented because of the global indent-output
+ * setting) against the hand-written ApiResponse.Serializer writing compact
+ * JSON, as /api now does by default, or indented, as with ?pretty=true.
+ *
+ * Compare ns/op and gc.alloc.rate.norm (bytes/op).
+ *
+ * Run with: java -jar target/benchmarks.jar ApiResponseSerializationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"10", "40"})
+    int extraHeaders;
+
+    private ObjectWriter reflectiveIndented;
+    private ObjectWriter reflectiveCompact;
+    private ObjectWriter compact;
+    private ObjectWriter indented;
+    private ApiResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper(true);
+        compact = ApiResponseCodecConfiguration.writer(objectMapper, false);
+        indented = ApiResponseCodecConfiguration.writer(objectMapper, true);
+
+        ObjectMapper reflectiveMapper = BenchmarkFixtures.objectMapper(true)
+                .addMixIn(ApiResponse.class, ReflectiveApiResponse.class);
+        reflectiveIndented = ApiResponseCodecConfiguration.writer(reflectiveMapper, true);
+        reflectiveCompact = ApiResponseCodecConfiguration.writer(reflectiveMapper, false);
+
+        MockHttpServletRequest request = BenchmarkFixtures.request("POST", MediaType.APPLICATION_JSON_VALUE, extraHeaders);
+        ApiResponseFactory factory = new ApiResponseFactory(objectMapper,
+                BenchmarkFixtures.stageTimers(new SimpleMeterRegistry()));
+        response = factory.build("POST", HeaderView.of(request, HeaderFilter.all()), BenchmarkFixtures.JSON_BODY,
+                request.getRequestURI(), request.getQueryString(), request.getRemoteAddr(),
+                request.getHeader("User-Agent"), request.getContentType());
+    }
+
+    /**
+     * ApiResponse's annotations before it had its own serializer.
+     */
+    @JsonSerialize(using = JsonSerializer.None.class)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    abstract static class ReflectiveApiResponse {
+
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+        abstract LocalDateTime getTimestamp();
+    }
+
+    @Benchmark
+    public void reflectiveIndented() throws IOException {
+        reflectiveIndented.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void reflectiveCompact() throws IOException {
+        reflectiveCompact.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void handWrittenCompact() throws IOException {
+        compact.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void handWrittenIndented() throws IOException {
+        indented.writeValue(OutputStream.nullOutputStream(), response);
+    }
+}
@@ -0,0 +1,94 @@
+package com.devops.challenge.dto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.devops.challenge.benchmark.BenchmarkFixtures;
+import com.devops.challenge.config.ApiResponseCodecConfiguration;
+import com.devops.challenge.controller.ApiResponseFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The /api response in each wire format: compact JSON (the default), CBOR
+ * and Smile, for the typical small echo body and a 64 KB one.
+ *
+ * serialize writes the ApiResponse as the response converters do; parse
+ * decodes the echoed body from the request as ApiResponseFactory does.
+ * Payload sizes are printed once per trial, as "payload: ..." lines.
+ *
+ * Run with: java -jar target/benchmarks.jar BinaryFormatBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryFormatBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    String format;
+
+    /** 0 is the typical small JSON body. */
+    @Param({"0", "65536"})
+    int bodySize;
+
+    private ObjectMapper mapper;
+    private ObjectWriter writer;
+    private ApiResponse response;
+    private byte[] requestBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper(false);
+        BinaryFormat binaryFormat = "JSON".equals(format) ? null : BinaryFormat.valueOf(format);
+        mapper = binaryFormat != null ? binaryFormat.mapper(objectMapper) : objectMapper;
+        writer = binaryFormat != null ? mapper.writer() : ApiResponseCodecConfiguration.writer(objectMapper, false);
+
+        byte[] jsonBody = bodySize == 0
+                ? BenchmarkFixtures.JSON_BODY.getBytes(StandardCharsets.UTF_8)
+                : BenchmarkFixtures.body(bodySize, true);
+        Object body = objectMapper.readValue(jsonBody, Object.class);
+        requestBody = mapper.writeValueAsBytes(body);
+
+        String contentType = binaryFormat != null ? binaryFormat.getMediaType().toString() : "application/json";
+        MockHttpServletRequest request = BenchmarkFixtures.request("POST", contentType, 10);
+        ApiResponseFactory factory = new ApiResponseFactory(objectMapper,
+                BenchmarkFixtures.stageTimers(new SimpleMeterRegistry()));
+        response = factory.build("POST", HeaderView.of(request, HeaderFilter.all()),
+                new String(jsonBody, StandardCharsets.UTF_8),
+                request.getRequestURI(), request.getQueryString(), request.getRemoteAddr(),
+                request.getHeader("User-Agent"), request.getContentType());
+
+        System.out.printf("%npayload: format=%s bodySize=%d request=%d bytes response=%d bytes%n",
+                format, bodySize, requestBody.length, writer.writeValueAsBytes(response).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public Object parse() throws IOException {
+        return mapper.readValue(requestBody, Object.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.devops.challenge.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devops.challenge.benchmark.BenchmarkFixtures;
+import com.devops.challenge.config.AccessLogProperties;
+import com.devops.challenge.config.EchoProperties;
+import com.devops.challenge.controller.ApiController;
+import com.devops.challenge.dto.ApiResponse;
+import com.devops.challenge.service.AccessLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Request latency with the access log on and off: a POST through the access
+ * log filter and the controller, with the response serialized to the
+ * response stream. The access log writer formats every record for real but
+ * discards the output, so the cost measured is what the request thread pays.
+ *
+ * Check that the dropped count printed at teardown is zero, otherwise the
+ * "on" runs skipped some of the work.
+ *
+ * Run with: java -jar target/benchmarks.jar AccessLogBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AccessLogBenchmark {
+
+    @Param({"false", "true"})
+    boolean accessLogEnabled;
+
+    private ObjectMapper objectMapper;
+    private ApiController controller;
+    private AccessLog accessLog;
+    private AccessLogFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper(true);
+        controller = BenchmarkFixtures.controller(objectMapper, new EchoProperties());
+        if (accessLogEnabled) {
+            accessLog = new AccessLog(new AccessLogProperties(), new SimpleMeterRegistry(), OutputStream.nullOutputStream());
+            filter = new AccessLogFilter(accessLog);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (accessLog != null) {
+            accessLog.destroy();
+            System.out.println("Access log records written: " + accessLog.getWritten()
+                    + ", dropped: " + accessLog.getDropped());
+        }
+    }
+
+    /**
+     * Per-thread request and response, as in ApiControllerBenchmark.
+     */
+    @State(Scope.Thread)
+    public static class RequestState {
+
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+        FilterChain chain;
+
+        @Setup(Level.Trial)
+        public void setUp(AccessLogBenchmark benchmark) {
+            request = BenchmarkFixtures.request("POST", MediaType.APPLICATION_JSON_VALUE, 10);
+            request.setContent(BenchmarkFixtures.JSON_BODY.getBytes(StandardCharsets.UTF_8));
+            response = BenchmarkFixtures.discardingResponse();
+            chain = (servletRequest, servletResponse) -> benchmark.handle(
+                    (HttpServletRequest) servletRequest, (HttpServletResponse) servletResponse);
+        }
+    }
+
+    @Benchmark
+    public void postRequest(RequestState state) throws Exception {
+        if (filter != null) {
+            filter.doFilter(state.request, state.response, state.chain);
+        } else {
+            handle(state.request, state.response);
+        }
+    }
+
+    private void handle(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ResponseEntity<ApiResponse> entity = controller.handlePostRequest(request, response);
+        objectMapper.writeValue(response.getOutputStream(), entity.getBody());
+    }
+}
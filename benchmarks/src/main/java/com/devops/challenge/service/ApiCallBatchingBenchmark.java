@@ -0,0 +1,68 @@
+package com.devops.challenge.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devops.challenge.config.MetricsProperties;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * MetricsService.recordApiCall from 64 threads at once, recording straight
+ * into the Prometheus counters and timers against batching
+ * ("app.metrics.batching"). Every thread records for the same method, the
+ * worst case for sharing.
+ *
+ * The difference is in cache-line traffic, so on Linux also attach the
+ * perf profiler and compare the L1/LLC miss counts per operation:
+ *
+ * Run with: java -jar target/benchmarks.jar ApiCallBatchingBenchmark -prof perfnorm
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ApiCallBatchingBenchmark {
+
+    private static final long DURATION_NANOS = TimeUnit.MICROSECONDS.toNanos(250);
+
+    @Param({"false", "true"})
+    boolean batching;
+
+    private MetricsService metricsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getBatching().setEnabled(batching);
+        metricsService = new MetricsService(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("recorded: " + metricsService.getTotalRequests());
+    }
+
+    @Benchmark
+    public void recordApiCall() {
+        metricsService.recordApiCall(ApiMethod.GET, DURATION_NANOS);
+    }
+}
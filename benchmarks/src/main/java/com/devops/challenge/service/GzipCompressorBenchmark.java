@@ -0,0 +1,87 @@
+package com.devops.challenge.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devops.challenge.config.CompressionProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Gzip of an echoed JSON response: the pooled deflaters of GzipCompressor
+ * against a java.util.zip.GZIPOutputStream created per response, which
+ * allocates (and, once unreachable, cleans up) a native deflater each time.
+ *
+ * Run with: java -jar target/benchmarks.jar GzipCompressorBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GzipCompressorBenchmark {
+
+    @Param({"4096", "65536"})
+    int bodySize;
+
+    @Param({"1", "6"})
+    int level;
+
+    private GzipCompressor compressor;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CompressionProperties properties = new CompressionProperties();
+        properties.setLevel(level);
+        compressor = new GzipCompressor(properties, new SimpleMeterRegistry());
+
+        StringBuilder json = new StringBuilder("{\"method\":\"POST\",\"body\":[");
+        for (int i = 0; json.length() < bodySize - 2; i++) {
+            json.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\"}");
+        }
+        body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        System.out.println("payload: " + body.length + " -> " + compressor.compress(body).length + " bytes");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        compressor.destroy();
+    }
+
+    @Benchmark
+    public byte[] pooled() {
+        return compressor.compress(body);
+    }
+
+    @Benchmark
+    public byte[] gzipOutputStream() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 8192) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
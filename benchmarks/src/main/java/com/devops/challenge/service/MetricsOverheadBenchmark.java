@@ -0,0 +1,151 @@
+package com.devops.challenge.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devops.challenge.config.MetricsProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Per-request metric overhead under contention: the counters the API
+ * controllers used to bump on every request against a single
+ * MetricsService.recordApiCall, and custom counters with dynamic tags built
+ * and registered on every call against MetricsService's meter cache, and
+ * the cost of a pipeline stage timer at the default and full sample rate.
+ *
+ * Run with: java -jar target/benchmarks.jar MetricsOverheadBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private static final long DURATION_NANOS = TimeUnit.MICROSECONDS.toNanos(250);
+
+    // Previous per-request path: controller counter, per-method counter and
+    // MetricsService counter, plus the AtomicLong request total
+    private Counter apiCallCounter;
+    private Counter getRequestCounter;
+    private Counter serviceApiCallsCounter;
+    private AtomicLong totalRequests;
+    private Timer responseTimer;
+
+    private MetricsService metricsService;
+
+    private MeterRegistry customMeterRegistry;
+
+    private StageTimers sampledStageTimers;
+    private StageTimers allStageTimers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PrometheusMeterRegistry legacyRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        apiCallCounter = Counter.builder("api_calls_total").register(legacyRegistry);
+        getRequestCounter = Counter.builder("api_get_requests_total").register(legacyRegistry);
+        serviceApiCallsCounter = Counter.builder("devops_api_calls_total")
+                .tag("service", "devops-challenge")
+                .register(legacyRegistry);
+        totalRequests = new AtomicLong();
+        responseTimer = Timer.builder("devops_api_response_time")
+                .tag("service", "devops-challenge")
+                .register(legacyRegistry);
+
+        customMeterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        metricsService = new MetricsService(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), new MetricsProperties());
+
+        sampledStageTimers = new StageTimers(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), new MetricsProperties());
+        MetricsProperties sampleAll = new MetricsProperties();
+        sampleAll.getStageTiming().setSampleRate(1.0);
+        allStageTimers = new StageTimers(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), sampleAll);
+    }
+
+    @Benchmark
+    public void legacyCounters() {
+        apiCallCounter.increment();
+        getRequestCounter.increment();
+        serviceApiCallsCounter.increment();
+        totalRequests.incrementAndGet();
+    }
+
+    /**
+     * The legacy counters plus a response time sample, i.e. what the old
+     * path would have cost had the @Timed annotations been active.
+     */
+    @Benchmark
+    public void legacyCountersAndTimer() {
+        legacyCounters();
+        responseTimer.record(DURATION_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void recordApiCall() {
+        metricsService.recordApiCall(ApiMethod.GET, DURATION_NANOS);
+    }
+
+    @Benchmark
+    public void stageTimerSampled() {
+        sampledStageTimers.stop(PipelineStage.PARSE_BODY, sampledStageTimers.start());
+    }
+
+    @Benchmark
+    public void stageTimerEveryCall() {
+        allStageTimers.stop(PipelineStage.PARSE_BODY, allStageTimers.start());
+    }
+
+    @Benchmark
+    public Counter customCounterRegisterEachCall(TagState state) {
+        Counter counter = Counter.builder("devops_custom_events_total")
+                .description("Custom events")
+                .tag("endpoint", state.endpoint())
+                .tag("outcome", "success")
+                .register(customMeterRegistry);
+        counter.increment();
+        return counter;
+    }
+
+    @Benchmark
+    public Counter customCounterCached(TagState state) {
+        Counter counter = metricsService.createCustomCounter("devops_custom_events_total", "Custom events",
+                "endpoint", state.endpoint(), "outcome", "success");
+        counter.increment();
+        return counter;
+    }
+
+    /**
+     * Cycles each thread through a small set of tag values, as hot code with
+     * dynamic tags would.
+     */
+    @State(Scope.Thread)
+    public static class TagState {
+
+        private static final String[] ENDPOINTS = {"/api", "/api/health", "/api/info", "/api/batch"};
+
+        private int next;
+
+        String endpoint() {
+            return ENDPOINTS[next++ & (ENDPOINTS.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,33 @@
+#!/bin/bash
+
+# Generate the self-signed certificate used by the "tls" Spring profile
+# (app/src/main/resources/application-tls.yml) for local HTTPS and HTTP/2
+# over TLS. Writes app/certs/local.p12; clients have to trust it explicitly
+# (e.g. curl --insecure, or --cacert with the exported certificate).
+
+set -e
+
+CERT_DIR="$(cd "$(dirname "$0")/.." && pwd)/app/certs"
+KEY_STORE="$CERT_DIR/local.p12"
+PASSWORD="${TLS_KEY_STORE_PASSWORD:-changeit}"
+
+mkdir -p "$CERT_DIR"
+rm -f "$KEY_STORE"
+
+keytool -genkeypair \
+    -alias local \
+    -keyalg EC -groupname secp256r1 \
+    -validity 365 \
+    -dname "CN=localhost" \
+    -ext "SAN=dns:localhost,ip:127.0.0.1,ip:::1" \
+    -storetype PKCS12 \
+    -keystore "$KEY_STORE" \
+    -storepass "$PASSWORD"
+
+keytool -exportcert -rfc \
+    -alias local \
+    -keystore "$KEY_STORE" \
+    -storepass "$PASSWORD" \
+    -file "$CERT_DIR/local.crt"
+
+echo "Wrote $KEY_STORE and $CERT_DIR/local.crt"